@@ -114,9 +114,12 @@ public final class OkHttpUtils {
 
     @Override
     public void writeTo(BufferedSink sink) throws IOException {
+      // OkHttp may write the body more than once if the request is retried
+      // (e.g. on a stale pooled connection) so the buffers must not be consumed
       for (ByteBuffer buffer : buffers) {
-        while (buffer.hasRemaining()) {
-          sink.write(buffer);
+        ByteBuffer duplicate = buffer.duplicate();
+        while (duplicate.hasRemaining()) {
+          sink.write(duplicate);
         }
       }
     }
@@ -0,0 +1,74 @@
+package datadog.communication.monitor;
+
+import static datadog.communication.monitor.DDAgentStatsDClientManager.statsDClientManager;
+
+import datadog.trace.api.Config;
+import datadog.trace.api.StatsDClient;
+import datadog.trace.api.config.GeneralConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Creates the clients reporting the health metrics of the tracer and of the profiler. */
+public final class HealthMetricsStatsD {
+  static final String LANG_STATSD_TAG = "lang";
+  static final String LANG_VERSION_STATSD_TAG = "lang_version";
+  static final String LANG_INTERPRETER_STATSD_TAG = "lang_interpreter";
+  static final String LANG_INTERPRETER_VENDOR_STATSD_TAG = "lang_interpreter_vendor";
+  static final String TRACER_VERSION_STATSD_TAG = "tracer_version";
+
+  private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+  private static final String JAVA_VM_NAME = System.getProperty("java.vm.name", "unknown");
+  private static final String JAVA_VM_VENDOR = System.getProperty("java.vm.vendor", "unknown");
+
+  private HealthMetricsStatsD() {}
+
+  /**
+   * @param tracerVersion the version reported in the {@value #TRACER_VERSION_STATSD_TAG} tag
+   * @return a client sending health metrics to the configured StatsD server, or a no-op client
+   *     when health metrics are disabled
+   */
+  public static StatsDClient createClient(final Config config, final String tracerVersion) {
+    if (!config.isHealthMetricsEnabled()) {
+      return StatsDClient.NO_OP;
+    }
+    String host = config.getHealthMetricsStatsdHost();
+    if (host == null) {
+      host = config.getJmxFetchStatsdHost();
+    }
+    Integer port = config.getHealthMetricsStatsdPort();
+    if (port == null) {
+      port = config.getJmxFetchStatsdPort();
+    }
+    return statsDClientManager()
+        .statsDClient(host, port, "datadog.tracer", generateConstantTags(config, tracerVersion));
+  }
+
+  static String[] generateConstantTags(final Config config, final String tracerVersion) {
+    final List<String> constantTags = new ArrayList<>();
+
+    constantTags.add(statsdTag(LANG_STATSD_TAG, "java"));
+    constantTags.add(statsdTag(LANG_VERSION_STATSD_TAG, JAVA_VERSION));
+    constantTags.add(statsdTag(LANG_INTERPRETER_STATSD_TAG, JAVA_VM_NAME));
+    constantTags.add(statsdTag(LANG_INTERPRETER_VENDOR_STATSD_TAG, JAVA_VM_VENDOR));
+    constantTags.add(statsdTag(TRACER_VERSION_STATSD_TAG, tracerVersion));
+    constantTags.add(statsdTag("service", config.getServiceName()));
+
+    final Map<String, String> mergedSpanTags = config.getMergedSpanTags();
+    final String version = mergedSpanTags.get(GeneralConfig.VERSION);
+    if (version != null && !version.isEmpty()) {
+      constantTags.add(statsdTag("version", version));
+    }
+
+    final String env = mergedSpanTags.get(GeneralConfig.ENV);
+    if (env != null && !env.isEmpty()) {
+      constantTags.add(statsdTag("env", env));
+    }
+
+    return constantTags.toArray(new String[0]);
+  }
+
+  private static String statsdTag(final String tagPrefix, final String tagValue) {
+    return tagPrefix + ":" + tagValue;
+  }
+}
@@ -0,0 +1,72 @@
+package datadog.trace.bootstrap;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the call depth tracking done by advice entering and exiting nested instrumented calls,
+ * like a statement executed by a traced connection wrapped by another traced connection.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Threads(8)
+@Fork(value = 1)
+public class CallDepthBenchmark {
+
+  private static final CallDepthThreadLocalMap.CallDepthId STATEMENT =
+      CallDepthThreadLocalMap.idOf(Statement.class);
+
+  @Param({"1", "3"})
+  int nesting;
+
+  @Benchmark
+  public int enterAndExit() {
+    int depth = 0;
+    for (int i = 0; i < nesting; ++i) {
+      depth += CallDepthThreadLocalMap.incrementCallDepth(Statement.class);
+    }
+    for (int i = 0; i < nesting; ++i) {
+      depth += CallDepthThreadLocalMap.decrementCallDepth(Statement.class);
+    }
+    return depth;
+  }
+
+  @Benchmark
+  public int enterAndExitById() {
+    int depth = 0;
+    for (int i = 0; i < nesting; ++i) {
+      depth += CallDepthThreadLocalMap.incrementCallDepth(STATEMENT);
+    }
+    for (int i = 0; i < nesting; ++i) {
+      depth += CallDepthThreadLocalMap.decrementCallDepth(STATEMENT);
+    }
+    return depth;
+  }
+
+  @Benchmark
+  public int enterAndResetNested() {
+    int depth = CallDepthThreadLocalMap.incrementCallDepth(Connection.class);
+    for (int i = 0; i < nesting; ++i) {
+      depth += CallDepthThreadLocalMap.incrementCallDepth(Statement.class);
+    }
+    CallDepthThreadLocalMap.reset(Statement.class);
+    CallDepthThreadLocalMap.reset(Connection.class);
+    return depth;
+  }
+}
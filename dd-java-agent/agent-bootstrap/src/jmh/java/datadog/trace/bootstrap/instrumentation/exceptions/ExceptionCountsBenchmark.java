@@ -0,0 +1,184 @@
+package datadog.trace.bootstrap.instrumentation.exceptions;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares counting exceptions by type name in a {@link ConcurrentHashMap}, as the exception
+ * histogram used to, with {@link ExceptionTypeCounts}. Exception types follow a Zipf distribution,
+ * so that a few types account for most exceptions like in exception-heavy services.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Threads(8)
+@Fork(value = 1)
+public class ExceptionCountsBenchmark {
+
+  private static final Throwable[] TYPES = {
+    new NullPointerException(),
+    new IllegalArgumentException(),
+    new IllegalStateException(),
+    new IndexOutOfBoundsException(),
+    new ArrayIndexOutOfBoundsException(),
+    new StringIndexOutOfBoundsException(),
+    new ClassCastException(),
+    new ArithmeticException(),
+    new NumberFormatException(),
+    new UnsupportedOperationException(),
+    new NegativeArraySizeException(),
+    new ArrayStoreException(),
+    new SecurityException(),
+    new RuntimeException(),
+    new Exception(),
+    new InterruptedException(),
+    new CloneNotSupportedException(),
+    new ClassNotFoundException(),
+    new NoSuchFieldException(),
+    new NoSuchMethodException(),
+    new java.io.IOException(),
+    new java.io.EOFException(),
+    new java.io.FileNotFoundException(),
+    new java.io.UnsupportedEncodingException(),
+    new java.net.ConnectException(),
+    new java.net.SocketTimeoutException(),
+    new java.net.UnknownHostException(),
+    new java.util.NoSuchElementException(),
+    new java.util.ConcurrentModificationException(),
+    new java.util.concurrent.TimeoutException(),
+    new java.util.concurrent.ExecutionException(null),
+    new java.util.concurrent.CancellationException()
+  };
+
+  private static final int SEQUENCE_LENGTH = 4096;
+
+  @Param({"1.2"})
+  double skew;
+
+  @Param({"16"})
+  int maxTopItems;
+
+  private Throwable[] sequence;
+
+  private final Map<String, AtomicLong> map = new ConcurrentHashMap<>();
+  private ExceptionTypeCounts counts;
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next;
+  }
+
+  @Setup
+  public void setup() {
+    double[] cumulative = new double[TYPES.length];
+    double sum = 0;
+    for (int rank = 0; rank < TYPES.length; ++rank) {
+      sum += 1 / Math.pow(rank + 1, skew);
+      cumulative[rank] = sum;
+    }
+    Random random = new Random(0);
+    sequence = new Throwable[SEQUENCE_LENGTH];
+    for (int i = 0; i < SEQUENCE_LENGTH; ++i) {
+      double sample = random.nextDouble() * sum;
+      int rank = 0;
+      while (cumulative[rank] < sample) {
+        ++rank;
+      }
+      sequence[i] = TYPES[rank];
+    }
+    counts = new ExceptionTypeCounts(TYPES.length);
+  }
+
+  @Benchmark
+  public boolean recordMap(Cursor cursor) {
+    String typeName = next(cursor).getClass().getName();
+    AtomicLong count = map.get(typeName);
+    if (null == count) {
+      count = new AtomicLong();
+      AtomicLong existing = map.putIfAbsent(typeName, count);
+      if (null != existing) {
+        count = existing;
+      }
+    }
+    return count.getAndIncrement() == 0;
+  }
+
+  @Benchmark
+  public boolean recordCounts(Cursor cursor) {
+    return counts.record(next(cursor).getClass());
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void emitMap(Blackhole blackhole) {
+    Cursor cursor = new Cursor();
+    for (int i = 0; i < TYPES.length; ++i) {
+      recordMap(cursor);
+    }
+    List<Map.Entry<String, Long>> items = new ArrayList<>();
+    for (Map.Entry<String, AtomicLong> entry : map.entrySet()) {
+      long count = entry.getValue().getAndSet(0);
+      if (count != 0) {
+        items.add(new java.util.AbstractMap.SimpleEntry<>(entry.getKey(), count));
+      }
+    }
+    Collections.sort(
+        items,
+        new Comparator<Map.Entry<String, Long>>() {
+          @Override
+          public int compare(Map.Entry<String, Long> left, Map.Entry<String, Long> right) {
+            return Long.compare(right.getValue(), left.getValue());
+          }
+        });
+    for (Map.Entry<String, Long> item : items.subList(0, Math.min(maxTopItems, items.size()))) {
+      blackhole.consume(item);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void emitCounts(final Blackhole blackhole) {
+    Cursor cursor = new Cursor();
+    for (int i = 0; i < TYPES.length; ++i) {
+      recordCounts(cursor);
+    }
+    counts.drainTopItems(
+        maxTopItems,
+        new ExceptionTypeCounts.Visitor() {
+          @Override
+          public void visit(String typeName, long count) {
+            blackhole.consume(count);
+          }
+        });
+    counts.releaseUnused();
+  }
+
+  private Throwable next(Cursor cursor) {
+    int i = cursor.next;
+    cursor.next = (i + 1) & (SEQUENCE_LENGTH - 1);
+    return sequence[i];
+  }
+}
@@ -1,50 +1,123 @@
 package datadog.trace.bootstrap;
 
 import datadog.trace.api.GenericClassValue;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility to track nested instrumentation.
  *
  * <p>For example, this can be used to track nested calls to super() in constructors by calling
  * #incrementCallDepth at the beginning of each constructor.
+ *
+ * <p>Each class used as a key is assigned a small id the first time it's seen, the call depths of a
+ * thread are kept in a single array indexed by these ids. Ids aren't reused, so once {@value
+ * #MAX_INDEXED_IDS} key classes have been seen, for example because classes used as keys keep
+ * being redefined by new class loaders, the call depths of further key classes are kept in a weak
+ * map per thread instead.
+ *
+ * <p>Hot paths should look up the {@link CallDepthId} of their key once, and keep it in a static
+ * field of a helper class, rather than pay for a lookup by class on each call.
  */
 public class CallDepthThreadLocalMap {
 
-  private static final ClassValue<ThreadLocalDepth> TLS =
-      GenericClassValue.constructing(ThreadLocalDepth.class);
+  static final int MAX_INDEXED_IDS = 1024;
+
+  private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+  private static final ClassValue<CallDepthId> IDS =
+      GenericClassValue.constructing(CallDepthId.class);
+
+  private static final ThreadLocal<int[]> TLS =
+      new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+          return new int[Math.max(16, Math.min(NEXT_ID.get(), MAX_INDEXED_IDS))];
+        }
+      };
+
+  private static final ThreadLocal<Map<CallDepthId, int[]>> UNINDEXED =
+      new ThreadLocal<Map<CallDepthId, int[]>>() {
+        @Override
+        protected Map<CallDepthId, int[]> initialValue() {
+          return new WeakHashMap<>();
+        }
+      };
+
+  /** @return the id to track call depths keyed by the class with */
+  public static CallDepthId idOf(final Class<?> k) {
+    return IDS.get(k);
+  }
 
   public static int incrementCallDepth(final Class<?> k) {
-    return TLS.get(k).get().increment();
+    return incrementCallDepth(IDS.get(k));
+  }
+
+  public static int incrementCallDepth(final CallDepthId k) {
+    final int id = k.id;
+    if (id < 0) {
+      return unindexed(k)[0]++;
+    }
+    return depths(id)[id]++;
   }
 
   public static int decrementCallDepth(final Class<?> k) {
-    return TLS.get(k).get().decrement();
+    return decrementCallDepth(IDS.get(k));
   }
 
-  public static void reset(final Class<?> k) {
-    TLS.get(k).get().depth = 0;
+  public static int decrementCallDepth(final CallDepthId k) {
+    final int id = k.id;
+    if (id < 0) {
+      return --unindexed(k)[0];
+    }
+    return --depths(id)[id];
   }
 
-  private static final class Depth {
-    private int depth;
+  public static void reset(final Class<?> k) {
+    reset(IDS.get(k));
+  }
 
-    private Depth() {
-      this.depth = 0;
+  public static void reset(final CallDepthId k) {
+    final int id = k.id;
+    if (id < 0) {
+      unindexed(k)[0] = 0;
+    } else {
+      depths(id)[id] = 0;
     }
+  }
 
-    private int increment() {
-      return this.depth++;
+  private static int[] depths(final int id) {
+    int[] depths = TLS.get();
+    if (id >= depths.length) {
+      depths =
+          Arrays.copyOf(depths, Math.min(Math.max(id + 1, depths.length * 2), MAX_INDEXED_IDS));
+      TLS.set(depths);
     }
+    return depths;
+  }
 
-    private int decrement() {
-      return --this.depth;
+  private static int[] unindexed(final CallDepthId k) {
+    Map<CallDepthId, int[]> depths = UNINDEXED.get();
+    int[] depth = depths.get(k);
+    if (null == depth) {
+      depth = new int[1];
+      depths.put(k, depth);
     }
+    return depth;
   }
 
-  public static final class ThreadLocalDepth extends ThreadLocal<Depth> {
-    @Override
-    protected Depth initialValue() {
-      return new Depth();
+  public static final class CallDepthId {
+    final int id;
+
+    public CallDepthId() {
+      int id = NEXT_ID.getAndIncrement();
+      if (id >= MAX_INDEXED_IDS) {
+        NEXT_ID.set(MAX_INDEXED_IDS); // don't let the counter wrap around
+        id = -1;
+      }
+      this.id = id;
     }
   }
 }
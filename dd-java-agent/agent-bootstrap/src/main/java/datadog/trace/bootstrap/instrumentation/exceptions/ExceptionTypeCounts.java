@@ -0,0 +1,169 @@
+package datadog.trace.bootstrap.instrumentation.exceptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts the instances of exception types, tracking at most a fixed number of types between two
+ * {@linkplain #drainTopItems(int, Visitor)} calls. Instances of the types which don't fit are
+ * counted under {@value #CLIPPED_ENTRY_TYPE_NAME}.
+ *
+ * <p>Each exception type gets a counter through a {@linkplain ClassValue}, so recording an
+ * exception doesn't need its type name or a map lookup. A counter takes one of a fixed number of
+ * slots the first time it's incremented after a drain and gives it up when it wasn't incremented
+ * since the previous drain, draining only visits the slots.
+ */
+final class ExceptionTypeCounts {
+
+  static final String CLIPPED_ENTRY_TYPE_NAME = "TOO-MANY-EXCEPTIONS";
+
+  /** Receives the drained counts. */
+  interface Visitor {
+    void visit(String typeName, long count);
+  }
+
+  // the state of a counter has this bit set while it has a slot, the other bits hold the count
+  private static final long SLOTTED = 1L << 62;
+  private static final long COUNT_MASK = SLOTTED - 1;
+
+  private static final Comparator<Counted> BY_COUNT =
+      new Comparator<Counted>() {
+        @Override
+        public int compare(final Counted left, final Counted right) {
+          return Long.compare(left.count, right.count);
+        }
+      };
+
+  private final ClassValue<Counter> counters =
+      new ClassValue<Counter>() {
+        @Override
+        protected Counter computeValue(final Class<?> type) {
+          return new Counter(type.getName());
+        }
+      };
+
+  private final AtomicReferenceArray<Counter> slots;
+  private final AtomicInteger usedSlots = new AtomicInteger();
+  private final AtomicLong clipped = new AtomicLong();
+
+  ExceptionTypeCounts(final int maxSize) {
+    slots = new AtomicReferenceArray<>(Math.max(1, maxSize));
+  }
+
+  /**
+   * @return {@literal true} if this is the first record of the given type since the last drain
+   */
+  boolean record(final Class<?> type) {
+    final Counter counter = counters.get(type);
+    final long previous = counter.state.getAndIncrement();
+    if (previous == 0) {
+      // neither counted nor in a slot, only the thread seeing this looks for a slot
+      if (!claimSlot(counter)) {
+        // move what was counted meanwhile, threads recording later will try again
+        final long count = counter.state.getAndSet(0);
+        return clipped.getAndAdd(count) == 0;
+      }
+      return true;
+    }
+    return (previous & COUNT_MASK) == 0;
+  }
+
+  /**
+   * Resets the counts, visiting the {@code maxTopItems} highest ones (all of them if {@code
+   * maxTopItems} isn't positive) in descending order. Types remain in their slots until {@linkplain
+   * #releaseUnused()} is called.
+   */
+  void drainTopItems(final int maxTopItems, final Visitor visitor) {
+    final int limit = maxTopItems > 0 ? maxTopItems : Integer.MAX_VALUE;
+    final PriorityQueue<Counted> top = new PriorityQueue<>(16, BY_COUNT);
+    for (int i = 0; i < slots.length(); ++i) {
+      final Counter counter = slots.get(i);
+      if (null != counter) {
+        final long count = counter.state.get() & COUNT_MASK;
+        if (count > 0) {
+          // keeps what was recorded since the count was read
+          counter.state.getAndAdd(-count);
+          offer(top, limit, counter.typeName, count);
+        }
+      }
+    }
+    final long clippedCount = clipped.getAndSet(0);
+    if (clippedCount > 0) {
+      offer(top, limit, CLIPPED_ENTRY_TYPE_NAME, clippedCount);
+    }
+    final List<Counted> items = new ArrayList<>(top);
+    Collections.sort(items, Collections.reverseOrder(BY_COUNT));
+    for (final Counted item : items) {
+      visitor.visit(item.typeName, item.count);
+    }
+  }
+
+  /** Frees the slots of the types which weren't recorded since the last drain. */
+  void releaseUnused() {
+    for (int i = 0; i < slots.length(); ++i) {
+      final Counter counter = slots.get(i);
+      if (null != counter && counter.state.compareAndSet(SLOTTED, 0)) {
+        slots.compareAndSet(i, counter, null);
+        usedSlots.decrementAndGet();
+      }
+    }
+  }
+
+  private boolean claimSlot(final Counter counter) {
+    // avoid contending on the number of used slots once they're all used
+    if (usedSlots.get() >= slots.length()) {
+      return false;
+    }
+    if (usedSlots.incrementAndGet() > slots.length()) {
+      usedSlots.decrementAndGet();
+      return false;
+    }
+    // marked before it's published so that draining never unmarks it
+    counter.state.getAndAdd(SLOTTED);
+    int i = (counter.hash & Integer.MAX_VALUE) % slots.length();
+    // a slot was reserved so one is free, or will be freed
+    while (!slots.compareAndSet(i, null, counter)) {
+      if (++i == slots.length()) {
+        i = 0;
+      }
+    }
+    return true;
+  }
+
+  private static void offer(
+      final PriorityQueue<Counted> top, final int limit, final String typeName, final long count) {
+    if (top.size() < limit) {
+      top.offer(new Counted(typeName, count));
+    } else if (top.peek().count < count) {
+      top.poll();
+      top.offer(new Counted(typeName, count));
+    }
+  }
+
+  private static final class Counter {
+    final String typeName;
+    final int hash;
+    final AtomicLong state = new AtomicLong();
+
+    Counter(final String typeName) {
+      this.typeName = typeName;
+      this.hash = typeName.hashCode() * 0x9E3779B9;
+    }
+  }
+
+  private static final class Counted {
+    final String typeName;
+    final long count;
+
+    Counted(final String typeName, final long count) {
+      this.typeName = typeName;
+      this.count = count;
+    }
+  }
+}
@@ -1,36 +1,33 @@
 package datadog.trace.bootstrap.instrumentation.jdbc;
 
-import datadog.trace.api.Function;
-import datadog.trace.api.cache.DDCache;
-import datadog.trace.api.cache.DDCaches;
 import datadog.trace.api.normalize.SQLNormalizer;
 import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 
+/**
+ * The normalized SQL of a query and the database operation it performs.
+ *
+ * <p>The SQL is normalized when the query info is created, on the thread executing the statement,
+ * because the decorators set it as the resource name straight away. The query infos of prepared
+ * statements are cached, so each prepared statement is normalized and encoded once.
+ */
 public final class DBQueryInfo {
 
-  private static final DDCache<String, DBQueryInfo> CACHED_PREPARED_STATEMENTS =
-      DDCaches.newFixedSizeCache(512);
-  private static final Function<String, DBQueryInfo> NORMALIZE =
-      new Function<String, DBQueryInfo>() {
-
-        @Override
-        public DBQueryInfo apply(String sql) {
-          return new DBQueryInfo(sql);
-        }
-      };
+  private static final QueryInfoCache CACHED_PREPARED_STATEMENTS = new QueryInfoCache();
 
   public static DBQueryInfo ofStatement(String sql) {
     return new DBQueryInfo(sql);
   }
 
   public static DBQueryInfo ofPreparedStatement(String sql) {
-    return CACHED_PREPARED_STATEMENTS.computeIfAbsent(sql, NORMALIZE);
+    return CACHED_PREPARED_STATEMENTS.computeIfAbsent(sql);
   }
 
+  private final String rawSql;
   private final UTF8BytesString operation;
   private final UTF8BytesString sql;
 
   public DBQueryInfo(String sql) {
+    this.rawSql = sql;
     this.sql = SQLNormalizer.normalize(sql);
     this.operation = UTF8BytesString.create(extractOperation(this.sql));
   }
@@ -43,6 +40,10 @@ public final class DBQueryInfo {
     return sql;
   }
 
+  String getRawSql() {
+    return rawSql;
+  }
+
   public static CharSequence extractOperation(CharSequence sql) {
     if (null == sql) {
       return null;
@@ -0,0 +1,89 @@
+package datadog.trace.bootstrap.instrumentation.jdbc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches the {@link DBQueryInfo} of prepared statements, bounded by the total length of the cached
+ * SQL rather than by the number of statements, so that applications with many short statements
+ * can cache all of them without a few very long statements using up unbounded space.
+ *
+ * <p>Statements are stored in a fixed number of slots, looking at a few neighbouring slots on a
+ * collision before replacing the statement in the statement's home slot. When the total length
+ * goes over the limit, statements are evicted by a clock hand sweeping over the slots. Statements
+ * longer than a fraction of the limit aren't cached.
+ */
+final class QueryInfoCache {
+
+  static final int DEFAULT_SLOTS = 4096;
+  static final long DEFAULT_MAX_WEIGHT = 1 << 20;
+
+  private static final int PROBES = 4;
+
+  private final AtomicReferenceArray<DBQueryInfo> slots;
+  private final int mask;
+  private final long maxWeight;
+  private final int maxEntryWeight;
+  private final AtomicLong weight = new AtomicLong();
+  private final AtomicInteger clock = new AtomicInteger();
+
+  QueryInfoCache() {
+    this(DEFAULT_SLOTS, DEFAULT_MAX_WEIGHT);
+  }
+
+  QueryInfoCache(int slots, long maxWeight) {
+    int size = Integer.highestOneBit(Math.max(slots, PROBES) - 1) << 1;
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+    this.maxWeight = maxWeight;
+    this.maxEntryWeight = (int) Math.min(Integer.MAX_VALUE, maxWeight / 16);
+  }
+
+  DBQueryInfo computeIfAbsent(String sql) {
+    if (sql.length() > maxEntryWeight) {
+      return new DBQueryInfo(sql);
+    }
+    int hash = sql.hashCode();
+    int home = (hash ^ (hash >>> 16)) & mask;
+    int free = -1;
+    for (int i = 0; i < PROBES; ++i) {
+      int index = (home + i) & mask;
+      DBQueryInfo cached = slots.get(index);
+      if (null == cached) {
+        if (free < 0) {
+          free = index;
+        }
+      } else if (sql.equals(cached.getRawSql())) {
+        return cached;
+      }
+    }
+    DBQueryInfo info = new DBQueryInfo(sql);
+    int index = free < 0 ? home : free;
+    DBQueryInfo replaced = slots.getAndSet(index, info);
+    long total = weight.addAndGet(sql.length() - weightOf(replaced));
+    if (total > maxWeight) {
+      evict();
+    }
+    return info;
+  }
+
+  private void evict() {
+    // give up after one sweep, other threads may be adding statements concurrently
+    for (int i = 0; i <= mask && weight.get() > maxWeight; ++i) {
+      int index = clock.getAndIncrement() & mask;
+      DBQueryInfo evicted = slots.getAndSet(index, null);
+      if (null != evicted) {
+        weight.addAndGet(-weightOf(evicted));
+      }
+    }
+  }
+
+  long weight() {
+    return weight.get();
+  }
+
+  private static int weightOf(DBQueryInfo info) {
+    return null == info ? 0 : info.getRawSql().length();
+  }
+}
@@ -1,14 +1,11 @@
 package datadog.trace.bootstrap.instrumentation.exceptions;
 
 import datadog.trace.api.Config;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 import jdk.jfr.EventType;
 import jdk.jfr.FlightRecorder;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * A simple exception type histogram implementation.<br>
@@ -19,22 +16,21 @@ import org.slf4j.LoggerFactory;
  * An {@linkplain ExceptionHistogram} instance is registered with JFR to call {@linkplain
  * ExceptionHistogram#emit()} method at chunk end, as specified in {@linkplain ExceptionCountEvent}
  * class. This callback will then emit a number of {@linkplain ExceptionCountEvent} events.
+ * <br>
+ * The counts are kept in {@linkplain ExceptionTypeCounts}, which is bounded and lock-free.
  */
 public class ExceptionHistogram {
 
-  private static final Logger log = LoggerFactory.getLogger(ExceptionHistogram.class);
-
-  static final String CLIPPED_ENTRY_TYPE_NAME = "TOO-MANY-EXCEPTIONS";
+  static final String CLIPPED_ENTRY_TYPE_NAME = ExceptionTypeCounts.CLIPPED_ENTRY_TYPE_NAME;
 
-  private final Map<String, AtomicLong> histogram = new ConcurrentHashMap<>();
+  private final ExceptionTypeCounts histogram;
   private final int maxTopItems;
-  private final int maxSize;
   private final EventType exceptionCountEventType;
   private final Runnable eventHook;
 
   ExceptionHistogram(final Config config) {
     maxTopItems = config.getProfilingExceptionHistogramTopItems();
-    maxSize = config.getProfilingExceptionHistogramMaxCollectionSize();
+    histogram = new ExceptionTypeCounts(config.getProfilingExceptionHistogramMaxCollectionSize());
     exceptionCountEventType = EventType.getEventType(ExceptionCountEvent.class);
     eventHook = this::emit;
     FlightRecorder.addPeriodicEvent(ExceptionCountEvent.class, eventHook);
@@ -56,27 +52,15 @@ public class ExceptionHistogram {
     if (exception == null) {
       return false;
     }
-    return record(exception.getClass().getName());
-  }
-
-  private boolean record(String typeName) {
     if (!exceptionCountEventType.isEnabled()) {
       return false;
     }
-    if (!histogram.containsKey(typeName) && histogram.size() >= maxSize) {
-      log.debug("Histogram is too big, skipping adding new entry: {}", typeName);
-      // Overwrite type name to limit total number of entries in the histogram
-      typeName = CLIPPED_ENTRY_TYPE_NAME;
-    }
-
-    long count = histogram.computeIfAbsent(typeName, k -> new AtomicLong()).getAndIncrement();
-
     /*
      * This is supposed to signal that a particular exception type was seen the first time in a particular time span.
      * !ATTENTION! This will work on best-effort basis - namely all overflowing exception which are recorded
      * as 'TOO-MANY-EXCEPTIONS' will receive only one common 'first hit'.
      */
-    return count == 0;
+    return histogram.record(exception.getClass());
   }
 
   private void emit() {
@@ -88,21 +72,13 @@ public class ExceptionHistogram {
   }
 
   void doEmit() {
-    Stream<Pair<String, Long>> items =
-        histogram.entrySet().stream()
-            .map(e -> Pair.of(e.getKey(), e.getValue().getAndSet(0)))
-            .filter(p -> p.getValue() != 0)
-            .sorted((l1, l2) -> Long.compare(l2.getValue(), l1.getValue()));
-
-    if (maxTopItems > 0) {
-      items = items.limit(maxTopItems);
-    }
+    List<Pair<String, Long>> items = new ArrayList<>();
+    histogram.drainTopItems(maxTopItems, (type, count) -> items.add(Pair.of(type, count)));
 
-    emitEvents(items);
+    emitEvents(items.stream());
 
-    // Stream is 'materialized' by `forEach` call above so we have to do clean up after that
-    // Otherwise we would keep entries for one extra iteration
-    histogram.entrySet().removeIf(e -> e.getValue().get() == 0L);
+    // Types recorded while emitting keep their slot, the others are released for the next period
+    histogram.releaseUnused();
   }
 
   // important that this is non-final and package private; allows concurrency tests
@@ -32,4 +32,80 @@ class CallDepthThreadLocalMapTest extends DDSpecification {
     CallDepthThreadLocalMap.incrementCallDepth(k1) == 1
     CallDepthThreadLocalMap.incrementCallDepth(k2) == 1
   }
+
+  def "call depths are tracked per thread"() {
+    setup:
+    Class<?> k = Long
+    CallDepthThreadLocalMap.reset(k)
+    CallDepthThreadLocalMap.incrementCallDepth(k)
+    def otherThreadDepth = 0
+
+    when:
+    def thread = new Thread({
+      otherThreadDepth = CallDepthThreadLocalMap.incrementCallDepth(k)
+    })
+    thread.start()
+    thread.join()
+
+    then:
+    otherThreadDepth == 0
+    CallDepthThreadLocalMap.incrementCallDepth(k) == 1
+    CallDepthThreadLocalMap.decrementCallDepth(k) == 1
+    CallDepthThreadLocalMap.decrementCallDepth(k) == 0
+
+    cleanup:
+    CallDepthThreadLocalMap.reset(k)
+  }
+
+  def "call depths of keys seen after the thread started are tracked"() {
+    setup:
+    Class<?> k1 = Short
+    CallDepthThreadLocalMap.reset(k1)
+    CallDepthThreadLocalMap.incrementCallDepth(k1)
+
+    when:
+    // more keys than the initial capacity of the thread's call depths
+    def keys = (1..100).collect { new GroovyClassLoader().parseClass("class K$it {}") }
+    keys.each { CallDepthThreadLocalMap.incrementCallDepth(it) }
+
+    then:
+    keys.every { CallDepthThreadLocalMap.incrementCallDepth(it) == 1 }
+    keys.every { CallDepthThreadLocalMap.decrementCallDepth(it) == 1 }
+    CallDepthThreadLocalMap.incrementCallDepth(k1) == 1
+
+    cleanup:
+    CallDepthThreadLocalMap.reset(k1)
+  }
+
+  def "call depths are tracked by id once ids run out"() {
+    setup:
+    // more ids than can be indexed, as if key classes kept being redefined
+    def ids = (0..CallDepthThreadLocalMap.MAX_INDEXED_IDS).collect {
+      new CallDepthThreadLocalMap.CallDepthId()
+    }
+    def otherThreadDepth = -1
+
+    when:
+    ids.each { CallDepthThreadLocalMap.incrementCallDepth(it) }
+    def thread = new Thread({
+      otherThreadDepth = CallDepthThreadLocalMap.incrementCallDepth(ids.last())
+    })
+    thread.start()
+    thread.join()
+
+    then:
+    ids.last().id < 0
+    otherThreadDepth == 0
+    ids.every { CallDepthThreadLocalMap.incrementCallDepth(it) == 1 }
+    ids.every { CallDepthThreadLocalMap.decrementCallDepth(it) == 1 }
+
+    when:
+    CallDepthThreadLocalMap.reset(ids.last())
+
+    then:
+    CallDepthThreadLocalMap.incrementCallDepth(ids.last()) == 0
+
+    cleanup:
+    ids.each { CallDepthThreadLocalMap.reset(it) }
+  }
 }
@@ -1,5 +1,8 @@
 package datadog.trace.bootstrap.instrumentation
 
+import datadog.communication.serialization.GrowableBuffer
+import datadog.communication.serialization.msgpack.MsgPackWriter
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString
 import datadog.trace.bootstrap.instrumentation.jdbc.DBQueryInfo
 import datadog.trace.test.util.DDSpecification
 
@@ -18,4 +21,44 @@ class DBQueryInfoTest extends DDSpecification {
     "SELECT"          | "SELECT * FROM TABLE WHERE condition"
     "CALL"            | "{CALL STORED_PROC()}"
   }
+
+  def "sql is normalized"() {
+    when:
+    DBQueryInfo info = DBQueryInfo.ofStatement(sql)
+
+    then:
+    info.getSql() as String == normalized
+    info.getSql().length() == normalized.length()
+
+    where:
+    sql                                     | normalized
+    "SELECT * FROM TABLE WHERE id = 42"     | "SELECT * FROM TABLE WHERE id = ?"
+    "SELECT * FROM TABLE WHERE name = 'xy'" | "SELECT * FROM TABLE WHERE name = ?"
+    "SELECT * FROM TABLE"                   | "SELECT * FROM TABLE"
+  }
+
+  def "prepared statements are cached"() {
+    expect:
+    DBQueryInfo.ofPreparedStatement("SELECT * FROM TABLE WHERE id = ?")
+      .is(DBQueryInfo.ofPreparedStatement(new String("SELECT * FROM TABLE WHERE id = ?")))
+  }
+
+  def "normalized sql is encoded once for every span using the statement"() {
+    setup:
+    DBQueryInfo info = DBQueryInfo.ofPreparedStatement("SELECT * FROM TABLE WHERE id = 42")
+    GrowableBuffer buffer = new GrowableBuffer(1024)
+    MsgPackWriter writer = new MsgPackWriter(buffer)
+
+    when:
+    CharSequence first = info.getSql()
+    writer.writeString(first, null)
+    byte[] encoded = info.getSql().getUtf8Bytes()
+    writer.writeString(info.getSql(), null)
+
+    then:
+    first instanceof UTF8BytesString
+    info.getSql().is(first)
+    // the serializer writes the cached bytes rather than encoding the SQL again
+    info.getSql().getUtf8Bytes().is(encoded)
+  }
 }
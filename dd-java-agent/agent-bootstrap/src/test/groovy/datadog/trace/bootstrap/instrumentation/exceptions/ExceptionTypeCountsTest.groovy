@@ -0,0 +1,103 @@
+package datadog.trace.bootstrap.instrumentation.exceptions
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+import static datadog.trace.bootstrap.instrumentation.exceptions.ExceptionTypeCounts.CLIPPED_ENTRY_TYPE_NAME
+
+class ExceptionTypeCountsTest extends DDSpecification {
+
+  def "top items are drained in descending order"() {
+    setup:
+    def counts = new ExceptionTypeCounts(10)
+
+    when:
+    def firstHits = record(counts, [(IllegalStateException): 3, (NullPointerException): 5, (RuntimeException): 1])
+
+    then:
+    firstHits == 3
+    drain(counts, 2) == [(NullPointerException.name): 5L, (IllegalStateException.name): 3L]
+
+    when: "counts are reset by draining"
+    firstHits = record(counts, [(RuntimeException): 2])
+
+    then:
+    firstHits == 1
+    drain(counts, 0) == [(RuntimeException.name): 2L]
+  }
+
+  def "types which don't fit are clipped"() {
+    setup:
+    def counts = new ExceptionTypeCounts(2)
+
+    when:
+    def firstHits = record(counts, [(Exception): 5, (IllegalArgumentException): 8, (NegativeArraySizeException): 10, (NullPointerException): 11])
+
+    then: "clipped types share a first hit"
+    firstHits == 3
+    drain(counts, 0) == [(CLIPPED_ENTRY_TYPE_NAME): 21L, (IllegalArgumentException.name): 8L, (Exception.name): 5L]
+
+    when: "types recorded since the last drain keep their slot"
+    record(counts, [(IllegalArgumentException): 1])
+    counts.releaseUnused()
+    record(counts, [(NullPointerException): 2, (RuntimeException): 3])
+
+    then:
+    drain(counts, 0) == [(CLIPPED_ENTRY_TYPE_NAME): 3L, (NullPointerException.name): 2L, (IllegalArgumentException.name): 1L]
+  }
+
+  def "concurrent records are all counted"() {
+    setup:
+    def counts = new ExceptionTypeCounts(4)
+    def types = [IllegalStateException, NullPointerException, RuntimeException, Exception, Error, IOException]
+    def threads = 8
+    def recordsPerThread = 10_000
+    def executor = Executors.newFixedThreadPool(threads)
+    def start = new CountDownLatch(1)
+    def drained = [:].withDefault { 0L }
+
+    when:
+    def futures = (1..threads).collect { thread ->
+      executor.submit {
+        start.await()
+        for (int i = 0; i < recordsPerThread; ++i) {
+          counts.record(types[(i + thread) % types.size()])
+        }
+      }
+    }
+    start.countDown()
+    while (!futures.every { it.done }) {
+      drain(counts, 0).each { drained[it.key] += it.value }
+      counts.releaseUnused()
+    }
+    drain(counts, 0).each { drained[it.key] += it.value }
+
+    then:
+    drained.values().sum() == threads * recordsPerThread
+
+    cleanup:
+    executor.shutdownNow()
+    executor.awaitTermination(5, TimeUnit.SECONDS)
+  }
+
+  static int record(ExceptionTypeCounts counts, Map<Class<?>, Integer> records) {
+    int firstHits = 0
+    records.each { type, count ->
+      count.times {
+        if (counts.record(type)) {
+          firstHits++
+        }
+      }
+    }
+    return firstHits
+  }
+
+  static Map<String, Long> drain(ExceptionTypeCounts counts, int maxTopItems) {
+    def drained = new LinkedHashMap<String, Long>()
+    counts.drainTopItems(maxTopItems, { type, count -> drained.put(type, count) } as ExceptionTypeCounts.Visitor)
+    return drained
+  }
+}
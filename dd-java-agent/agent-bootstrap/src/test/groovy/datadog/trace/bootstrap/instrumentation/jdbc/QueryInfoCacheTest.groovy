@@ -0,0 +1,26 @@
+package datadog.trace.bootstrap.instrumentation.jdbc
+
+import datadog.trace.test.util.DDSpecification
+
+class QueryInfoCacheTest extends DDSpecification {
+
+  def "prepared statement cache is bounded by the length of the sql"() {
+    setup:
+    QueryInfoCache cache = new QueryInfoCache(64, 1024)
+
+    when:
+    List<String> statements = (0..99).collect { "SELECT * FROM TABLE_" + it + " WHERE id = ?" }
+    statements.each { cache.computeIfAbsent(it) }
+
+    then:
+    cache.weight() <= 1024
+    cache.computeIfAbsent(statements.last()).is(cache.computeIfAbsent(statements.last()))
+
+    when: "statements longer than a fraction of the limit aren't cached"
+    String longStatement = "SELECT " + ("x" * 100) + " FROM TABLE"
+    DBQueryInfo first = cache.computeIfAbsent(longStatement)
+
+    then:
+    !first.is(cache.computeIfAbsent(longStatement))
+  }
+}
@@ -0,0 +1,135 @@
+package com.datadog.profiling.uploader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the compression of each upload for {@linkplain CompressionType#ADAPTIVE}.
+ *
+ * <p>The first {@value #SAMPLE_SIZE} bytes of the recording are compressed with each codec to
+ * measure its compression ratio and CPU cost. The codec which is expected to take the least time to
+ * compress and send the whole recording, given the measured upload throughput, is selected. Codecs
+ * which would spend more than a share of the upload period compressing a recording of the size of
+ * the previous one are not considered.
+ */
+final class AdaptiveCompression {
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveCompression.class);
+
+  static final int SAMPLE_SIZE = 256 * 1024;
+
+  private static final CompressionType[] CODECS = {CompressionType.LZ4, CompressionType.GZIP};
+
+  /** Throughput assumed until an upload is measured, 1MB/s. */
+  static final double DEFAULT_BYTES_PER_NANO = 1e-3;
+
+  // share of the upload period which can be spent compressing
+  private static final double COMPRESSION_BUDGET = 0.05;
+
+  // weight of the latest measurement in the throughput average
+  private static final double THROUGHPUT_WEIGHT = 0.3;
+
+  private final long compressionBudgetNanos;
+
+  private volatile double bytesPerNano = Double.NaN;
+  private volatile long lastRecordingSize;
+
+  AdaptiveCompression(@Nonnull final Duration uploadPeriod) {
+    long periodNanos = uploadPeriod.toNanos();
+    this.compressionBudgetNanos =
+        periodNanos > 0 ? (long) (periodNanos * COMPRESSION_BUDGET) : Long.MAX_VALUE;
+  }
+
+  /**
+   * @param is uncompressed recording data; must support {@linkplain InputStream#mark(int)}, the
+   *     stream is reset to where it was after sampling
+   * @return the compression to use for the recording
+   */
+  CompressionType select(@Nonnull final InputStream is) throws IOException {
+    byte[] sample = new byte[SAMPLE_SIZE];
+    int length = 0;
+    is.mark(SAMPLE_SIZE);
+    try {
+      for (int read; length < SAMPLE_SIZE; length += read) {
+        read = is.read(sample, length, SAMPLE_SIZE - length);
+        if (read < 0) {
+          break;
+        }
+      }
+    } finally {
+      is.reset();
+    }
+    if (length == 0) {
+      return CompressionType.LZ4;
+    }
+
+    long recordingSize = Math.max(length, lastRecordingSize);
+    double throughput = Double.isNaN(bytesPerNano) ? DEFAULT_BYTES_PER_NANO : bytesPerNano;
+
+    CompressionType selected = CompressionType.OFF;
+    double bestNanos = recordingSize / throughput;
+    for (CompressionType codec : CODECS) {
+      long startNanos = System.nanoTime();
+      long compressedLength = compressedLength(codec, sample, length);
+      double nanosPerByte = (double) (System.nanoTime() - startNanos) / length;
+      double ratio = (double) compressedLength / length;
+
+      double compressionNanos = recordingSize * nanosPerByte;
+      double totalNanos = compressionNanos + recordingSize * ratio / throughput;
+      if (log.isDebugEnabled()) {
+        log.debug(
+            "Estimated {} for {} bytes: ratio {}, {} ms compressing, {} ms in total",
+            codec,
+            recordingSize,
+            ratio,
+            (long) compressionNanos / 1_000_000,
+            (long) totalNanos / 1_000_000);
+      }
+      if (compressionNanos <= compressionBudgetNanos && totalNanos < bestNanos) {
+        selected = codec;
+        bestNanos = totalNanos;
+      }
+    }
+    return selected;
+  }
+
+  /** Records the size of a recording and how long it took to send it once compressed. */
+  void recordUpload(final long recordingSize, final long uploadedBytes, final long uploadNanos) {
+    lastRecordingSize = recordingSize;
+    if (uploadedBytes > 0 && uploadNanos > 0) {
+      double measured = (double) uploadedBytes / uploadNanos;
+      double current = bytesPerNano;
+      bytesPerNano =
+          Double.isNaN(current)
+              ? measured
+              : THROUGHPUT_WEIGHT * measured + (1 - THROUGHPUT_WEIGHT) * current;
+    }
+  }
+
+  double getBytesPerNano() {
+    return bytesPerNano;
+  }
+
+  private static long compressedLength(
+      final CompressionType codec, final byte[] sample, final int length) throws IOException {
+    ByteCountingOutputStream counter = new ByteCountingOutputStream(NullOutputStream.INSTANCE);
+    try (OutputStream compressing = CompressingRequestBody.compressingStream(codec, counter)) {
+      compressing.write(sample, 0, length);
+    }
+    return counter.getWrittenBytes();
+  }
+
+  private static final class NullOutputStream extends OutputStream {
+    static final NullOutputStream INSTANCE = new NullOutputStream();
+
+    @Override
+    public void write(final int b) {}
+
+    @Override
+    public void write(@Nonnull final byte[] b, final int off, final int len) {}
+  }
+}
@@ -16,8 +16,11 @@ import okio.Okio;
 import okio.Source;
 
 /**
- * A specialized {@linkplain RequestBody} subclass performing on-the fly compression of the uploaded
- * data.
+ * A specialized {@linkplain RequestBody} subclass compressing the uploaded data.
+ *
+ * <p>The data is compressed once, into a {@linkplain SpillingBuffer}, the first time the body is
+ * written. When the request is retried the already compressed data is written out again. {@linkplain
+ * #release()} must be called once the request is completed.
  */
 final class CompressingRequestBody extends RequestBody {
   static final class MissingInputException extends IOException {
@@ -64,6 +67,9 @@ final class CompressingRequestBody extends RequestBody {
     int backoff(int ordinal);
   }
 
+  /** Compressed data up to this size is kept on heap, larger data is spilled to disk. */
+  static final int MEMORY_THRESHOLD = 2 * 1024 * 1024;
+
   static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
 
   // https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md#general-structure-of-lz4-frame-format
@@ -72,13 +78,18 @@ final class CompressingRequestBody extends RequestBody {
   private static final int GZ_MAGIC[] = new int[] {31, 139};
 
   private final InputStreamSupplier inputStreamSupplier;
-  private final OutputStreamMappingFunction outputStreamMapper;
+  private final CompressionType compressionType;
+  @Nullable private final AdaptiveCompression adaptiveCompression;
   private final RetryPolicy retryPolicy;
   private final RetryBackoff retryBackoff;
 
   private long readBytes = 0;
   private long writtenBytes = 0;
 
+  private SpillingBuffer compressed;
+  private CompressionType appliedCompression;
+  private long uploadStartNanos;
+
   /**
    * Create a new instance configured with 1 retry and constant 10ms backoff delay.
    *
@@ -117,8 +128,33 @@ final class CompressingRequestBody extends RequestBody {
       @Nonnull InputStreamSupplier inputStreamSupplier,
       @Nonnull RetryPolicy retryPolicy,
       @Nonnull RetryBackoff retryBackoff) {
+    this(compressionType, null, inputStreamSupplier, retryPolicy, retryBackoff);
+  }
+
+  /**
+   * Create a new instance configured with 1 retry and constant 10ms backoff delay.
+   *
+   * @param compressionType {@linkplain CompressionType} value
+   * @param adaptiveCompression selects the compression when the compression type is {@linkplain
+   *     CompressionType#ADAPTIVE}, the default compression is used when this is {@literal null}
+   * @param inputStreamSupplier supplier of the data input stream
+   */
+  CompressingRequestBody(
+      @Nonnull CompressionType compressionType,
+      @Nullable AdaptiveCompression adaptiveCompression,
+      @Nonnull InputStreamSupplier inputStreamSupplier) {
+    this(compressionType, adaptiveCompression, inputStreamSupplier, r -> r <= 1, r -> 10);
+  }
+
+  private CompressingRequestBody(
+      @Nonnull CompressionType compressionType,
+      @Nullable AdaptiveCompression adaptiveCompression,
+      @Nonnull InputStreamSupplier inputStreamSupplier,
+      @Nonnull RetryPolicy retryPolicy,
+      @Nonnull RetryBackoff retryBackoff) {
     this.inputStreamSupplier = inputStreamSupplier;
-    this.outputStreamMapper = getOutputStreamMapper(compressionType);
+    this.compressionType = compressionType;
+    this.adaptiveCompression = adaptiveCompression;
     this.retryPolicy = retryPolicy;
     this.retryBackoff = retryBackoff;
   }
@@ -136,7 +172,39 @@ final class CompressingRequestBody extends RequestBody {
   }
 
   @Override
-  public void writeTo(BufferedSink bufferedSink) throws IOException {
+  public synchronized void writeTo(BufferedSink bufferedSink) throws IOException {
+    if (compressed == null) {
+      compressed = compress();
+      uploadStartNanos = System.nanoTime();
+    }
+    compressed.writeTo(bufferedSink);
+    bufferedSink.flush();
+  }
+
+  /**
+   * Reports the upload of this body to the {@linkplain AdaptiveCompression} instance, if any. The
+   * upload is timed from when the body started being sent until now, so this should be called once
+   * the response has been received; writing the body out only fills the socket buffers.
+   *
+   * @param completed {@literal false} when the upload failed, only the size of the recording is
+   *     reported then
+   */
+  synchronized void recordUpload(final boolean completed) {
+    if (adaptiveCompression != null && compressed != null) {
+      adaptiveCompression.recordUpload(
+          readBytes, writtenBytes, completed ? System.nanoTime() - uploadStartNanos : 0);
+    }
+  }
+
+  /** Drops the compressed data. */
+  synchronized void release() {
+    if (compressed != null) {
+      compressed.release();
+    }
+  }
+
+  private SpillingBuffer compress() throws IOException {
+    SpillingBuffer buffer = new SpillingBuffer(MEMORY_THRESHOLD);
     Throwable lastException = null;
     boolean shouldRetry = false;
     int retry = 1;
@@ -147,10 +215,9 @@ final class CompressingRequestBody extends RequestBody {
        * The number of times this should be re-attempted as well as the backoff between the attempts
        * can be defined per CompressingRequestBody instance.
        *
-       * However, the failures in reading the input stream and writing the data out to the Okio sink
-       * will not be retried because doing so can result in corrupted data uploads. Instead, the client
-       * should use the OkHttpClient callback to get notified about failed requests and handle the retries
-       * at the request level.
+       * However, the failures in reading the input stream will not be retried because the data read
+       * so far has already been compressed. Once the data is compressed, writing it out again when
+       * the request is retried at the request level doesn't need the input stream anymore.
        */
       try (RecordingInputStream recordingInputStream = inputStreamSupplier.get()) {
         if (recordingInputStream.isEmpty()) {
@@ -162,9 +229,9 @@ final class CompressingRequestBody extends RequestBody {
         // Got the input stream so clear the 'lastException'
         lastException = null;
         try {
-          ByteCountingOutputStream outputStream =
-              new ByteCountingOutputStream(bufferedSink.outputStream());
+          ByteCountingOutputStream outputStream = new ByteCountingOutputStream(buffer);
           attemptWrite(inputStream, outputStream);
+          buffer.close();
           readBytes = inputStream.getReadBytes();
           writtenBytes = outputStream.getWrittenBytes();
         } catch (Throwable t) {
@@ -175,6 +242,7 @@ final class CompressingRequestBody extends RequestBody {
         }
       } catch (MissingInputException e) {
         // The recording is empty - just re-throw
+        buffer.release();
         throw e;
       } catch (Throwable t) {
         // Only the failures while obtaining the input stream are retriable.
@@ -187,6 +255,7 @@ final class CompressingRequestBody extends RequestBody {
           Thread.sleep(backoffMs);
         } catch (InterruptedException e) {
           Thread.currentThread().interrupt();
+          buffer.release();
           throw new IOException(e);
         }
         retry++;
@@ -195,10 +264,12 @@ final class CompressingRequestBody extends RequestBody {
       }
     } while (shouldRetry);
     if (lastException != null) {
+      buffer.release();
       throw lastException instanceof IOException
           ? (IOException) lastException
           : new IOException(lastException);
     }
+    return buffer;
   }
 
   long getReadBytes() {
@@ -209,10 +280,22 @@ final class CompressingRequestBody extends RequestBody {
     return writtenBytes;
   }
 
+  /**
+   * @return the compression applied to the data, {@linkplain CompressionType#OFF} when the data was
+   *     already compressed, or {@literal null} if the data hasn't been compressed yet
+   */
+  @Nullable
+  synchronized CompressionType getAppliedCompression() {
+    return appliedCompression;
+  }
+
   private void attemptWrite(@Nonnull InputStream inputStream, @Nonnull OutputStream outputStream)
       throws IOException {
+    // data which is already compressed is not compressed again
+    CompressionType compression =
+        isCompressed(inputStream) ? CompressionType.OFF : selectCompression(inputStream);
     try (OutputStream sinkStream =
-        isCompressed(inputStream)
+        compression == CompressionType.OFF
             ? new BufferedOutputStream(outputStream) {
               @Override
               public void close() throws IOException {
@@ -224,7 +307,8 @@ final class CompressingRequestBody extends RequestBody {
               }
             }
             : new BufferedOutputStream(
-                outputStreamMapper.apply(
+                compressingStream(
+                    compression,
                     new BufferedOutputStream(outputStream) {
                       @Override
                       public void close() throws IOException {
@@ -242,6 +326,16 @@ final class CompressingRequestBody extends RequestBody {
       sink.emit();
       sink.flush();
     }
+    appliedCompression = compression;
+  }
+
+  private CompressionType selectCompression(@Nonnull InputStream inputStream) throws IOException {
+    if (compressionType != CompressionType.ADAPTIVE) {
+      return compressionType;
+    }
+    return adaptiveCompression != null
+        ? adaptiveCompression.select(inputStream)
+        : CompressionType.LZ4;
   }
 
   /**
@@ -313,6 +407,12 @@ final class CompressingRequestBody extends RequestBody {
     }
   }
 
+  static OutputStream compressingStream(
+      @Nonnull CompressionType compressionType, @Nonnull OutputStream outputStream)
+      throws IOException {
+    return getOutputStreamMapper(compressionType).apply(outputStream);
+  }
+
   private static OutputStreamMappingFunction getOutputStreamMapper(
       @Nonnull CompressionType compressionType) {
     // currently only gzip and off are supported
@@ -328,6 +428,7 @@ final class CompressingRequestBody extends RequestBody {
         }
       case ON:
       case LZ4:
+      case ADAPTIVE:
       default:
         {
           return CompressingRequestBody::toLz4Stream;
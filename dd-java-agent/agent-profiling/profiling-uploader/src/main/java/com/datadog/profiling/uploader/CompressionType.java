@@ -11,7 +11,9 @@ enum CompressionType {
   /** Lower compression ratio with less CPU overhead * */
   LZ4,
   /** Better compression ratio for the price of higher CPU usage * */
-  GZIP;
+  GZIP,
+  /** Chosen for each upload by sampling the data, see {@linkplain AdaptiveCompression} */
+  ADAPTIVE;
 
   private static final Logger log = LoggerFactory.getLogger(CompressionType.class);
 
@@ -29,6 +31,8 @@ enum CompressionType {
         return LZ4;
       case "gzip":
         return GZIP;
+      case "adaptive":
+        return ADAPTIVE;
       default:
         log.warn("Unrecognizable compression type: {}. Defaulting to 'on'.", type);
         return ON;
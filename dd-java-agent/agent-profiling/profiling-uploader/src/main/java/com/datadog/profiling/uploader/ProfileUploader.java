@@ -25,6 +25,7 @@ import datadog.common.container.ContainerInfo;
 import datadog.common.socket.UnixDomainSocketFactory;
 import datadog.trace.api.Config;
 import datadog.trace.api.IOLogger;
+import datadog.trace.api.StatsDClient;
 import datadog.trace.util.AgentProxySelector;
 import datadog.trace.util.AgentThreadFactory;
 import java.io.File;
@@ -38,6 +39,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -90,6 +92,9 @@ public final class ProfileUploader {
 
   static final int TERMINATION_TIMEOUT = 5;
 
+  static final String COMPRESSION_METRIC = "profiling.upload.compression";
+  static final String BYTES_SAVED_METRIC = "profiling.upload.bytes_saved";
+
   private static final Headers DATA_HEADERS =
       Headers.of(
           "Content-Disposition", "form-data; name=\"" + DATA_PARAM + "\"; filename=\"profile\"");
@@ -162,9 +167,42 @@ public final class ProfileUploader {
   private final int terminationTimeout;
   private final List<String> tags;
   private final CompressionType compressionType;
+  private final AdaptiveCompression adaptiveCompression;
+  private final StatsDClient statsd;
+  private final long uploadWaitMillis;
+  // bounds the number of requests which are either running or waiting to be run
+  private final Semaphore uploadPermits =
+      new Semaphore(MAX_RUNNING_REQUESTS + MAX_ENQUEUED_REQUESTS);
 
   public ProfileUploader(final Config config) throws IOException {
-    this(config, new IOLogger(log), ContainerInfo.get().getContainerId(), TERMINATION_TIMEOUT);
+    this(config, StatsDClient.NO_OP);
+  }
+
+  /**
+   * @param config the configuration
+   * @param statsd reports the compression applied to each upload, closed on {@linkplain
+   *     #shutdown()}
+   */
+  public ProfileUploader(final Config config, final StatsDClient statsd) throws IOException {
+    this(
+        config,
+        statsd,
+        new IOLogger(log),
+        ContainerInfo.get().getContainerId(),
+        TERMINATION_TIMEOUT);
+  }
+
+  /**
+   * Note that this method is only visible for testing and should not be used from outside this
+   * class.
+   */
+  ProfileUploader(
+      final Config config,
+      final IOLogger ioLogger,
+      final String containerId,
+      final int terminationTimeout)
+      throws IOException {
+    this(config, StatsDClient.NO_OP, ioLogger, containerId, terminationTimeout);
   }
 
   /**
@@ -173,10 +211,12 @@ public final class ProfileUploader {
    */
   ProfileUploader(
       final Config config,
+      final StatsDClient statsd,
       final IOLogger ioLogger,
       final String containerId,
       final int terminationTimeout)
       throws IOException {
+    this.statsd = statsd;
     url = config.getFinalProfilingUrl();
     apiKey = config.getApiKey();
     agentless = config.isProfilingAgentless();
@@ -269,6 +309,12 @@ public final class ProfileUploader {
     client.dispatcher().setMaxRequestsPerHost(MAX_RUNNING_REQUESTS);
 
     compressionType = CompressionType.of(config.getProfilingUploadCompression());
+    adaptiveCompression =
+        compressionType == CompressionType.ADAPTIVE
+            ? new AdaptiveCompression(Duration.ofSeconds(config.getProfilingUploadPeriod()))
+            : null;
+    // there's no point waiting longer than it takes for the next profile to be ready
+    uploadWaitMillis = TimeUnit.SECONDS.toMillis(config.getProfilingUploadPeriod());
   }
 
   /**
@@ -285,6 +331,10 @@ public final class ProfileUploader {
    * Enqueue an upload request and run the provided hook when that request is completed
    * (successfully or failing).
    *
+   * <p>When too many requests are already enqueued this waits, for at most one upload period, for
+   * one of them to complete. Slowing down the caller delays taking the next profile rather than
+   * dropping this one.
+   *
    * @param type {@link RecordingType recording type}
    * @param data {@link RecordingData recording data}
    * @param onCompletion call-back to execute once the request is completed (successfully or
@@ -292,13 +342,17 @@ public final class ProfileUploader {
    */
   public void upload(
       final RecordingType type, final RecordingData data, @Nonnull Runnable onCompletion) {
-    if (canEnqueueMoreRequests()) {
+    if (acquireUploadPermit()) {
       makeUploadRequest(
           type,
           data,
           () -> {
-            data.release();
-            onCompletion.run();
+            try {
+              data.release();
+            } finally {
+              uploadPermits.release();
+              onCompletion.run();
+            }
           });
       return;
     } else {
@@ -318,6 +372,8 @@ public final class ProfileUploader {
       log.warn("Wait for executor shutdown interrupted");
     }
     client.connectionPool().evictAll();
+    SpillingBuffer.deleteSpilledFiles();
+    statsd.close();
   }
 
   /**
@@ -334,7 +390,7 @@ public final class ProfileUploader {
       @Nonnull Runnable onCompletion) {
 
     final CompressingRequestBody body =
-        new CompressingRequestBody(compressionType, data::getStream);
+        new CompressingRequestBody(compressionType, adaptiveCompression, data::getStream);
 
     final MultipartBody.Builder bodyBuilder =
         new MultipartBody.Builder()
@@ -375,15 +431,27 @@ public final class ProfileUploader {
               @Override
               public void onFailure(Call call, IOException e) {
                 logDebug("Failed to upload profile");
-                responseCallback.onFailure(call, e);
-                onCompletion.run();
+                try {
+                  body.recordUpload(false);
+                  responseCallback.onFailure(call, e);
+                  reportCompression(body);
+                } finally {
+                  body.release();
+                  onCompletion.run();
+                }
               }
 
               @Override
               public void onResponse(Call call, Response response) throws IOException {
                 logDebug("Uploaded profile");
-                responseCallback.onResponse(call, response);
-                onCompletion.run();
+                try {
+                  body.recordUpload(response.isSuccessful());
+                  responseCallback.onResponse(call, response);
+                  reportCompression(body);
+                } finally {
+                  body.release();
+                  onCompletion.run();
+                }
               }
 
               private void logDebug(String msg) {
@@ -400,8 +468,22 @@ public final class ProfileUploader {
             });
   }
 
-  private boolean canEnqueueMoreRequests() {
-    return client.dispatcher().queuedCallsCount() < MAX_ENQUEUED_REQUESTS;
+  private void reportCompression(final CompressingRequestBody body) {
+    final CompressionType compression = body.getAppliedCompression();
+    if (compression != null) {
+      final String tag = "compression:" + compression.name().toLowerCase();
+      statsd.incrementCounter(COMPRESSION_METRIC, tag);
+      statsd.count(BYTES_SAVED_METRIC, body.getReadBytes() - body.getWrittenBytes(), tag);
+    }
+  }
+
+  private boolean acquireUploadPermit() {
+    try {
+      return uploadPermits.tryAcquire(uploadWaitMillis, TimeUnit.MILLISECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   private List<String> tagsToList(final Map<String, String> tags) {
@@ -0,0 +1,191 @@
+package com.datadog.profiling.uploader;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import okio.BufferedSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An output stream keeping what is written to it so that it can be written out more than once.
+ *
+ * <p>Data is kept on heap up to a threshold, once that is exceeded it is spilled to a temporary
+ * file which is memory-mapped when written out. {@linkplain #release()} must be called once the
+ * data is not needed anymore to delete the file. The file is also deleted when writing to it
+ * fails, and {@linkplain #deleteSpilledFiles()} deletes the files of all buffers which haven't
+ * been released yet when the profiler shuts down.
+ */
+final class SpillingBuffer extends OutputStream {
+  private static final Logger log = LoggerFactory.getLogger(SpillingBuffer.class);
+
+  private static final int INITIAL_CAPACITY = 64 * 1024;
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final long MAPPING_SIZE = 64 * 1024 * 1024;
+
+  // files of the buffers which have spilled and haven't been released yet
+  private static final Set<Path> SPILLED_FILES = ConcurrentHashMap.newKeySet();
+
+  private final int memoryThreshold;
+
+  private byte[] bytes;
+  private Path file;
+  private OutputStream fileStream;
+  private long size;
+  private boolean closed;
+
+  SpillingBuffer(final int memoryThreshold) {
+    this.memoryThreshold = memoryThreshold;
+    this.bytes = new byte[Math.min(INITIAL_CAPACITY, memoryThreshold)];
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    ensureCapacity(1);
+    if (null != fileStream) {
+      fileStream.write(b);
+    } else {
+      bytes[(int) size] = (byte) b;
+    }
+    size++;
+  }
+
+  @Override
+  public void write(@Nonnull final byte[] b, final int off, final int len) throws IOException {
+    ensureCapacity(len);
+    if (null != fileStream) {
+      fileStream.write(b, off, len);
+    } else {
+      System.arraycopy(b, off, bytes, (int) size, len);
+    }
+    size += len;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (null != fileStream) {
+      fileStream.flush();
+    }
+  }
+
+  /** Finishes writing, the buffer can be written out once it's closed. */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      if (null != fileStream) {
+        try {
+          fileStream.close();
+        } catch (IOException e) {
+          deleteFile();
+          throw e;
+        }
+      }
+    }
+  }
+
+  long size() {
+    return size;
+  }
+
+  boolean isSpilled() {
+    return null != file;
+  }
+
+  /** Writes the buffered data to the sink, this can be done any number of times. */
+  void writeTo(@Nonnull final BufferedSink sink) throws IOException {
+    if (!closed) {
+      throw new IllegalStateException("Buffer is still being written to");
+    }
+    if (null == file) {
+      if (null == bytes) {
+        throw new IOException("Buffer was released");
+      }
+      sink.write(bytes, 0, (int) size);
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      byte[] chunk = new byte[CHUNK_SIZE];
+      for (long position = 0; position < size; position += MAPPING_SIZE) {
+        MappedByteBuffer mapped =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPING_SIZE, size - position));
+        while (mapped.hasRemaining()) {
+          int length = Math.min(chunk.length, mapped.remaining());
+          mapped.get(chunk, 0, length);
+          sink.write(chunk, 0, length);
+        }
+      }
+    }
+  }
+
+  /** Drops the buffered data, deleting the temporary file if the data was spilled. */
+  void release() {
+    bytes = null;
+    try {
+      close();
+    } catch (IOException e) {
+      log.debug("Failed to close {}", file, e);
+    }
+    deleteFile();
+  }
+
+  /** Deletes the temporary files of all the buffers which haven't been released. */
+  static void deleteSpilledFiles() {
+    for (Path spilled : SPILLED_FILES) {
+      delete(spilled);
+    }
+  }
+
+  private void ensureCapacity(final int length) throws IOException {
+    if (closed) {
+      throw new IOException("Buffer is closed");
+    }
+    if (null != fileStream) {
+      return;
+    }
+    long required = size + length;
+    if (required > memoryThreshold) {
+      spill();
+    } else if (required > bytes.length) {
+      bytes = Arrays.copyOf(bytes, (int) Math.min(memoryThreshold, Math.max(required, size * 2)));
+    }
+  }
+
+  private void spill() throws IOException {
+    file = Files.createTempFile("dd-profile-", ".tmp");
+    SPILLED_FILES.add(file);
+    try {
+      fileStream = new BufferedOutputStream(Files.newOutputStream(file), CHUNK_SIZE);
+      fileStream.write(bytes, 0, (int) size);
+    } catch (IOException e) {
+      release();
+      throw e;
+    }
+    bytes = null;
+  }
+
+  private void deleteFile() {
+    if (null != file) {
+      delete(file);
+    }
+  }
+
+  private static void delete(final Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.debug("Failed to delete {}", file, e);
+    }
+    SPILLED_FILES.remove(file);
+  }
+}
@@ -14,7 +14,7 @@ public class VersionInfo {
   private static final Logger log = LoggerFactory.getLogger(VersionInfo.class);
 
   static final String PROFILER_VERSION_TAG = "profiler_version";
-  static final String VERSION;
+  public static final String VERSION;
 
   static {
     String version = "unknown";
@@ -0,0 +1,88 @@
+package com.datadog.profiling.uploader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Random;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveCompressionTest {
+  private static final Duration UPLOAD_PERIOD = Duration.ofSeconds(60);
+
+  @Test
+  void compressibleDataIsCompressedOnSlowLinks() throws IOException {
+    AdaptiveCompression instance = new AdaptiveCompression(UPLOAD_PERIOD);
+    // 10KB/s
+    instance.recordUpload(0, 10_000, 1_000_000_000L);
+
+    byte[] data = compressibleData(1024 * 1024);
+    InputStream stream = stream(data);
+
+    assertNotEquals(CompressionType.OFF, instance.select(stream));
+    // the sampled data is read again
+    assertArrayEquals(data, IOUtils.toByteArray(stream));
+  }
+
+  @Test
+  void randomDataIsNotCompressedOnFastLinks() throws IOException {
+    AdaptiveCompression instance = new AdaptiveCompression(UPLOAD_PERIOD);
+    // 10GB/s
+    instance.recordUpload(0, 10_000_000_000L, 1_000_000_000L);
+
+    byte[] data = new byte[AdaptiveCompression.SAMPLE_SIZE];
+    new Random(0).nextBytes(data);
+
+    assertEquals(CompressionType.OFF, instance.select(stream(data)));
+  }
+
+  @Test
+  void compressionExceedingBudgetIsNotSelected() throws IOException {
+    AdaptiveCompression instance = new AdaptiveCompression(Duration.ofNanos(1));
+    instance.recordUpload(0, 10_000, 1_000_000_000L);
+
+    assertEquals(CompressionType.OFF, instance.select(stream(compressibleData(100_000))));
+  }
+
+  @Test
+  void emptyDataUsesDefaultCompression() throws IOException {
+    AdaptiveCompression instance = new AdaptiveCompression(UPLOAD_PERIOD);
+
+    assertEquals(CompressionType.LZ4, instance.select(stream(new byte[0])));
+  }
+
+  @Test
+  void throughputIsAveraged() {
+    AdaptiveCompression instance = new AdaptiveCompression(UPLOAD_PERIOD);
+    assertTrue(Double.isNaN(instance.getBytesPerNano()));
+
+    instance.recordUpload(100, 100, 100);
+    assertEquals(1.0, instance.getBytesPerNano(), 1e-9);
+
+    // not measured
+    instance.recordUpload(100, 0, 0);
+    assertEquals(1.0, instance.getBytesPerNano(), 1e-9);
+
+    instance.recordUpload(100, 200, 100);
+    assertTrue(instance.getBytesPerNano() > 1.0 && instance.getBytesPerNano() < 2.0);
+  }
+
+  private static byte[] compressibleData(int length) {
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) ((i / 64) % 16);
+    }
+    return data;
+  }
+
+  private static InputStream stream(byte[] data) {
+    return new BufferedInputStream(new ByteArrayInputStream(data));
+  }
+}
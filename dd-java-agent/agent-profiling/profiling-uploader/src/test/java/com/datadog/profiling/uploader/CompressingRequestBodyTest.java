@@ -12,6 +12,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Duration;
 import java.util.EnumSet;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPInputStream;
@@ -186,7 +187,85 @@ class CompressingRequestBodyTest {
           assertEquals(compressed.length, instance.getWrittenBytes());
           break;
         }
+      case ADAPTIVE:
+        {
+          // without an adaptive compression instance the default compression is used
+          assertEquals(CompressionType.LZ4, instance.getAppliedCompression());
+          assertTrue(CompressingRequestBody.isLz4(compressedStream));
+          byte[] uncompressed = IOUtils.toByteArray(new LZ4FrameInputStream(compressedStream));
+          assertArrayEquals(recordingData, uncompressed);
+          break;
+        }
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(CompressionType.class)
+  void writeToReplaysCompressedData(CompressionType compressionType) throws Exception {
+    CompressingRequestBody.InputStreamSupplier supplier =
+        mock(CompressingRequestBody.InputStreamSupplier.class);
+    when(supplier.get()).then(invocation -> testRecordingStream());
+    CompressingRequestBody instance = new CompressingRequestBody(compressionType, supplier);
+
+    byte[] first = instanceWriteAsBytes(instance);
+    byte[] second = instanceWriteAsBytes(instance);
+
+    assertArrayEquals(first, second);
+    verify(supplier, VerificationModeFactory.times(1)).get();
+
+    instance.release();
+    assertThrows(IOException.class, () -> instanceWriteAsBytes(instance));
+  }
+
+  @Test
+  void writeToAdaptive() throws Exception {
+    AdaptiveCompression adaptiveCompression = new AdaptiveCompression(Duration.ofSeconds(60));
+    CompressingRequestBody instance =
+        new CompressingRequestBody(
+            CompressionType.ADAPTIVE,
+            adaptiveCompression,
+            CompressingRequestBodyTest::testRecordingStream);
+
+    byte[] compressed = instanceWriteAsBytes(instance);
+
+    CompressionType applied = instance.getAppliedCompression();
+    assertNotNull(applied);
+    assertNotEquals(CompressionType.ADAPTIVE, applied);
+    InputStream uncompressed = new ByteArrayInputStream(compressed);
+    if (applied == CompressionType.GZIP) {
+      uncompressed = new GZIPInputStream(uncompressed);
+    } else if (applied == CompressionType.LZ4) {
+      uncompressed = new LZ4FrameInputStream(uncompressed);
+    }
+    assertArrayEquals(recordingData, IOUtils.toByteArray(uncompressed));
+    assertEquals(recordingData.length, instance.getReadBytes());
+    assertEquals(compressed.length, instance.getWrittenBytes());
+    // writing the body out is not the upload, which is timed until the response is received
+    assertTrue(Double.isNaN(adaptiveCompression.getBytesPerNano()));
+    Thread.sleep(100);
+    instance.recordUpload(true);
+    assertTrue(
+        adaptiveCompression.getBytesPerNano() <= compressed.length / (double) 100_000_000L,
+        "The upload throughput includes the time until the response");
+  }
+
+  @Test
+  void fastLocalWriteDoesNotDriftToOff() throws IOException {
+    AdaptiveCompression adaptiveCompression = new AdaptiveCompression(Duration.ofSeconds(60));
+    for (int i = 0; i < 10; i++) {
+      CompressingRequestBody instance =
+          new CompressingRequestBody(
+              CompressionType.ADAPTIVE,
+              adaptiveCompression,
+              CompressingRequestBodyTest::testRecordingStream);
+      // writing to a local buffer takes next to no time, it must not be mistaken for a fast link
+      instanceWriteAsBytes(instance);
+      instance.recordUpload(false);
+
+      assertNotEquals(CompressionType.OFF, instance.getAppliedCompression());
+      instance.release();
     }
+    assertTrue(Double.isNaN(adaptiveCompression.getBytesPerNano()));
   }
 
   @ParameterizedTest
@@ -22,7 +22,9 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -41,6 +43,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.io.ByteStreams;
 import datadog.trace.api.Config;
 import datadog.trace.api.IOLogger;
+import datadog.trace.api.StatsDClient;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -86,6 +89,8 @@ public class ProfileUploaderTest {
   private static final String RECORDING_RESOURCE = "/test-recording.jfr";
   private static final String RECODING_NAME_PREFIX = "test-recording-";
   private static final RecordingType RECORDING_TYPE = RecordingType.CONTINUOUS;
+  private static final int UPLOAD_PERMITS =
+      ProfileUploader.MAX_RUNNING_REQUESTS + ProfileUploader.MAX_ENQUEUED_REQUESTS;
 
   private static final Map<String, String> TAGS;
 
@@ -206,7 +211,7 @@ public class ProfileUploaderTest {
   }
 
   @ParameterizedTest
-  @ValueSource(strings = {"on", "lz4", "gzip", "off", "invalid"})
+  @ValueSource(strings = {"on", "lz4", "gzip", "off", "invalid", "adaptive"})
   public void testRequestParameters(final String compression) throws Exception {
     when(config.getProfilingUploadCompression()).thenReturn(compression);
     when(config.getProfilingUploadTimeout()).thenReturn(500000);
@@ -253,10 +258,55 @@ public class ProfileUploaderTest {
         || compression.equals("lz4")
         || compression.equals("invalid")) {
       uploadedBytes = unLz4(uploadedBytes);
+    } else if (compression.equals("adaptive")) {
+      uploadedBytes = decompress(uploadedBytes);
     }
     assertArrayEquals(expectedBytes, uploadedBytes);
   }
 
+  @Test
+  public void testCompressionMetrics() throws Exception {
+    when(config.getProfilingUploadCompression()).thenReturn("gzip");
+    final StatsDClient statsd = mock(StatsDClient.class);
+    uploader =
+        new ProfileUploader(
+            config, statsd, ioLogger, "containerId", (int) TERMINATION_TIMEOUT.getSeconds());
+
+    server.enqueue(new MockResponse().setResponseCode(200));
+    uploadAndWait(RECORDING_TYPE, mockRecordingData());
+
+    verify(statsd).incrementCounter(ProfileUploader.COMPRESSION_METRIC, "compression:gzip");
+    verify(statsd)
+        .count(
+            eq(ProfileUploader.BYTES_SAVED_METRIC),
+            longThat(saved -> saved > 0),
+            eq("compression:gzip"));
+
+    uploader.shutdown();
+    verify(statsd).close();
+  }
+
+  @Test
+  public void testAdaptiveCompressionOnFastLocalUploads() throws Exception {
+    when(config.getProfilingUploadCompression()).thenReturn("adaptive");
+    when(config.getProfilingUploadPeriod()).thenReturn(60);
+    final StatsDClient statsd = mock(StatsDClient.class);
+    uploader =
+        new ProfileUploader(
+            config, statsd, ioLogger, "containerId", (int) TERMINATION_TIMEOUT.getSeconds());
+
+    // the recording is compressible, so it keeps being compressed even though writing it to the
+    // local server takes next to no time
+    for (int i = 0; i < 5; i++) {
+      server.enqueue(
+          new MockResponse().setHeadersDelay(50, TimeUnit.MILLISECONDS).setResponseCode(200));
+      uploadAndWait(RECORDING_TYPE, mockRecordingData());
+    }
+
+    verify(statsd, times(5)).incrementCounter(eq(ProfileUploader.COMPRESSION_METRIC), any());
+    verify(statsd, never()).incrementCounter(ProfileUploader.COMPRESSION_METRIC, "compression:off");
+  }
+
   @Test
   public void testRequestWithContainerId() throws Exception {
     uploader =
@@ -599,6 +649,82 @@ public class ProfileUploaderTest {
     verify(rejectedRecording).release();
   }
 
+  @Test
+  public void testUploadWaitsForRunningRequest() throws Exception {
+    when(config.getProfilingUploadPeriod()).thenReturn(5);
+    uploader = new ProfileUploader(config);
+
+    // The running requests complete well within the upload period
+    for (int i = 0; i < ProfileUploader.MAX_RUNNING_REQUESTS; i++) {
+      server.enqueue(
+          new MockResponse().setHeadersDelay(500, TimeUnit.MILLISECONDS).setResponseCode(200));
+    }
+    for (int i = 0; i <= ProfileUploader.MAX_ENQUEUED_REQUESTS; i++) {
+      server.enqueue(new MockResponse().setResponseCode(200));
+    }
+
+    for (int i = 0; i < UPLOAD_PERMITS; i++) {
+      uploader.upload(RECORDING_TYPE, mockRecordingData());
+    }
+
+    // No permit is left, so this waits for one of the running requests to complete rather than
+    // dropping the recording
+    final RecordingData waitingRecording = mockRecordingData();
+    uploadAndWait(RECORDING_TYPE, waitingRecording);
+
+    for (int i = 0; i <= UPLOAD_PERMITS; i++) {
+      assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+    }
+    verify(waitingRecording).release();
+  }
+
+  @Test
+  public void testUploadDroppedAfterUploadPeriod() throws Exception {
+    when(config.getProfilingUploadPeriod()).thenReturn(1);
+    when(config.getProfilingUploadTimeout()).thenReturn((int) FOREVER_REQUEST_TIMEOUT.getSeconds());
+    uploader = new ProfileUploader(config);
+
+    for (int i = 0; i < ProfileUploader.MAX_RUNNING_REQUESTS; i++) {
+      server.enqueue(
+          new MockResponse()
+              .setHeadersDelay(FOREVER_REQUEST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+              .setResponseCode(200));
+    }
+
+    for (int i = 0; i < UPLOAD_PERMITS; i++) {
+      uploader.upload(RECORDING_TYPE, mockRecordingData());
+    }
+
+    // No permit becomes available, so this gives up after one upload period
+    final RecordingData droppedRecording = mockRecordingData();
+    final long startMillis = System.currentTimeMillis();
+    uploader.upload(RECORDING_TYPE, droppedRecording);
+    final long waitedMillis = System.currentTimeMillis() - startMillis;
+    assertTrue(waitedMillis >= 900, "Waited for one upload period, not " + waitedMillis + "ms");
+
+    verify(droppedRecording).release();
+    for (int i = 0; i < ProfileUploader.MAX_RUNNING_REQUESTS; i++) {
+      assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+    }
+    assertNull(server.takeRequest(100, TimeUnit.MILLISECONDS), "No more requests");
+  }
+
+  @Test
+  public void testPermitReleasedWhenCallbackFails() throws Exception {
+    when(ioLogger.success("Upload done")).thenThrow(new IllegalStateException("callback failed"));
+
+    // Each upload takes a permit, all of them would be used up if the failing callback leaked them
+    for (int i = 0; i <= UPLOAD_PERMITS; i++) {
+      server.enqueue(new MockResponse().setResponseCode(200));
+      final RecordingData recording = mockRecordingData();
+      final CountDownLatch latch = new CountDownLatch(1);
+      uploader.upload(RECORDING_TYPE, recording, latch::countDown);
+      assertTrue(latch.await(5, TimeUnit.SECONDS), "Upload " + i + " completed");
+      verify(recording).release();
+    }
+    assertEquals(UPLOAD_PERMITS + 1, server.getRequestCount());
+  }
+
   @Test
   public void testShutdown() throws Exception {
     uploader.shutdown();
@@ -634,6 +760,16 @@ public class ProfileUploaderTest {
     return result.toByteArray();
   }
 
+  private static byte[] decompress(final byte[] compressed) throws IOException {
+    final InputStream stream = new BufferedInputStream(new ByteArrayInputStream(compressed));
+    if (CompressingRequestBody.isGzip(stream)) {
+      return unGzip(compressed);
+    } else if (CompressingRequestBody.isLz4(stream)) {
+      return unLz4(compressed);
+    }
+    return compressed;
+  }
+
   private static byte[] unLz4(final byte[] compressed) throws IOException {
     final InputStream stream = new LZ4FrameInputStream(new ByteArrayInputStream(compressed));
     final ByteArrayOutputStream result = new ByteArrayOutputStream();
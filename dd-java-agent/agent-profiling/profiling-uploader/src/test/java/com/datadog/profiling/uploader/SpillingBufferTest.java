@@ -0,0 +1,93 @@
+package com.datadog.profiling.uploader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import okio.BufferedSink;
+import okio.Okio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SpillingBufferTest {
+  private static final int MEMORY_THRESHOLD = 1024;
+
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 100, MEMORY_THRESHOLD, MEMORY_THRESHOLD + 1, 100_000})
+  void writeToReplaysData(int length) throws IOException {
+    byte[] data = new byte[length];
+    new Random(length).nextBytes(data);
+
+    SpillingBuffer buffer = new SpillingBuffer(MEMORY_THRESHOLD);
+    int offset = 0;
+    if (length > 0) {
+      buffer.write(data[offset++]);
+    }
+    while (offset < length) {
+      int chunk = Math.min(length - offset, 77);
+      buffer.write(data, offset, chunk);
+      offset += chunk;
+    }
+    buffer.close();
+
+    assertEquals(length, buffer.size());
+    assertEquals(length > MEMORY_THRESHOLD, buffer.isSpilled());
+    assertArrayEquals(data, writeAsBytes(buffer));
+    assertArrayEquals(data, writeAsBytes(buffer));
+
+    buffer.release();
+    assertThrows(IOException.class, () -> writeAsBytes(buffer));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10, MEMORY_THRESHOLD * 2})
+  void writeRequiresOpenBuffer(int length) throws IOException {
+    SpillingBuffer buffer = new SpillingBuffer(MEMORY_THRESHOLD);
+    buffer.write(new byte[length]);
+
+    assertThrows(IllegalStateException.class, () -> writeAsBytes(buffer));
+
+    buffer.close();
+    assertThrows(IOException.class, () -> buffer.write(1));
+    buffer.release();
+  }
+
+  @Test
+  void releaseIsIdempotent() throws IOException {
+    SpillingBuffer buffer = new SpillingBuffer(MEMORY_THRESHOLD);
+    buffer.write(new byte[MEMORY_THRESHOLD * 2]);
+    buffer.close();
+    assertTrue(buffer.isSpilled());
+
+    buffer.release();
+    buffer.release();
+
+    assertThrows(IOException.class, () -> writeAsBytes(buffer));
+  }
+
+  @Test
+  void unreleasedFilesAreDeleted() throws IOException {
+    SpillingBuffer buffer = new SpillingBuffer(MEMORY_THRESHOLD);
+    buffer.write(new byte[MEMORY_THRESHOLD * 2]);
+    buffer.close();
+    assertTrue(buffer.isSpilled());
+
+    SpillingBuffer.deleteSpilledFiles();
+
+    assertThrows(IOException.class, () -> writeAsBytes(buffer));
+    buffer.release();
+  }
+
+  private static byte[] writeAsBytes(SpillingBuffer buffer) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (BufferedSink sink = Okio.buffer(Okio.sink(baos))) {
+      buffer.writeTo(sink);
+    }
+    return baos.toByteArray();
+  }
+}
@@ -8,7 +8,10 @@ import com.datadog.profiling.controller.ControllerFactory;
 import com.datadog.profiling.controller.ProfilingSystem;
 import com.datadog.profiling.controller.UnsupportedEnvironmentException;
 import com.datadog.profiling.uploader.ProfileUploader;
+import com.datadog.profiling.uploader.VersionInfo;
+import datadog.communication.monitor.HealthMetricsStatsD;
 import datadog.trace.api.Config;
+import datadog.trace.api.StatsDClient;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.time.Duration;
@@ -53,7 +56,8 @@ public class ProfilingAgent {
       try {
         final Controller controller = ControllerFactory.createController(config);
 
-        final ProfileUploader uploader = new ProfileUploader(config);
+        final StatsDClient statsd = HealthMetricsStatsD.createClient(config, VersionInfo.VERSION);
+        final ProfileUploader uploader = new ProfileUploader(config, statsd);
 
         final Duration startupDelay = Duration.ofSeconds(config.getProfilingStartDelay());
         final Duration uploadPeriod = Duration.ofSeconds(config.getProfilingUploadPeriod());
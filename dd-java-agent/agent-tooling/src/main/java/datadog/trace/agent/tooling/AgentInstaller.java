@@ -7,6 +7,7 @@ import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.namedOn
 import static net.bytebuddy.matcher.ElementMatchers.any;
 import static net.bytebuddy.matcher.ElementMatchers.none;
 
+import datadog.trace.agent.tooling.bytebuddy.ClassPathPrescan;
 import datadog.trace.agent.tooling.context.FieldBackedContextProvider;
 import datadog.trace.api.Config;
 import datadog.trace.bootstrap.FieldBackedContextAccessor;
@@ -114,6 +115,12 @@ public class AgentInstaller {
     for (final AgentBuilder.Listener listener : listeners) {
       agentBuilder = agentBuilder.with(listener);
     }
+    ClassPathPrescan classPathPrescan = null;
+    if (Config.get().isResolverPrescanEnabled()) {
+      classPathPrescan =
+          new ClassPathPrescan(ClassLoader.getSystemClassLoader(), AgentTooling.locationStrategy());
+      agentBuilder = agentBuilder.with(classPathPrescan.listener());
+    }
     int numInstrumenters = 0;
     ServiceLoader<Instrumenter> loader =
         ServiceLoader.load(Instrumenter.class, AgentInstaller.class.getClassLoader());
@@ -145,7 +152,12 @@ public class AgentInstaller {
       }
 
       try {
-        agentBuilder = instrumenter.instrument(agentBuilder);
+        if (instrumenter instanceof Instrumenter.Default) {
+          agentBuilder =
+              ((Instrumenter.Default) instrumenter).instrument(agentBuilder, classPathPrescan);
+        } else {
+          agentBuilder = instrumenter.instrument(agentBuilder);
+        }
         numInstrumenters++;
       } catch (final Exception | LinkageError e) {
         log.error("Unable to load instrumentation {}", instrumenter.getClass().getName(), e);
@@ -155,7 +167,11 @@ public class AgentInstaller {
       log.debug("Installed {} instrumenter(s)", numInstrumenters);
     }
 
-    return agentBuilder.installOn(inst);
+    ResettableClassFileTransformer transformer = agentBuilder.installOn(inst);
+    if (null != classPathPrescan) {
+      classPathPrescan.start(System.getProperty("java.class.path"));
+    }
+    return transformer;
   }
 
   private static Set<Instrumenter.TargetSystem> getEnabledSystems() {
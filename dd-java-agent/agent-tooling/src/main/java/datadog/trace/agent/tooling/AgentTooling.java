@@ -4,6 +4,7 @@ import datadog.trace.agent.tooling.bytebuddy.DDCachingPoolStrategy;
 import datadog.trace.agent.tooling.bytebuddy.DDClassFileTransformer;
 import datadog.trace.agent.tooling.bytebuddy.DDLocationStrategy;
 import datadog.trace.agent.tooling.bytebuddy.DDRediscoveryStrategy;
+import datadog.trace.agent.tooling.bytebuddy.TypeFactsCache;
 import datadog.trace.api.Config;
 import datadog.trace.api.Platform;
 import datadog.trace.bootstrap.WeakCache;
@@ -61,13 +62,18 @@ public class AgentTooling {
     return DDClassFileTransformer.DECORATOR;
   }
 
+  private static TypeFactsCache loadTypeFactsCache() {
+    String cacheDir = Config.get().getResolverCacheDir();
+    return null != cacheDir ? TypeFactsCache.open(cacheDir) : null;
+  }
+
   private static final long DEFAULT_CACHE_CAPACITY = 32;
   private static final Provider weakCacheProvider = loadWeakCacheProvider();
 
   private static final DDRediscoveryStrategy REDISCOVERY_STRATEGY = new DDRediscoveryStrategy();
   private static final DDLocationStrategy LOCATION_STRATEGY = new DDLocationStrategy();
   private static final DDCachingPoolStrategy POOL_STRATEGY =
-      new DDCachingPoolStrategy(Config.get().isResolverUseLoadClassEnabled());
+      new DDCachingPoolStrategy(Config.get().isResolverUseLoadClassEnabled(), loadTypeFactsCache());
   private static final TransformerDecorator TRANSFORMER_DECORATOR = loadTranformerDecorator();
 
   public static <K, V> WeakCache<K, V> newWeakCache() {
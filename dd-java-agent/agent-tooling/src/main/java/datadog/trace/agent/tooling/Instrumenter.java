@@ -9,6 +9,7 @@ import static net.bytebuddy.matcher.ElementMatchers.any;
 import static net.bytebuddy.matcher.ElementMatchers.isAnnotatedWith;
 import static net.bytebuddy.matcher.ElementMatchers.not;
 
+import datadog.trace.agent.tooling.bytebuddy.ClassPathPrescan;
 import datadog.trace.agent.tooling.bytebuddy.ExceptionHandlers;
 import datadog.trace.agent.tooling.bytebuddy.matcher.FailSafe;
 import datadog.trace.agent.tooling.context.FieldBackedContextProvider;
@@ -145,6 +146,15 @@ public interface Instrumenter {
 
     @Override
     public final AgentBuilder instrument(final AgentBuilder parentAgentBuilder) {
+      return instrument(parentAgentBuilder, null);
+    }
+
+    /**
+     * Adds this instrumentation to an AgentBuilder, registering it with the class-path pre-scan
+     * when there is one.
+     */
+    public final AgentBuilder instrument(
+        final AgentBuilder parentAgentBuilder, final ClassPathPrescan classPathPrescan) {
       if (!isEnabled()) {
         log.debug("Instrumentation {} is disabled", this);
         return parentAgentBuilder;
@@ -153,7 +163,7 @@ public interface Instrumenter {
       lazyInit();
 
       AgentBuilder.Identified.Extendable agentBuilder =
-          filter(parentAgentBuilder).transform(defaultTransformers());
+          filter(parentAgentBuilder, classPathPrescan).transform(defaultTransformers());
       agentBuilder = injectHelperClasses(agentBuilder);
       agentBuilder = contextProvider.instrumentationTransformer(agentBuilder);
       AgentBuilder.Transformer transformer = transformer();
@@ -167,11 +177,24 @@ public interface Instrumenter {
       return agentBuilder;
     }
 
-    private AgentBuilder.Identified.Narrowable filter(AgentBuilder agentBuilder) {
+    private AgentBuilder.Identified.Narrowable filter(
+        AgentBuilder agentBuilder, ClassPathPrescan classPathPrescan) {
       final AgentBuilder.Identified.Narrowable narrowable;
       ElementMatcher<ClassLoader> classLoaderMatcher = classLoaderMatcher();
       ElementMatcher<? super TypeDescription> typeMatcher = typeMatcher();
-      if (classLoaderMatcher == ANY_CLASS_LOADER // Don't bypass the classLoaderMatcher
+      if (null != classPathPrescan) {
+        narrowable =
+            agentBuilder.type(
+                classPathPrescan.register(
+                    failSafe(
+                        typeMatcher,
+                        "Instrumentation type matcher unexpected exception: "
+                            + getClass().getName()),
+                    failSafe(
+                        classLoaderMatcher,
+                        "Instrumentation class loader matcher unexpected exception: "
+                            + getClass().getName())));
+      } else if (classLoaderMatcher == ANY_CLASS_LOADER // Don't bypass the classLoaderMatcher
           && typeMatcher instanceof AgentBuilder.RawMatcher
           && typeMatcher instanceof FailSafe) {
         narrowable = agentBuilder.type((AgentBuilder.RawMatcher) typeMatcher);
@@ -0,0 +1,337 @@
+package datadog.trace.agent.tooling.bytebuddy;
+
+import static datadog.trace.util.AgentThreadFactory.AgentThread.CLASS_PRESCAN;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.util.AgentTaskScheduler;
+import datadog.trace.util.AgentThreadFactory;
+import java.io.File;
+import java.io.IOException;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.pool.TypePool;
+import net.bytebuddy.utility.JavaModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates the type matchers of all instrumentations against the classes on the application
+ * class-path in the background, on a pool of agent threads, so that when these classes are loaded
+ * the instrumentations only need to look up the outcome.
+ *
+ * <p>Outcomes are only used for classes defined by the class loader that was scanned, so classes
+ * loaded by other class loaders, such as those of nested jars in Spring Boot fat jars, are matched
+ * as usual. So are classes which are loaded before they've been scanned. Classes are described
+ * with a type pool private to the scan, which doesn't load them or evict the types cached for
+ * matching. Outcomes are dropped once a class is loaded, and the remaining ones a while after the
+ * scan has finished.
+ */
+public final class ClassPathPrescan {
+  private static final Logger log = LoggerFactory.getLogger(ClassPathPrescan.class);
+
+  private static final int BATCH_SIZE = 256;
+
+  // classes still not loaded by then are unlikely to be loaded during startup
+  private static final long OUTCOMES_EXPIRY_SECONDS = 300;
+
+  private static final long[] NO_MATCHES = {};
+
+  private final ClassLoader classLoader;
+  private final AgentBuilder.LocationStrategy locationStrategy;
+
+  private final List<ElementMatcher<? super TypeDescription>> typeMatchers = new ArrayList<>();
+  private final ConcurrentMap<String, long[]> outcomes = new ConcurrentHashMap<>();
+
+  private volatile boolean started;
+
+  public ClassPathPrescan(
+      final ClassLoader classLoader, final AgentBuilder.LocationStrategy locationStrategy) {
+    this.classLoader = classLoader;
+    this.locationStrategy = locationStrategy;
+  }
+
+  /**
+   * @return a matcher which looks up the outcome of the type matcher for scanned classes; the
+   *     class loader matcher is always evaluated. Both matchers are expected to be fail-safe.
+   */
+  public AgentBuilder.RawMatcher register(
+      final ElementMatcher<? super TypeDescription> typeMatcher,
+      final ElementMatcher<ClassLoader> classLoaderMatcher) {
+    int id = -1; // matchers registered once the scan has started aren't scanned
+    if (!started) {
+      id = typeMatchers.size();
+      typeMatchers.add(typeMatcher);
+    }
+    return new Prescanned(this, id, typeMatcher, classLoaderMatcher);
+  }
+
+  /** @return a listener which drops the outcomes of classes once they're loaded */
+  public AgentBuilder.Listener listener() {
+    return new Listener(this);
+  }
+
+  /** Starts scanning the entries of the given class-path, returns without waiting for the scan. */
+  public void start(final String classPath) {
+    if (started) {
+      return;
+    }
+    started = true;
+    if (typeMatchers.isEmpty() || null == classPath || classPath.isEmpty()) {
+      return;
+    }
+    int threads = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new AgentThreadFactory(CLASS_PRESCAN));
+    executor.execute(new ScanClassPath(this, classPath.split(File.pathSeparator), executor));
+  }
+
+  void expireOutcomes() {
+    outcomes.clear();
+  }
+
+  void scan(final TypePool typePool, final String className) {
+    if (outcomes.containsKey(className)) {
+      return; // found earlier on the class-path
+    }
+    try {
+      TypePool.Resolution resolution = typePool.describe(className);
+      if (!resolution.isResolved()) {
+        return;
+      }
+      TypeDescription type = resolution.resolve();
+      long[] ids = null;
+      for (int id = 0; id < typeMatchers.size(); ++id) {
+        if (typeMatchers.get(id).matches(type)) {
+          if (null == ids) {
+            ids = new long[(typeMatchers.size() + 63) >>> 6];
+          }
+          ids[id >>> 6] |= 1L << id;
+        }
+      }
+      outcomes.putIfAbsent(className, null == ids ? NO_MATCHES : ids);
+    } catch (Throwable e) {
+      log.debug("Failed to pre-scan {}", className, e);
+    }
+  }
+
+  private static final class Prescanned implements AgentBuilder.RawMatcher {
+    private final ClassPathPrescan prescan;
+    private final int id;
+    private final ElementMatcher<? super TypeDescription> typeMatcher;
+    private final ElementMatcher<ClassLoader> classLoaderMatcher;
+
+    Prescanned(
+        final ClassPathPrescan prescan,
+        final int id,
+        final ElementMatcher<? super TypeDescription> typeMatcher,
+        final ElementMatcher<ClassLoader> classLoaderMatcher) {
+      this.prescan = prescan;
+      this.id = id;
+      this.typeMatcher = typeMatcher;
+      this.classLoaderMatcher = classLoaderMatcher;
+    }
+
+    @Override
+    public boolean matches(
+        final TypeDescription typeDescription,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final Class<?> classBeingRedefined,
+        final ProtectionDomain protectionDomain) {
+      if (!classLoaderMatcher.matches(classLoader)) {
+        return false;
+      }
+      if (id >= 0 && classLoader == prescan.classLoader) {
+        long[] ids = prescan.outcomes.get(typeDescription.getName());
+        if (null != ids) {
+          int word = id >>> 6;
+          return word < ids.length && (ids[word] & (1L << id)) != 0;
+        }
+      }
+      return typeMatcher.matches(typeDescription);
+    }
+
+    @Override
+    public String toString() {
+      return "prescanned(" + typeMatcher + ")";
+    }
+  }
+
+  private static final class Listener extends AgentBuilder.Listener.Adapter {
+    private final ClassPathPrescan prescan;
+
+    Listener(final ClassPathPrescan prescan) {
+      this.prescan = prescan;
+    }
+
+    @Override
+    public void onComplete(
+        final String typeName,
+        final ClassLoader classLoader,
+        final JavaModule module,
+        final boolean loaded) {
+      if (classLoader == prescan.classLoader) {
+        prescan.outcomes.remove(typeName);
+      }
+    }
+  }
+
+  /** Lists the classes of the class-path entries and submits them to be scanned in batches. */
+  private static final class ScanClassPath implements Runnable {
+    private final ClassPathPrescan prescan;
+    private final String[] entries;
+    private final ExecutorService executor;
+
+    // the listing counts as one pending task, so the scan can't finish before it's done
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final long startNanos = System.nanoTime();
+    private int classCount;
+
+    ScanClassPath(
+        final ClassPathPrescan prescan, final String[] entries, final ExecutorService executor) {
+      this.prescan = prescan;
+      this.entries = entries;
+      this.executor = executor;
+    }
+
+    @Override
+    public void run() {
+      try {
+        for (String entry : entries) {
+          List<String> classNames = listClasses(new File(entry));
+          for (int from = 0; from < classNames.size(); from += BATCH_SIZE) {
+            pending.incrementAndGet();
+            executor.execute(
+                new ScanClasses(
+                    this, classNames, from, Math.min(from + BATCH_SIZE, classNames.size())));
+          }
+          classCount += classNames.size();
+        }
+      } finally {
+        // already submitted batches are still run, the threads end once they're done
+        executor.shutdown();
+        done();
+      }
+    }
+
+    void done() {
+      if (pending.decrementAndGet() == 0) {
+        if (log.isDebugEnabled()) {
+          log.debug(
+              "Pre-scanned {} classes in {} ms",
+              classCount,
+              (System.nanoTime() - startNanos) / 1_000_000);
+        }
+        AgentTaskScheduler.INSTANCE.schedule(
+            ExpireOutcomes.INSTANCE, prescan, OUTCOMES_EXPIRY_SECONDS, SECONDS);
+      }
+    }
+
+    private static List<String> listClasses(final File entry) {
+      List<String> classNames = new ArrayList<>();
+      try {
+        if (entry.isDirectory()) {
+          listClasses(entry, "", classNames);
+        } else if (entry.isFile()) {
+          try (JarFile jarFile = new JarFile(entry, false)) {
+            Enumeration<JarEntry> jarEntries = jarFile.entries();
+            while (jarEntries.hasMoreElements()) {
+              addClass(jarEntries.nextElement().getName(), classNames);
+            }
+          }
+        }
+      } catch (IOException e) {
+        log.debug("Failed to list classes of {}", entry, e);
+      }
+      return classNames;
+    }
+
+    private static void listClasses(
+        final File dir, final String prefix, final List<String> classNames) {
+      File[] files = dir.listFiles();
+      if (null != files) {
+        for (File file : files) {
+          if (file.isDirectory()) {
+            listClasses(file, prefix + file.getName() + '/', classNames);
+          } else {
+            addClass(prefix + file.getName(), classNames);
+          }
+        }
+      }
+    }
+
+    private static void addClass(final String path, final List<String> classNames) {
+      // skip module-info, package-info and multi-release entries
+      if (path.endsWith(".class") && !path.contains("-") && !path.startsWith("META-INF/")) {
+        classNames.add(path.substring(0, path.length() - 6).replace('/', '.'));
+      }
+    }
+  }
+
+  /** Scans a batch of classes. */
+  private static final class ScanClasses implements Runnable {
+    private final ScanClassPath scanClassPath;
+    private final List<String> classNames;
+    private final int from;
+    private final int to;
+
+    ScanClasses(
+        final ScanClassPath scanClassPath,
+        final List<String> classNames,
+        final int from,
+        final int to) {
+      this.scanClassPath = scanClassPath;
+      this.classNames = classNames;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public void run() {
+      try {
+        ClassPathPrescan prescan = scanClassPath.prescan;
+        // not the shared pool, the scan would evict the types cached for matching loaded classes
+        TypePool typePool =
+            new TypePool.Default.WithLazyResolution(
+                new TypePool.CacheProvider.Simple(),
+                prescan.locationStrategy.classFileLocator(prescan.classLoader, null),
+                TypePool.Default.ReaderMode.FAST);
+        for (int i = from; i < to; ++i) {
+          prescan.scan(typePool, classNames.get(i));
+        }
+      } finally {
+        scanClassPath.done();
+      }
+    }
+  }
+
+  // Important to use explicit class to avoid implicit hard references to target
+  private static final class ExpireOutcomes implements AgentTaskScheduler.Task<ClassPathPrescan> {
+    static final ExpireOutcomes INSTANCE = new ExpireOutcomes();
+
+    @Override
+    public void run(final ClassPathPrescan target) {
+      target.expireOutcomes();
+    }
+  }
+}
@@ -8,6 +8,8 @@ import datadog.trace.agent.tooling.AgentTooling;
 import datadog.trace.api.Function;
 import datadog.trace.bootstrap.WeakCache;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import net.bytebuddy.description.annotation.AnnotationList;
 import net.bytebuddy.description.method.MethodDescription;
@@ -41,6 +43,10 @@ import org.slf4j.LoggerFactory;
  *
  * <p>Eviction is handled almost entirely through a size restriction; however, softValues are still
  * used as a further safeguard.
+ *
+ * <p>When a {@link TypeFactsCache} is provided, the modifiers, super class and interfaces of types
+ * are taken from it where possible, to avoid parsing class files whose hierarchy was persisted by
+ * a previous run. Types which still need to be parsed are recorded in it.
  */
 public class DDCachingPoolStrategy implements PoolStrategy {
   private static final Logger log = LoggerFactory.getLogger(DDCachingPoolStrategy.class);
@@ -86,15 +92,22 @@ public class DDCachingPoolStrategy implements PoolStrategy {
 
   private final boolean fallBackToLoadClass;
 
+  private final TypeFactsCache typeFactsCache;
+
   public DDCachingPoolStrategy() {
     this(true);
   }
 
   public DDCachingPoolStrategy(boolean fallBackToLoadClass) {
+    this(fallBackToLoadClass, null);
+  }
+
+  public DDCachingPoolStrategy(boolean fallBackToLoadClass, TypeFactsCache typeFactsCache) {
     this.fallBackToLoadClass = fallBackToLoadClass;
+    this.typeFactsCache = typeFactsCache;
     bootstrapCacheProvider =
         new SharedResolutionCacheAdapter(
-            BOOTSTRAP_HASH, null, sharedResolutionCache, fallBackToLoadClass);
+            BOOTSTRAP_HASH, null, sharedResolutionCache, fallBackToLoadClass, null);
   }
 
   @Override
@@ -118,20 +131,22 @@ public class DDCachingPoolStrategy implements PoolStrategy {
     return typePool(classFileLocator, classLoader);
   }
 
-  private TypePool.CacheProvider createCacheProvider(
+  private SharedResolutionCacheAdapter createCacheProvider(
       final int loaderHash, final WeakReference<ClassLoader> loaderRef) {
     return new SharedResolutionCacheAdapter(
-        loaderHash, loaderRef, sharedResolutionCache, fallBackToLoadClass);
+        loaderHash, loaderRef, sharedResolutionCache, fallBackToLoadClass, typeFactsCache);
   }
 
   private TypePool createCachingTypePool(
       final int loaderHash,
       final WeakReference<ClassLoader> loaderRef,
       final ClassFileLocator classFileLocator) {
-    return new TypePool.Default.WithLazyResolution(
-        createCacheProvider(loaderHash, loaderRef),
-        classFileLocator,
-        TypePool.Default.ReaderMode.FAST);
+    SharedResolutionCacheAdapter cacheProvider = createCacheProvider(loaderHash, loaderRef);
+    TypePool typePool =
+        new TypePool.Default.WithLazyResolution(
+            cacheProvider, classFileLocator, TypePool.Default.ReaderMode.FAST);
+    cacheProvider.bindTypePool(typePool);
+    return typePool;
   }
 
   private TypePool createCachingTypePool(
@@ -223,22 +238,34 @@ public class DDCachingPoolStrategy implements PoolStrategy {
   static final class SharedResolutionCacheAdapter implements TypePool.CacheProvider {
     private static final String OBJECT_NAME = "java.lang.Object";
     private static final TypePool.Resolution OBJECT_RESOLUTION =
-        new TypePool.Resolution.Simple(new CachingTypeDescription(TypeDescription.OBJECT));
+        new TypePool.Resolution.Simple(new CachingTypeDescription(TypeDescription.OBJECT, null));
 
     private final int loaderHash;
     private final WeakReference<ClassLoader> loaderRef;
     private final ConcurrentMap<TypeCacheKey, TypePool.Resolution> sharedResolutionCache;
     private final boolean fallBackToLoadClass;
+    private final TypeFactsCache typeFactsCache;
+
+    private TypeFactsLookup typeFactsLookup;
 
     SharedResolutionCacheAdapter(
         final int loaderHash,
         final WeakReference<ClassLoader> loaderRef,
         final ConcurrentMap<TypeCacheKey, TypePool.Resolution> sharedResolutionCache,
-        final boolean fallBackToLoadClass) {
+        final boolean fallBackToLoadClass,
+        final TypeFactsCache typeFactsCache) {
       this.loaderHash = loaderHash;
       this.loaderRef = loaderRef;
       this.sharedResolutionCache = sharedResolutionCache;
       this.fallBackToLoadClass = fallBackToLoadClass;
+      this.typeFactsCache = typeFactsCache;
+    }
+
+    /** Persisted super types are described by name using the pool this cache provider serves. */
+    void bindTypePool(final TypePool typePool) {
+      if (null != typeFactsCache && null != loaderRef) {
+        typeFactsLookup = new TypeFactsLookup(typeFactsCache, loaderRef, typePool);
+      }
     }
 
     @Override
@@ -269,7 +296,7 @@ public class DDCachingPoolStrategy implements PoolStrategy {
         // providing a way to get the class bytes.
         resolution = new CachingResolutionForMaybeLoadableType(loaderRef, className);
       } else {
-        resolution = new CachingResolution(resolution);
+        resolution = new CachingResolution(resolution, typeFactsLookup);
       }
 
       sharedResolutionCache.put(new TypeCacheKey(loaderHash, loaderRef, className), resolution);
@@ -343,10 +370,13 @@ public class DDCachingPoolStrategy implements PoolStrategy {
 
   private static class CachingResolution implements TypePool.Resolution {
     private final TypePool.Resolution delegate;
+    private final TypeFactsLookup typeFactsLookup;
     private TypeDescription cachedResolution;
 
-    public CachingResolution(final TypePool.Resolution delegate) {
+    public CachingResolution(
+        final TypePool.Resolution delegate, final TypeFactsLookup typeFactsLookup) {
       this.delegate = delegate;
+      this.typeFactsLookup = typeFactsLookup;
     }
 
     @Override
@@ -358,12 +388,28 @@ public class DDCachingPoolStrategy implements PoolStrategy {
     public TypeDescription resolve() {
       // Intentionally not "thread safe". Duplicate work deemed an acceptable trade-off.
       if (cachedResolution == null) {
-        cachedResolution = new CachingTypeDescription(delegate.resolve());
+        cachedResolution = new CachingTypeDescription(delegate.resolve(), typeFactsLookup);
       }
       return cachedResolution;
     }
   }
 
+  /** Where to find and record the persisted facts of types described by a particular pool. */
+  private static final class TypeFactsLookup {
+    final TypeFactsCache typeFactsCache;
+    final WeakReference<ClassLoader> loaderRef;
+    final TypePool typePool;
+
+    TypeFactsLookup(
+        final TypeFactsCache typeFactsCache,
+        final WeakReference<ClassLoader> loaderRef,
+        final TypePool typePool) {
+      this.typeFactsCache = typeFactsCache;
+      this.loaderRef = loaderRef;
+      this.typePool = typePool;
+    }
+  }
+
   /**
    * TypeDescription implementation that delegates and caches the results for the expensive calls
    * commonly used by our instrumentation.
@@ -371,16 +417,21 @@ public class DDCachingPoolStrategy implements PoolStrategy {
   private static class CachingTypeDescription
       extends TypeDescription.AbstractBase.OfSimpleType.WithDelegation {
     private final TypeDescription delegate;
+    private final TypeFactsLookup typeFactsLookup;
 
     // These fields are intentionally not "thread safe".
     // Duplicate work deemed an acceptable trade-off.
+    private TypeFactsCache.TypeFacts typeFacts;
+    private boolean typeFactsChecked;
     private Generic superClass;
     private TypeList.Generic interfaces;
     private AnnotationList annotations;
     private MethodList<MethodDescription.InDefinedShape> methods;
 
-    public CachingTypeDescription(final TypeDescription delegate) {
+    public CachingTypeDescription(
+        final TypeDescription delegate, final TypeFactsLookup typeFactsLookup) {
       this.delegate = delegate;
+      this.typeFactsLookup = typeFactsLookup;
     }
 
     @Override
@@ -388,10 +439,37 @@ public class DDCachingPoolStrategy implements PoolStrategy {
       return delegate;
     }
 
+    /** @return the persisted facts, or null if the delegate needs to be parsed */
+    private TypeFactsCache.TypeFacts typeFacts() {
+      if (!typeFactsChecked && null != typeFactsLookup) {
+        ClassLoader classLoader = typeFactsLookup.loaderRef.get();
+        if (null != classLoader) {
+          typeFacts = typeFactsLookup.typeFactsCache.find(classLoader, getName());
+          if (null == typeFacts) {
+            typeFactsLookup.typeFactsCache.record(typeFactsLookup.loaderRef, getName(), delegate);
+          }
+        }
+        typeFactsChecked = true;
+      }
+      return typeFacts;
+    }
+
+    @Override
+    public int getModifiers() {
+      TypeFactsCache.TypeFacts typeFacts = typeFacts();
+      return null != typeFacts ? typeFacts.modifiers : delegate.getModifiers();
+    }
+
     @Override
     public Generic getSuperClass() {
       if (superClass == null) {
-        superClass = delegate.getSuperClass();
+        TypeFactsCache.TypeFacts typeFacts = typeFacts();
+        if (null == typeFacts) {
+          superClass = delegate.getSuperClass();
+        } else if (null != typeFacts.superName) {
+          superClass =
+              typeFactsLookup.typePool.describe(typeFacts.superName).resolve().asGenericType();
+        }
       }
       return superClass;
     }
@@ -399,7 +477,16 @@ public class DDCachingPoolStrategy implements PoolStrategy {
     @Override
     public TypeList.Generic getInterfaces() {
       if (interfaces == null) {
-        interfaces = delegate.getInterfaces();
+        TypeFactsCache.TypeFacts typeFacts = typeFacts();
+        if (null == typeFacts) {
+          interfaces = delegate.getInterfaces();
+        } else {
+          List<TypeDescription> types = new ArrayList<>(typeFacts.interfaceNames.length);
+          for (String interfaceName : typeFacts.interfaceNames) {
+            types.add(typeFactsLookup.typePool.describe(interfaceName).resolve());
+          }
+          interfaces = new TypeList.Generic.Explicit(types);
+        }
       }
       return interfaces;
     }
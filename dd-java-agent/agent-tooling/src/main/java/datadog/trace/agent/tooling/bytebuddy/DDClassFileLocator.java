@@ -7,6 +7,7 @@ import datadog.trace.agent.tooling.Utils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.ref.WeakReference;
+import java.net.URL;
 import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.utility.StreamDrainer;
 
@@ -46,6 +47,33 @@ public final class DDClassFileLocator extends WeakReference<ClassLoader>
     return resolution != null ? resolution : new Resolution.Illegal(className);
   }
 
+  /**
+   * Finds the location of the class file which {@link #locate} would load, without reading it.
+   *
+   * @return the class file's URL, or null if it cannot be found
+   */
+  static URL locateClassFile(ClassLoader cl, final String className) {
+    String resourceName = getResourceName(className);
+
+    // try bootstrap first
+    URL url = Utils.getBootstrapProxy().getResource(resourceName);
+
+    // now go up the classloader hierarchy
+    if (null == url && null != cl) {
+      LOCATING_CLASS.begin();
+      try {
+        do {
+          url = cl.getResource(resourceName);
+          cl = cl.getParent();
+        } while (null == url && null != cl);
+      } finally {
+        LOCATING_CLASS.end();
+      }
+    }
+
+    return url;
+  }
+
   @Override
   public void close() {
     // nothing to close
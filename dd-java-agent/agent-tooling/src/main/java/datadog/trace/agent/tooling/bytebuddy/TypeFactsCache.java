@@ -0,0 +1,604 @@
+package datadog.trace.agent.tooling.bytebuddy;
+
+import static datadog.trace.util.AgentThreadFactory.AGENT_THREAD_GROUP;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.util.AgentTaskScheduler;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.description.type.TypeDescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists facts about the type hierarchy (modifiers, super class and interfaces) of the types we
+ * had to parse while matching, so later runs of the application can answer hierarchy matchers
+ * without locating and parsing the class files again.
+ *
+ * <p>Facts are keyed by a checksum of the jar (or class file) the type was loaded from and the type
+ * name, so changes to the application's classpath invalidate the affected facts. The checksum of a
+ * jar is the CRC of its central directory, which contains the CRC of each entry, and is computed
+ * once per jar. Types with generic super types aren't persisted, matchers see their full generic
+ * hierarchy by parsing them as before.
+ *
+ * <p>The file is an open-addressing table of offsets, a filter of the type names and the records.
+ * It is read as is and searched in place, so loading it doesn't parse the facts, and it isn't kept
+ * open or mapped so it can be replaced on all platforms. Lookups of types whose name isn't in the
+ * filter, which are most of them, return without locating the class file. Newly parsed types are
+ * merged into the file periodically and on shutdown, by writing a new file and moving it over the
+ * old one, so applications sharing the directory never see a partially written file.
+ */
+public final class TypeFactsCache {
+  private static final Logger log = LoggerFactory.getLogger(TypeFactsCache.class);
+
+  static final String FILE_NAME = "dd-type-facts.bin";
+
+  static final int MAX_FACTS = 1 << 16;
+
+  private static final int MAGIC = 0xDD7F4C75;
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 12;
+  private static final int NO_SUPER_CLASS = 0xFFFF;
+
+  private static final long SAVE_DELAY_SECONDS = 60;
+  private static final long SAVE_PERIOD_SECONDS = 300;
+
+  private static final long RUNTIME_CHECKSUM =
+      fnv1a(System.getProperty("java.home") + '/' + System.getProperty("java.runtime.version"));
+
+  private static final Table EMPTY = new Table(ByteBuffer.allocate(0), 0);
+
+  private final File file;
+  private volatile Table table;
+
+  private final ConcurrentMap<String, Long> checksums = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Recorded> recorded = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger recordedCount = new AtomicInteger();
+
+  /**
+   * Opens the cache in the given directory, creating the directory if necessary, and schedules
+   * saving the facts of types parsed from then on.
+   *
+   * @return the cache, or null if the directory can't be used
+   */
+  public static TypeFactsCache open(final String directory) {
+    File dir = new File(directory);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      log.debug("Cannot create type resolution cache directory {}", directory);
+      return null;
+    }
+    TypeFactsCache cache = new TypeFactsCache(new File(dir, FILE_NAME));
+    AgentTaskScheduler.INSTANCE.scheduleAtFixedRate(
+        SaveTask.INSTANCE, cache, SAVE_DELAY_SECONDS, SAVE_PERIOD_SECONDS, SECONDS);
+    try {
+      Runtime.getRuntime().addShutdownHook(new ShutdownHook(cache));
+    } catch (final IllegalStateException e) {
+      // The JVM is already shutting down.
+    }
+    return cache;
+  }
+
+  TypeFactsCache(final File file) {
+    this.file = file;
+    this.table = load(file);
+  }
+
+  /** @return the persisted facts for the type, or null if there are none */
+  TypeFacts find(final ClassLoader classLoader, final String className) {
+    Table table = this.table;
+    if (table.mask == 0 || !table.mayContain(className)) {
+      return null; // don't bother locating the class file to compute its checksum
+    }
+    long checksum = checksumOf(classLoader, className);
+    if (0 == checksum) {
+      return null;
+    }
+    try {
+      int offset = table.find(checksum, className.getBytes(UTF_8));
+      return offset > 0 ? table.read(offset) : null;
+    } catch (final RuntimeException e) {
+      log.debug("Corrupt type resolution cache {}", file, e);
+      this.table = EMPTY;
+      return null;
+    }
+  }
+
+  /**
+   * Records the facts of a type which had to be parsed, to be persisted when the cache is next
+   * saved. Must only be called with a type description which has been parsed from a class file.
+   */
+  void record(
+      final WeakReference<ClassLoader> loaderRef,
+      final String className,
+      final TypeDescription type) {
+    if (recordedCount.get() >= MAX_FACTS) {
+      return;
+    }
+    try {
+      TypeDescription.Generic superClass = type.getSuperClass();
+      if (null != superClass && superClass.getSort() != TypeDefinition.Sort.NON_GENERIC) {
+        return;
+      }
+      List<String> interfaceNames = new ArrayList<>();
+      for (TypeDescription.Generic anInterface : type.getInterfaces()) {
+        if (anInterface.getSort() != TypeDefinition.Sort.NON_GENERIC) {
+          return;
+        }
+        interfaceNames.add(anInterface.asErasure().getName());
+      }
+      TypeFacts facts =
+          new TypeFacts(
+              type.getModifiers(),
+              null != superClass ? superClass.asErasure().getName() : null,
+              interfaceNames.toArray(new String[0]));
+      recordedCount.incrementAndGet();
+      recorded.offer(new Recorded(loaderRef, className, facts));
+    } catch (final Exception e) {
+      // types which can't be fully described aren't persisted
+    }
+  }
+
+  /**
+   * Merges the facts recorded since the last save with those currently in the file.
+   *
+   * @return true if the file was written
+   */
+  synchronized boolean save() {
+    if (recorded.isEmpty()) {
+      return false;
+    }
+    Table current = load(file); // pick up facts saved by other applications in the meantime
+    List<Entry> entries = new ArrayList<>();
+    current.collect(entries);
+    Set<String> added = new HashSet<>();
+    Recorded next;
+    while (null != (next = recorded.poll())) {
+      recordedCount.decrementAndGet();
+      if (entries.size() >= MAX_FACTS) {
+        continue;
+      }
+      ClassLoader classLoader = next.loaderRef.get();
+      if (null == classLoader) {
+        continue;
+      }
+      try {
+        long checksum = checksumOf(classLoader, next.className);
+        byte[] name = next.className.getBytes(UTF_8);
+        if (0 != checksum
+            && (current.mask == 0 || current.find(checksum, name) < 0)
+            && added.add(checksum + ":" + next.className)) {
+          entries.add(new Entry(checksum, name, encode(checksum, name, next.facts)));
+        }
+      } catch (final Exception e) {
+        log.debug("Cannot persist type facts of {}", next.className, e);
+      }
+    }
+    if (entries.isEmpty()) {
+      return false;
+    }
+    File temp = null;
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      int slots = write(entries, bytes);
+      byte[] written = bytes.toByteArray();
+      temp = File.createTempFile(FILE_NAME, ".tmp", file.getParentFile());
+      try (OutputStream out = new FileOutputStream(temp)) {
+        out.write(written);
+      }
+      try {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (final AtomicMoveNotSupportedException e) {
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      temp = null;
+      this.table = new Table(ByteBuffer.wrap(written), slots - 1);
+      return true;
+    } catch (final IOException e) {
+      log.debug("Cannot save type resolution cache {}", file, e);
+      return false;
+    } finally {
+      if (null != temp && !temp.delete()) {
+        temp.deleteOnExit();
+      }
+    }
+  }
+
+  private static Table load(final File file) {
+    if (!file.isFile()) {
+      return EMPTY;
+    }
+    try (RandomAccessFile in = new RandomAccessFile(file, "r");
+        FileChannel channel = in.getChannel()) {
+      long size = channel.size();
+      if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+        return EMPTY;
+      }
+      // read rather than mapped, a mapped file can't be replaced on Windows
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          return EMPTY;
+        }
+      }
+      int slots = buffer.getInt(8);
+      if (buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != VERSION
+          || slots <= 0
+          || Integer.bitCount(slots) != 1
+          || HEADER_SIZE + 5L * slots > size) {
+        log.debug("Ignoring incompatible type resolution cache {}", file);
+        return EMPTY;
+      }
+      return new Table(buffer, slots - 1);
+    } catch (final IOException e) {
+      log.debug("Cannot load type resolution cache {}", file, e);
+      return EMPTY;
+    }
+  }
+
+  /** @return the number of slots of the written table */
+  private static int write(final List<Entry> entries, final OutputStream out) throws IOException {
+    int slots = Integer.highestOneBit(Math.max(entries.size(), 8) * 2 - 1) << 1;
+    int[] offsets = new int[slots];
+    // 8 bits per slot, at least 16 per type name
+    byte[] filter = new byte[slots];
+    int offset = HEADER_SIZE + 5 * slots;
+    for (Entry entry : entries) {
+      int slot = hash(entry.checksum, entry.name) & (slots - 1);
+      while (offsets[slot] != 0) {
+        slot = (slot + 1) & (slots - 1);
+      }
+      offsets[slot] = offset;
+      offset += entry.record.length;
+      int nameHash = filterHash(new String(entry.name, UTF_8));
+      for (int i = 0; i < 2; ++i) {
+        int bit = nameHash & (8 * slots - 1);
+        filter[bit >>> 3] |= (byte) (1 << (bit & 7));
+        nameHash = filterHash(nameHash);
+      }
+    }
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(slots);
+    for (int slotOffset : offsets) {
+      data.writeInt(slotOffset);
+    }
+    data.write(filter);
+    for (Entry entry : entries) {
+      data.write(entry.record);
+    }
+    data.flush();
+    return slots;
+  }
+
+  private static byte[] encode(final long checksum, final byte[] name, final TypeFacts facts)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+    DataOutputStream data = new DataOutputStream(bytes);
+    data.writeLong(checksum);
+    writeName(data, name);
+    data.writeInt(facts.modifiers);
+    if (null != facts.superName) {
+      writeName(data, facts.superName.getBytes(UTF_8));
+    } else {
+      data.writeShort(NO_SUPER_CLASS);
+    }
+    data.writeShort(facts.interfaceNames.length);
+    for (String interfaceName : facts.interfaceNames) {
+      writeName(data, interfaceName.getBytes(UTF_8));
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeName(final DataOutputStream data, final byte[] name)
+      throws IOException {
+    if (name.length >= NO_SUPER_CLASS) {
+      throw new IOException("Name too long");
+    }
+    data.writeShort(name.length);
+    data.write(name);
+  }
+
+  private static int hash(final long checksum, final byte[] name) {
+    int hash = 31 * (int) (checksum ^ (checksum >>> 32)) + Arrays.hashCode(name);
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int filterHash(final String className) {
+    return filterHash(className.hashCode());
+  }
+
+  private static int filterHash(int hash) {
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  private long checksumOf(final ClassLoader classLoader, final String className) {
+    URL url = DDClassFileLocator.locateClassFile(classLoader, className);
+    if (null == url) {
+      return 0;
+    }
+    switch (url.getProtocol()) {
+      case "jar":
+        String path = url.getPath();
+        int separator = path.indexOf("!/");
+        if (separator > 0 && path.startsWith("file:")) {
+          // the outermost jar, nested jars can only change when it does
+          String jar = path.substring(0, separator);
+          Long checksum = checksums.get(jar);
+          if (null == checksum) {
+            checksum = jarChecksum(jar);
+            checksums.put(jar, checksum);
+          }
+          return checksum;
+        }
+        return 0;
+      case "file":
+        return classFileChecksum(url.toString());
+      case "jrt":
+        return RUNTIME_CHECKSUM;
+      default:
+        return 0;
+    }
+  }
+
+  private static long classFileChecksum(final String classFile) {
+    try {
+      File file = new File(URI.create(classFile));
+      return fnv1a(classFile + '/' + file.length() + '/' + file.lastModified());
+    } catch (final Exception e) {
+      return 0;
+    }
+  }
+
+  /** @return the CRC of the jar's central directory combined with its size, or 0 if unknown */
+  static long jarChecksum(final String jar) {
+    try (RandomAccessFile in = new RandomAccessFile(new File(URI.create(jar)), "r")) {
+      long length = in.length();
+      // the end of central directory record is 22 bytes plus a comment of up to 64k
+      int tailLength = (int) Math.min(length, 22 + 0xFFFF);
+      byte[] tail = new byte[tailLength];
+      in.seek(length - tailLength);
+      in.readFully(tail);
+      for (int i = tailLength - 22; i >= 0; --i) {
+        if (readIntLE(tail, i) == 0x06054b50) {
+          long directorySize = readIntLE(tail, i + 12) & 0xFFFFFFFFL;
+          // relative to the end rather than the recorded offset, in case the jar has a prefix
+          long directoryStart = length - tailLength + i - directorySize;
+          if (directoryStart < 0) {
+            return 0;
+          }
+          CRC32 crc = new CRC32();
+          byte[] buffer = new byte[8192];
+          in.seek(directoryStart);
+          for (long remaining = directorySize; remaining > 0; ) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+              return 0;
+            }
+            crc.update(buffer, 0, read);
+            remaining -= read;
+          }
+          return (crc.getValue() << 32) | directorySize;
+        }
+      }
+    } catch (final Exception e) {
+      log.debug("Cannot compute checksum of {}", jar, e);
+    }
+    return 0;
+  }
+
+  private static int readIntLE(final byte[] bytes, final int offset) {
+    return (bytes[offset] & 0xFF)
+        | (bytes[offset + 1] & 0xFF) << 8
+        | (bytes[offset + 2] & 0xFF) << 16
+        | (bytes[offset + 3] & 0xFF) << 24;
+  }
+
+  /** 64-bit FNV-1a hash, never 0. */
+  private static long fnv1a(final String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); ++i) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    return hash != 0 ? hash : 1;
+  }
+
+  /** The persisted facts about a type. */
+  static final class TypeFacts {
+    final int modifiers;
+    final String superName;
+    final String[] interfaceNames;
+
+    TypeFacts(final int modifiers, final String superName, final String[] interfaceNames) {
+      this.modifiers = modifiers;
+      this.superName = superName;
+      this.interfaceNames = interfaceNames;
+    }
+  }
+
+  private static final class Table {
+    private final ByteBuffer buffer;
+    private final int mask;
+
+    Table(final ByteBuffer buffer, final int mask) {
+      this.buffer = buffer;
+      this.mask = mask;
+    }
+
+    /** @return false if there is no record with that type name, true if there might be */
+    boolean mayContain(final String className) {
+      int slots = mask + 1;
+      int bits = 8 * slots;
+      int filterStart = HEADER_SIZE + 4 * slots;
+      int nameHash = filterHash(className);
+      for (int i = 0; i < 2; ++i) {
+        int bit = nameHash & (bits - 1);
+        if ((buffer.get(filterStart + (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+          return false;
+        }
+        nameHash = filterHash(nameHash);
+      }
+      return true;
+    }
+
+    /** @return the offset of the record, or -1 if there is no record for the type */
+    int find(final long checksum, final byte[] name) {
+      int slot = hash(checksum, name) & mask;
+      for (int i = 0; i <= mask; ++i) {
+        int offset = buffer.getInt(HEADER_SIZE + 4 * slot);
+        if (0 == offset) {
+          break;
+        }
+        if (buffer.getLong(offset) == checksum && nameMatches(offset + 8, name)) {
+          return offset;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    private boolean nameMatches(final int offset, final byte[] name) {
+      if ((buffer.getShort(offset) & 0xFFFF) != name.length) {
+        return false;
+      }
+      for (int i = 0; i < name.length; ++i) {
+        if (buffer.get(offset + 2 + i) != name[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    TypeFacts read(int offset) {
+      offset += 8;
+      offset += 2 + (buffer.getShort(offset) & 0xFFFF); // skip name
+      int modifiers = buffer.getInt(offset);
+      offset += 4;
+      String superName = null;
+      int length = buffer.getShort(offset) & 0xFFFF;
+      offset += 2;
+      if (length != NO_SUPER_CLASS) {
+        superName = readString(offset, length);
+        offset += length;
+      }
+      String[] interfaceNames = new String[buffer.getShort(offset) & 0xFFFF];
+      offset += 2;
+      for (int i = 0; i < interfaceNames.length; ++i) {
+        length = buffer.getShort(offset) & 0xFFFF;
+        interfaceNames[i] = readString(offset + 2, length);
+        offset += 2 + length;
+      }
+      return new TypeFacts(modifiers, superName, interfaceNames);
+    }
+
+    /** Adds all records of this table to the list, re-encoded so they don't refer to the file. */
+    void collect(final List<Entry> entries) {
+      for (int slot = 0; slot <= mask && mask > 0 && entries.size() < MAX_FACTS; ++slot) {
+        int offset = buffer.getInt(HEADER_SIZE + 4 * slot);
+        if (0 != offset) {
+          try {
+            long checksum = buffer.getLong(offset);
+            byte[] name = readBytes(offset + 10, buffer.getShort(offset + 8) & 0xFFFF);
+            entries.add(new Entry(checksum, name, encode(checksum, name, read(offset))));
+          } catch (final Exception e) {
+            return; // corrupt, drop the rest
+          }
+        }
+      }
+    }
+
+    private String readString(final int offset, final int length) {
+      return new String(readBytes(offset, length), UTF_8);
+    }
+
+    private byte[] readBytes(final int offset, final int length) {
+      byte[] bytes = new byte[length];
+      for (int i = 0; i < length; ++i) {
+        bytes[i] = buffer.get(offset + i);
+      }
+      return bytes;
+    }
+  }
+
+  private static final class Entry {
+    final long checksum;
+    final byte[] name;
+    final byte[] record;
+
+    Entry(final long checksum, final byte[] name, final byte[] record) {
+      this.checksum = checksum;
+      this.name = name;
+      this.record = record;
+    }
+  }
+
+  private static final class Recorded {
+    final WeakReference<ClassLoader> loaderRef;
+    final String className;
+    final TypeFacts facts;
+
+    Recorded(
+        final WeakReference<ClassLoader> loaderRef,
+        final String className,
+        final TypeFacts facts) {
+      this.loaderRef = loaderRef;
+      this.className = className;
+      this.facts = facts;
+    }
+  }
+
+  // Important to use explicit class to avoid implicit hard references to target
+  private static final class SaveTask implements AgentTaskScheduler.Task<TypeFactsCache> {
+    static final SaveTask INSTANCE = new SaveTask();
+
+    @Override
+    public void run(final TypeFactsCache target) {
+      target.save();
+    }
+  }
+
+  private static final class ShutdownHook extends Thread {
+    private final WeakReference<TypeFactsCache> cacheRef;
+
+    ShutdownHook(final TypeFactsCache cache) {
+      super(AGENT_THREAD_GROUP, "dd-resolver-cache-shutdown-hook");
+      cacheRef = new WeakReference<>(cache);
+    }
+
+    @Override
+    public void run() {
+      TypeFactsCache cache = cacheRef.get();
+      if (null != cache) {
+        cache.save();
+      }
+    }
+  }
+}
@@ -1,7 +1,7 @@
 package datadog.trace.agent.test
 
 import datadog.trace.agent.tooling.ClassLoaderMatcher
-import datadog.trace.agent.tooling.log.LogContextScopeListener
+import datadog.trace.agent.tooling.log.UnionMap
 import datadog.trace.bootstrap.DatadogClassLoader
 import datadog.trace.test.util.DDSpecification
 import groovy.transform.CompileStatic
@@ -42,7 +42,7 @@ class ClassLoaderMatcherTest extends DDSpecification {
 
   def "helper class names are hardcoded in Log Instrumentations"() {
     expect:
-    LogContextScopeListener.name == "datadog.trace.agent.tooling.log.LogContextScopeListener"
+    UnionMap.name == "datadog.trace.agent.tooling.log.UnionMap"
   }
 
   /*
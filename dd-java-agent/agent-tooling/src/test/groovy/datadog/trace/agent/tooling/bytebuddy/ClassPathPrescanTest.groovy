@@ -0,0 +1,88 @@
+package datadog.trace.agent.tooling.bytebuddy
+
+import datadog.trace.test.util.DDSpecification
+import net.bytebuddy.description.type.TypeDescription
+import net.bytebuddy.matcher.ElementMatcher
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.ConcurrentHashMap
+
+import static net.bytebuddy.matcher.ElementMatchers.any
+import static net.bytebuddy.matcher.ElementMatchers.named
+import static net.bytebuddy.matcher.ElementMatchers.none
+
+class ClassPathPrescanTest extends DDSpecification {
+
+  def "outcomes of scanned classes are looked up"() {
+    setup:
+    def loader = ClassPathPrescanTest.classLoader
+    def classPath = new File(ClassPathPrescanTest.protectionDomain.codeSource.location.toURI()).path
+    def seen = ConcurrentHashMap.newKeySet()
+    def matcher = { TypeDescription type ->
+      if (type.name in [TypeFactsCacheTest.name, DDCachingPoolStrategyTest.name]) {
+        seen.add(type.name)
+      }
+      type.name == TypeFactsCacheTest.name
+    } as ElementMatcher<TypeDescription>
+    def prescan = new ClassPathPrescan(loader, new DDLocationStrategy())
+    def prescanned = prescan.register(matcher, any())
+    def excluded = prescan.register(matcher, none())
+
+    when:
+    prescan.start(classPath)
+
+    then: "once scanned the matcher isn't evaluated anymore"
+    new PollingConditions(timeout: 10).eventually {
+      seen.clear()
+      assert prescanned.matches(describe(loader, TypeFactsCacheTest.name), loader, null, null, null)
+      assert !prescanned.matches(describe(loader, DDCachingPoolStrategyTest.name), loader, null, null, null)
+      assert seen.isEmpty()
+    }
+    !excluded.matches(describe(loader, TypeFactsCacheTest.name), loader, null, null, null)
+
+    when: "matching classes of other class loaders"
+    seen.clear()
+    def otherLoader = new URLClassLoader([] as URL[], loader)
+
+    then:
+    prescanned.matches(describe(loader, TypeFactsCacheTest.name), otherLoader, null, null, null)
+    seen == [TypeFactsCacheTest.name] as Set
+
+    when: "a class is loaded"
+    seen.clear()
+    prescan.listener().onComplete(TypeFactsCacheTest.name, loader, null, false)
+
+    then:
+    prescanned.matches(describe(loader, TypeFactsCacheTest.name), loader, null, null, null)
+    seen == [TypeFactsCacheTest.name] as Set
+
+    when: "outcomes have expired"
+    seen.clear()
+    prescan.expireOutcomes()
+
+    then:
+    !prescanned.matches(describe(loader, DDCachingPoolStrategyTest.name), loader, null, null, null)
+    seen == [DDCachingPoolStrategyTest.name] as Set
+  }
+
+  def "matchers registered after the scan started are evaluated"() {
+    setup:
+    def loader = ClassPathPrescanTest.classLoader
+    def prescan = new ClassPathPrescan(loader, new DDLocationStrategy())
+    prescan.start("")
+
+    when:
+    def prescanned = prescan.register(named(TypeFactsCacheTest.name), any())
+
+    then:
+    prescanned.matches(describe(loader, TypeFactsCacheTest.name), loader, null, null, null)
+    !prescanned.matches(describe(loader, DDCachingPoolStrategyTest.name), loader, null, null, null)
+  }
+
+  static TypeDescription describe(ClassLoader loader, String name) {
+    return new DDCachingPoolStrategy()
+      .typePool(new DDLocationStrategy().classFileLocator(loader), loader)
+      .describe(name)
+      .resolve()
+  }
+}
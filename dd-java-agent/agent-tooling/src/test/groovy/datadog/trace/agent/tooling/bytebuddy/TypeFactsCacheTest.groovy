@@ -0,0 +1,134 @@
+package datadog.trace.agent.tooling.bytebuddy
+
+import datadog.trace.test.util.DDSpecification
+import net.bytebuddy.agent.builder.AgentBuilder
+
+import java.lang.ref.WeakReference
+
+import static datadog.trace.agent.tooling.bytebuddy.matcher.DDElementMatchers.implementsInterface
+import static net.bytebuddy.matcher.ElementMatchers.named
+
+class TypeFactsCacheTest extends DDSpecification {
+
+  def "hierarchy facts are persisted and used by the next run"() {
+    setup:
+    def file = new File(File.createTempDir(), TypeFactsCache.FILE_NAME)
+    def loader = DDCachingPoolStrategy.classLoader
+    def firstRun = new TypeFactsCache(file)
+
+    when:
+    def description = describe(firstRun, loader, DDCachingPoolStrategy.name)
+
+    then:
+    implementsInterface(named(AgentBuilder.PoolStrategy.name)).matches(description)
+    firstRun.find(loader, DDCachingPoolStrategy.name) == null
+    firstRun.save()
+
+    when:
+    def secondRun = new TypeFactsCache(file)
+    def facts = secondRun.find(loader, DDCachingPoolStrategy.name)
+    def cachedDescription = describe(secondRun, loader, DDCachingPoolStrategy.name)
+
+    then:
+    facts.modifiers == description.modifiers
+    facts.superName == Object.name
+    facts.interfaceNames == [AgentBuilder.PoolStrategy.name] as String[]
+    implementsInterface(named(AgentBuilder.PoolStrategy.name)).matches(cachedDescription)
+    cachedDescription.superClass.asErasure().name == Object.name
+    cachedDescription.modifiers == description.modifiers
+    !secondRun.save() // nothing new to persist
+
+    cleanup:
+    file.parentFile.deleteDir()
+  }
+
+  def "types with generic super types are not persisted"() {
+    setup:
+    def file = new File(File.createTempDir(), TypeFactsCache.FILE_NAME)
+    def loader = DDCachingPoolStrategy.classLoader
+    def cache = new TypeFactsCache(file)
+
+    when:
+    def description = describe(null, loader, GenericType.name)
+    cache.record(new WeakReference<ClassLoader>(loader), GenericType.name, description)
+
+    then:
+    !cache.save()
+    !file.exists()
+
+    cleanup:
+    file.parentFile.deleteDir()
+  }
+
+  def "types missing from the file are not located"() {
+    setup:
+    def file = new File(File.createTempDir(), TypeFactsCache.FILE_NAME)
+    def loader = DDCachingPoolStrategy.classLoader
+    def firstRun = new TypeFactsCache(file)
+    describe(firstRun, loader, DDCachingPoolStrategy.name)
+    firstRun.save()
+    def countingLoader = new CountingClassLoader(loader)
+    def secondRun = new TypeFactsCache(file)
+
+    when:
+    def found = secondRun.find(countingLoader, DDCachingPoolStrategy.name)
+
+    then:
+    found != null
+    countingLoader.lookups == 1
+
+    when:
+    countingLoader.lookups = 0
+    (1..1000).each {
+      assert secondRun.find(countingLoader, "com.example.Missing$it") == null
+    }
+
+    then:
+    countingLoader.lookups < 100 // only names colliding in the filter are located
+
+    cleanup:
+    file.parentFile.deleteDir()
+  }
+
+  def "corrupt files are ignored"() {
+    setup:
+    def file = new File(File.createTempDir(), TypeFactsCache.FILE_NAME)
+    file.bytes = bytes as byte[]
+    def loader = DDCachingPoolStrategy.classLoader
+
+    expect:
+    new TypeFactsCache(file).find(loader, DDCachingPoolStrategy.name) == null
+
+    cleanup:
+    file.parentFile.deleteDir()
+
+    where:
+    bytes << [
+      [],
+      [1, 2, 3],
+      [0xDD, 0x7F, 0x4C, 0x75, 0, 0, 0, 1, 0, 0, 0, 16],
+      [0xDD, 0x7F, 0x4C, 0x75, 0, 0, 0, 2, 0, 0, 0, 1, 0, 0, 0, 0]
+    ]
+  }
+
+  def describe(TypeFactsCache cache, ClassLoader loader, String name) {
+    def strategy = new DDCachingPoolStrategy(true, cache)
+    return strategy.typePool(new DDClassFileLocator(loader), loader).describe(name).resolve()
+  }
+
+  static class GenericType extends ArrayList<String> {}
+
+  static class CountingClassLoader extends ClassLoader {
+    int lookups
+
+    CountingClassLoader(ClassLoader parent) {
+      super(parent)
+    }
+
+    @Override
+    URL getResource(String name) {
+      lookups++
+      return super.getResource(name)
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package datadog.benchmark;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loads every class of the jars on the benchmark's classpath in a fresh class loader, which puts
+ * each of them through the type matchers of all instrumentations when run with the agent.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+public class ClassLoadingBenchmark {
+
+  private URL[] jars;
+  private List<String> classNames;
+
+  @Setup
+  public void init() throws IOException {
+    List<URL> urls = new ArrayList<>();
+    classNames = new ArrayList<>();
+    for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      if (path.endsWith(".jar")) {
+        urls.add(new File(path).toURI().toURL());
+        try (JarFile jarFile = new JarFile(path)) {
+          Enumeration<JarEntry> entries = jarFile.entries();
+          while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.endsWith(".class") && !name.contains("-")) {
+              classNames.add(name.substring(0, name.length() - 6).replace('/', '.'));
+            }
+          }
+        }
+      }
+    }
+    jars = urls.toArray(new URL[0]);
+  }
+
+  @Benchmark
+  public int loadClasspath() throws IOException {
+    int loaded = 0;
+    // parent is the bootstrap class loader so every class is defined again
+    try (URLClassLoader classLoader = new URLClassLoader(jars, null)) {
+      for (String className : classNames) {
+        try {
+          Class.forName(className, false, classLoader);
+          ++loaded;
+        } catch (Throwable ignored) {
+          // missing optional dependencies
+        }
+      }
+    }
+    return loaded;
+  }
+
+  @Fork(jvmArgsAppend = "-javaagent:/path/to/dd-java-agent-master.jar")
+  public static class WithAgentMaster extends ClassLoadingBenchmark {}
+
+  @Fork(
+      jvmArgsAppend =
+          "-javaagent:/path/to/dd-trace-java/dd-java-agent/build/libs/dd-java-agent.jar")
+  public static class WithAgent extends ClassLoadingBenchmark {}
+}
@@ -0,0 +1,61 @@
+package datadog.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Application started by {@link StartupBenchmark}. Like a typical framework it loads the classes
+ * of the jars on its classpath before it starts to serve requests, then prints the port it listens
+ * on.
+ */
+public class StartupApplication {
+
+  public static void main(final String... args) throws Exception {
+    for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      if (path.endsWith(".jar")) {
+        loadClasses(path);
+      }
+    }
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        new HttpHandler() {
+          @Override
+          public void handle(final HttpExchange exchange) throws IOException {
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream body = exchange.getResponseBody()) {
+              body.write("OK".getBytes("UTF-8"));
+            }
+          }
+        });
+    server.start();
+    System.out.println(server.getAddress().getPort());
+    System.out.flush();
+  }
+
+  private static void loadClasses(final String jar) throws IOException {
+    ClassLoader classLoader = StartupApplication.class.getClassLoader();
+    try (JarFile jarFile = new JarFile(jar)) {
+      Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        String name = entries.nextElement().getName();
+        if (name.endsWith(".class") && !name.contains("-")) {
+          try {
+            Class.forName(
+                name.substring(0, name.length() - 6).replace('/', '.'), false, classLoader);
+          } catch (Throwable ignored) {
+            // missing optional dependencies
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package datadog.benchmark;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time from starting an application with the agent until it has served its first
+ * request, without the persistent type resolution cache, with an empty cache and with a cache
+ * populated by a previous run of the application; with and without the class-path pre-scan.
+ *
+ * <p>The agent jar is taken from the {@code dd.benchmark.agent.jar} system property.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+public class StartupBenchmark {
+
+  @Param({"disabled", "cold", "warm"})
+  String resolverCache;
+
+  @Param({"false", "true"})
+  String prescan;
+
+  private String agentJar;
+  private File cacheDir;
+  private Process application;
+
+  @Setup(Level.Trial)
+  public void init() throws Exception {
+    agentJar = System.getProperty("dd.benchmark.agent.jar");
+    if (null == agentJar || !new File(agentJar).isFile()) {
+      throw new IllegalStateException("Agent jar not found: " + agentJar);
+    }
+    cacheDir = File.createTempFile("dd-resolver-cache", "");
+    if (!cacheDir.delete() || !cacheDir.mkdir()) {
+      throw new IOException("Cannot create " + cacheDir);
+    }
+    if ("warm".equals(resolverCache)) {
+      // the cache is saved when the application shuts down
+      awaitFirstRequest(startApplication());
+      stopApplication();
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void clearCache() {
+    if ("cold".equals(resolverCache)) {
+      deleteCache();
+    }
+  }
+
+  @TearDown(Level.Invocation)
+  public void stopApplication() throws InterruptedException {
+    if (null != application) {
+      application.destroy();
+      application.waitFor();
+      application = null;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteCache() {
+    File[] files = cacheDir.listFiles();
+    if (null != files) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  @Benchmark
+  public int timeToFirstRequest() throws Exception {
+    return awaitFirstRequest(startApplication());
+  }
+
+  private BufferedReader startApplication() throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+    command.add("-javaagent:" + agentJar);
+    command.add("-Ddd.jmxfetch.enabled=false");
+    command.add("-Ddd.writer.type=LoggingWriter");
+    command.add("-Ddd.resolver.prescan.enabled=" + prescan);
+    if (!"disabled".equals(resolverCache)) {
+      command.add("-Ddd.resolver.cache.dir=" + cacheDir.getAbsolutePath());
+    }
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(StartupApplication.class.getName());
+    application = new ProcessBuilder(command).redirectErrorStream(true).start();
+    return new BufferedReader(new InputStreamReader(application.getInputStream(), "UTF-8"));
+  }
+
+  private static int awaitFirstRequest(final BufferedReader output) throws IOException {
+    String line;
+    while (null != (line = output.readLine())) {
+      if (line.matches("\\d+")) {
+        // the application prints its port once it's ready to serve requests
+        HttpURLConnection connection =
+            (HttpURLConnection) new URL("http://localhost:" + line + "/").openConnection();
+        try {
+          return connection.getResponseCode();
+        } finally {
+          connection.disconnect();
+        }
+      }
+    }
+    throw new IOException("Application exited before serving a request");
+  }
+}
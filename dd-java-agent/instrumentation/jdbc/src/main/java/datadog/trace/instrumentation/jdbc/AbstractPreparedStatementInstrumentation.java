@@ -5,6 +5,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSp
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.DATABASE_QUERY;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.DECORATE;
+import static datadog.trace.instrumentation.jdbc.JDBCDecorator.STATEMENT_CALL_DEPTH;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.logMissingQueryInfo;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.logSQLException;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
@@ -57,7 +58,7 @@ public abstract class AbstractPreparedStatementInstrumentation extends Instrumen
 
     @Advice.OnMethodEnter(suppress = Throwable.class)
     public static AgentScope onEnter(@Advice.This final Statement statement) {
-      int depth = CallDepthThreadLocalMap.incrementCallDepth(Statement.class);
+      int depth = CallDepthThreadLocalMap.incrementCallDepth(STATEMENT_CALL_DEPTH);
       if (depth > 0) {
         return null;
       }
@@ -93,7 +94,7 @@ public abstract class AbstractPreparedStatementInstrumentation extends Instrumen
       DECORATE.beforeFinish(scope.span());
       scope.close();
       scope.span().finish();
-      CallDepthThreadLocalMap.reset(Statement.class);
+      CallDepthThreadLocalMap.reset(STATEMENT_CALL_DEPTH);
     }
   }
 }
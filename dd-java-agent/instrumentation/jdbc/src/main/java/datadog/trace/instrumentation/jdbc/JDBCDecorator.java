@@ -2,6 +2,7 @@ package datadog.trace.instrumentation.jdbc;
 
 import static datadog.trace.bootstrap.instrumentation.api.Tags.DB_OPERATION;
 
+import datadog.trace.bootstrap.CallDepthThreadLocalMap;
 import datadog.trace.bootstrap.ContextStore;
 import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
 import datadog.trace.bootstrap.instrumentation.api.InternalSpanTypes;
@@ -33,6 +34,10 @@ public class JDBCDecorator extends DatabaseClientDecorator<DBInfo> {
   private static final UTF8BytesString JDBC_PREPARED_STATEMENT =
       UTF8BytesString.create("java-jdbc-prepared_statement");
 
+  // looked up once, instead of by class each time a statement is executed
+  public static final CallDepthThreadLocalMap.CallDepthId STATEMENT_CALL_DEPTH =
+      CallDepthThreadLocalMap.idOf(Statement.class);
+
   public static void logMissingQueryInfo(Statement statement) throws SQLException {
     if (log.isDebugEnabled()) {
       log.debug(
@@ -8,6 +8,7 @@ import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSp
 import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.DATABASE_QUERY;
 import static datadog.trace.instrumentation.jdbc.JDBCDecorator.DECORATE;
+import static datadog.trace.instrumentation.jdbc.JDBCDecorator.STATEMENT_CALL_DEPTH;
 import static java.util.Collections.singletonMap;
 import static net.bytebuddy.matcher.ElementMatchers.isPublic;
 import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
@@ -70,7 +71,7 @@ public final class StatementInstrumentation extends Instrumenter.Tracing {
     public static AgentScope onEnter(
         @Advice.Argument(0) final String sql, @Advice.This final Statement statement) {
       // TODO consider matching known non-wrapper implementations to avoid this check
-      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(Statement.class);
+      final int callDepth = CallDepthThreadLocalMap.incrementCallDepth(STATEMENT_CALL_DEPTH);
       if (callDepth > 0) {
         return null;
       }
@@ -98,7 +99,7 @@ public final class StatementInstrumentation extends Instrumenter.Tracing {
       DECORATE.beforeFinish(scope.span());
       scope.close();
       scope.span().finish();
-      CallDepthThreadLocalMap.reset(Statement.class);
+      CallDepthThreadLocalMap.reset(STATEMENT_CALL_DEPTH);
     }
   }
 }
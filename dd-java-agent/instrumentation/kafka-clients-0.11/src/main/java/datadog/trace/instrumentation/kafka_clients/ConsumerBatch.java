@@ -0,0 +1,93 @@
+package datadog.trace.instrumentation.kafka_clients;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * Aggregates the records consumed under a batch span: how many there were, their serialized size
+ * and the range of offsets consumed from each partition.
+ *
+ * <p>Records of a batch come grouped by partition, so offset ranges are written out as soon as the
+ * partition changes, e.g. {@code topic-0:10-19,topic-1:5-7}. Ranges which would make the offsets
+ * longer than {@value #MAX_OFFSETS_LENGTH} characters are left out and replaced by {@code ...}.
+ */
+public final class ConsumerBatch {
+  static final int MAX_OFFSETS_LENGTH = 1024;
+
+  private static final String TRUNCATED = "...";
+
+  private long recordCount;
+  private long bytes;
+
+  private final StringBuilder offsets = new StringBuilder();
+  private boolean truncated;
+  private String topic;
+  private int partition = -1;
+  private long firstOffset;
+  private long lastOffset;
+
+  public void add(final ConsumerRecord<?, ?> record) {
+    recordCount++;
+    bytes += Math.max(0, record.serializedKeySize()) + Math.max(0, record.serializedValueSize());
+    if (partition != record.partition() || !sameTopic(record.topic())) {
+      appendRange();
+      topic = record.topic();
+      partition = record.partition();
+      firstOffset = record.offset();
+    }
+    lastOffset = record.offset();
+  }
+
+  /** Forgets the records added so far, to aggregate the records of a new batch span. */
+  public void reset() {
+    recordCount = 0;
+    bytes = 0;
+    offsets.setLength(0);
+    truncated = false;
+    topic = null;
+    partition = -1;
+  }
+
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  public long getBytes() {
+    return bytes;
+  }
+
+  public String getOffsets() {
+    appendRange();
+    return offsets.toString();
+  }
+
+  private boolean sameTopic(final String other) {
+    return null == topic ? null == other : topic.equals(other);
+  }
+
+  private void appendRange() {
+    if (partition >= 0 && !truncated) {
+      final int start = offsets.length();
+      if (start > 0) {
+        offsets.append(',');
+      }
+      offsets
+          .append(topic)
+          .append('-')
+          .append(partition)
+          .append(':')
+          .append(firstOffset)
+          .append('-')
+          .append(lastOffset);
+      // leave room to mark the ranges left out
+      if (offsets.length() > MAX_OFFSETS_LENGTH - TRUNCATED.length() - 1) {
+        offsets.setLength(start);
+        if (start > 0) {
+          offsets.append(',');
+        }
+        offsets.append(TRUNCATED);
+        truncated = true;
+      }
+    }
+    partition = -1;
+  }
+}
@@ -1,5 +1,8 @@
 package datadog.trace.instrumentation.kafka_clients;
 
+import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.BATCH_BYTES;
+import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.BATCH_OFFSETS;
+import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.BATCH_RECORD_COUNT;
 import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.OFFSET;
 import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.PARTITION;
 import static datadog.trace.bootstrap.instrumentation.api.InstrumentationTags.RECORD_END_TO_END_DURATION_MS;
@@ -74,17 +77,39 @@ public class KafkaDecorator extends ClientDecorator {
 
   public void onConsume(final AgentSpan span, final ConsumerRecord record) {
     if (record != null) {
-      final String topic = record.topic() == null ? "kafka" : record.topic();
-      span.setResourceName(CONSUMER_RESOURCE_NAME_CACHE.computeIfAbsent(topic, CONSUMER_PREFIX));
+      setConsumerResourceName(span, record);
       span.setTag(PARTITION, record.partition());
       span.setTag(OFFSET, record.offset());
       // TODO - do we really need both? This mechanism already adds a lot of... baggage.
-      // check to not record a duration if the message was sent from an old Kafka client
-      if (record.timestampType() != TimestampType.NO_TIMESTAMP_TYPE) {
-        long consumeTime = NANOSECONDS.toMillis(span.getStartTime());
-        final long produceTime = record.timestamp();
-        span.setTag(RECORD_QUEUE_TIME_MS, Math.max(0L, consumeTime - produceTime));
-      }
+      setQueueTime(span, record);
+    }
+  }
+
+  /** Decorates a span covering a whole batch with its first record. */
+  public void onConsumeBatch(final AgentSpan span, final ConsumerRecord first) {
+    if (first != null) {
+      setConsumerResourceName(span, first);
+      setQueueTime(span, first);
+    }
+  }
+
+  public void onBatchConsumed(final AgentSpan span, final ConsumerBatch batch) {
+    span.setTag(BATCH_RECORD_COUNT, batch.getRecordCount());
+    span.setTag(BATCH_BYTES, batch.getBytes());
+    span.setTag(BATCH_OFFSETS, batch.getOffsets());
+  }
+
+  private static void setConsumerResourceName(final AgentSpan span, final ConsumerRecord record) {
+    final String topic = record.topic() == null ? "kafka" : record.topic();
+    span.setResourceName(CONSUMER_RESOURCE_NAME_CACHE.computeIfAbsent(topic, CONSUMER_PREFIX));
+  }
+
+  private static void setQueueTime(final AgentSpan span, final ConsumerRecord record) {
+    // check to not record a duration if the message was sent from an old Kafka client
+    if (record.timestampType() != TimestampType.NO_TIMESTAMP_TYPE) {
+      long consumeTime = NANOSECONDS.toMillis(span.getStartTime());
+      final long produceTime = record.timestamp();
+      span.setTag(RECORD_QUEUE_TIME_MS, Math.max(0L, consumeTime - produceTime));
     }
   }
 
@@ -23,6 +23,13 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
   private final CharSequence operationName;
   private final KafkaDecorator decorator;
 
+  // aggregates the records under a single span in batch mode, null when each record gets a span
+  private final ConsumerBatch batch;
+
+  // records mostly come from the same topic, the propagation decision is kept for the last one
+  private String lastTopic;
+  private boolean lastTopicPropagated;
+
   /**
    * Note: this may potentially create problems if this iterator is used from different threads. But
    * at the moment we cannot do much about this.
@@ -36,6 +43,7 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
     this.delegateIterator = delegateIterator;
     this.operationName = operationName;
     this.decorator = decorator;
+    this.batch = Config.get().isKafkaClientBatchTracingEnabled() ? new ConsumerBatch() : null;
   }
 
   @Override
@@ -51,7 +59,7 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
 
   @Override
   public ConsumerRecord<?, ?> next() {
-    maybeCloseCurrentScope();
+    maybeCloseRecordScope();
     final ConsumerRecord<?, ?> next = delegateIterator.next();
     decorate(next);
     return next;
@@ -59,30 +67,60 @@ public class TracingIterator implements Iterator<ConsumerRecord<?, ?>> {
 
   protected void decorate(ConsumerRecord<?, ?> val) {
     try {
-      final AgentSpan span;
       if (val != null) {
-        if (!Config.get().isKafkaClientPropagationDisabledForTopic(val.topic())) {
-          final Context spanContext = propagate().extract(val.headers(), GETTER);
-          span = startSpan(operationName, spanContext);
+        if (null == batch) {
+          final AgentSpan span = startSpan(operationName, extractContext(val));
+          if (val.value() == null) {
+            span.setTag(InstrumentationTags.TOMBSTONE, true);
+          }
+          decorator.afterStart(span);
+          decorator.onConsume(span, val);
+          activate(span);
         } else {
-          span = startSpan(operationName, null);
+          if (currentScope == null) {
+            // e.g. iterating again with previous() once exhausted starts a new batch span
+            batch.reset();
+            // the batch continues the trace of its first record, the others aren't extracted
+            final AgentSpan span = startSpan(operationName, extractContext(val));
+            decorator.afterStart(span);
+            decorator.onConsumeBatch(span, val);
+            activate(span);
+          }
+          batch.add(val);
         }
-        if (val.value() == null) {
-          span.setTag(InstrumentationTags.TOMBSTONE, true);
-        }
-        decorator.afterStart(span);
-        decorator.onConsume(span, val);
-        currentScope = activateSpan(span);
-        currentScope.setAsyncPropagation(true);
       }
     } catch (final Exception e) {
       log.debug("Error during decoration", e);
     }
   }
 
+  private Context extractContext(final ConsumerRecord<?, ?> val) {
+    final String topic = val.topic();
+    if (null == topic || !topic.equals(lastTopic)) {
+      lastTopicPropagated = !Config.get().isKafkaClientPropagationDisabledForTopic(topic);
+      lastTopic = topic;
+    }
+    return lastTopicPropagated ? propagate().extract(val.headers(), GETTER) : null;
+  }
+
+  private void activate(final AgentSpan span) {
+    currentScope = activateSpan(span);
+    currentScope.setAsyncPropagation(true);
+  }
+
+  /** Closes the scope of the previous record, unless the records share the span of the batch. */
+  protected void maybeCloseRecordScope() {
+    if (null == batch) {
+      maybeCloseCurrentScope();
+    }
+  }
+
   protected void maybeCloseCurrentScope() {
     if (currentScope != null) {
       currentScope.close();
+      if (null != batch) {
+        decorator.onBatchConsumed(currentScope.span(), batch);
+      }
       decorator.finishConsumerSpan(currentScope.span());
       currentScope = null;
     }
@@ -30,7 +30,7 @@ public class TracingListIterator extends TracingIterator
 
   @Override
   public ConsumerRecord<?, ?> previous() {
-    maybeCloseCurrentScope();
+    maybeCloseRecordScope();
     final ConsumerRecord<?, ?> prev = delegateIterator.previous();
     decorate(prev);
     return prev;
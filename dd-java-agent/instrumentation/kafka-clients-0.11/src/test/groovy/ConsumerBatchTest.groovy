@@ -0,0 +1,57 @@
+import datadog.trace.agent.test.AgentTestRunner
+import datadog.trace.instrumentation.kafka_clients.ConsumerBatch
+import org.apache.kafka.clients.consumer.ConsumerRecord
+
+class ConsumerBatchTest extends AgentTestRunner {
+
+  def "offset ranges are aggregated per partition"() {
+    setup:
+    def batch = new ConsumerBatch()
+
+    when:
+    [record("topic", 0, 10), record("topic", 0, 11), record("topic", 1, 5), record("other", 1, 7)].each {
+      batch.add(it)
+    }
+
+    then:
+    batch.recordCount == 4
+    batch.offsets == "topic-0:10-11,topic-1:5-5,other-1:7-7"
+  }
+
+  def "reset forgets the records of the previous batch"() {
+    setup:
+    def batch = new ConsumerBatch()
+    batch.add(record("topic", 0, 10))
+    batch.add(record("topic", 0, 11))
+    batch.offsets
+
+    when:
+    batch.reset()
+    batch.add(record("topic", 1, 3))
+
+    then:
+    batch.recordCount == 1
+    batch.offsets == "topic-1:3-3"
+  }
+
+  def "offsets are capped"() {
+    setup:
+    def batch = new ConsumerBatch()
+
+    when:
+    for (int partition = 0; partition < 1000; partition++) {
+      batch.add(record("topic", partition, 1000))
+    }
+    def offsets = batch.offsets
+
+    then:
+    batch.recordCount == 1000
+    offsets.length() <= ConsumerBatch.MAX_OFFSETS_LENGTH
+    offsets.startsWith("topic-0:1000-1000,topic-1:1000-1000,")
+    offsets.endsWith(",...")
+  }
+
+  def record(String topic, int partition, long offset) {
+    return new ConsumerRecord<String, String>(topic, partition, offset, null, "value")
+  }
+}
@@ -449,6 +449,105 @@ class KafkaClientTest extends AgentTestRunner {
 
   }
 
+  def "test batch tracing kafka consume"() {
+    setup:
+    injectSysConfig(TraceInstrumentationConfig.KAFKA_CLIENT_BATCH_TRACING_ENABLED, "true")
+    def kafkaPartition = 0
+    def consumerProperties = KafkaTestUtils.consumerProps("sender", "false", embeddedKafka)
+    consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest")
+    def consumer = new KafkaConsumer<String, String>(consumerProperties)
+
+    def senderProps = KafkaTestUtils.senderProps(embeddedKafka.getBrokersAsString())
+    def producer = new KafkaProducer(senderProps)
+
+    consumer.assign(Arrays.asList(new TopicPartition(SHARED_TOPIC, kafkaPartition)))
+
+    when:
+    def greetings = ["Hello 0", "Hello 1", "Hello 2"]
+    for (String greeting : greetings) {
+      producer.send(new ProducerRecord<Integer, String>(SHARED_TOPIC, kafkaPartition, null, greeting)).get()
+    }
+    TEST_WRITER.waitForTraces(3)
+    def pollResult = KafkaTestUtils.getRecords(consumer)
+    def received = []
+    def recs = pollResult.iterator()
+    while (recs.hasNext()) {
+      received.add(recs.next().value())
+    }
+    TEST_WRITER.waitForTraces(4)
+    def consumerSpans = TEST_WRITER.flatten().findAll {
+      it.operationName.toString() == "kafka.consume"
+    }
+
+    then:
+    received == greetings
+    consumerSpans.size() == 1
+    def span = consumerSpans[0]
+    span.resourceName.toString() == "Consume Topic $SHARED_TOPIC"
+    span.getTag(InstrumentationTags.BATCH_RECORD_COUNT) == 3
+    span.getTag(InstrumentationTags.BATCH_BYTES) == greetings.sum { it.length() }
+    span.getTag(InstrumentationTags.BATCH_OFFSETS) == "$SHARED_TOPIC-$kafkaPartition:0-2".toString()
+    span.getTag(InstrumentationTags.OFFSET) == null
+    span.getTag(InstrumentationTags.RECORD_QUEUE_TIME_MS) >= 0
+    // the batch continues the trace of its first record
+    span.traceId == TEST_WRITER.flatten().find {
+      it.operationName.toString() == "kafka.produce"
+    }.traceId
+
+    cleanup:
+    consumer.close()
+    producer.close()
+  }
+
+  def "test batch tracing iteration backwards over ConsumerRecords"() {
+    setup:
+    injectSysConfig(TraceInstrumentationConfig.KAFKA_CLIENT_BATCH_TRACING_ENABLED, "true")
+    def kafkaPartition = 0
+    def consumerProperties = KafkaTestUtils.consumerProps("sender", "false", embeddedKafka)
+    consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest")
+    def consumer = new KafkaConsumer<String, String>(consumerProperties)
+
+    def senderProps = KafkaTestUtils.senderProps(embeddedKafka.getBrokersAsString())
+    def producer = new KafkaProducer(senderProps)
+
+    consumer.assign(Arrays.asList(new TopicPartition(SHARED_TOPIC, kafkaPartition)))
+
+    when:
+    def greetings = ["msg 1", "msg 2", "msg 3"]
+    for (String greeting : greetings) {
+      producer.send(new ProducerRecord<Integer, String>(SHARED_TOPIC, kafkaPartition, null, greeting)).get()
+    }
+    TEST_WRITER.waitForTraces(3)
+    def pollRecords = KafkaTestUtils.getRecords(consumer)
+    def listIter =
+      pollRecords.records(new TopicPartition(SHARED_TOPIC, kafkaPartition)).listIterator()
+    def offsets = []
+    while (listIter.hasNext()) {
+      offsets.add(listIter.next().offset())
+    }
+    // iterating again once exhausted starts a new batch
+    def received = []
+    while (listIter.hasPrevious()) {
+      received.add(listIter.previous().value())
+    }
+    TEST_WRITER.waitForTraces(5)
+    def consumerSpans = TEST_WRITER.flatten().findAll {
+      it.operationName.toString() == "kafka.consume"
+    }.sort { it.startTime }
+
+    then:
+    received == greetings.reverse()
+    consumerSpans.size() == 2
+    consumerSpans.every { it.getTag(InstrumentationTags.BATCH_RECORD_COUNT) == 3 }
+    consumerSpans.every { it.getTag(InstrumentationTags.BATCH_BYTES) == greetings.sum { it.length() } }
+    consumerSpans[0].getTag(InstrumentationTags.BATCH_OFFSETS) == "$SHARED_TOPIC-$kafkaPartition:${offsets.first()}-${offsets.last()}".toString()
+    consumerSpans[1].getTag(InstrumentationTags.BATCH_OFFSETS) == "$SHARED_TOPIC-$kafkaPartition:${offsets.last()}-${offsets.first()}".toString()
+
+    cleanup:
+    consumer.close()
+    producer.close()
+  }
+
   def "test records(TopicPartition).subList kafka consume"() {
     setup:
     // set up the Kafka consumer properties
@@ -2,17 +2,33 @@ package datadog.trace.instrumentation.log4j2;
 
 import static datadog.trace.agent.tooling.ClassLoaderMatcher.hasClassesNamed;
 import static datadog.trace.agent.tooling.bytebuddy.matcher.NameMatchers.named;
-import static net.bytebuddy.matcher.ElementMatchers.isTypeInitializer;
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activeSpan;
+import static net.bytebuddy.matcher.ElementMatchers.isMethod;
+import static net.bytebuddy.matcher.ElementMatchers.isStatic;
 import static net.bytebuddy.matcher.ElementMatchers.not;
+import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
+import static net.bytebuddy.matcher.ElementMatchers.takesArguments;
 
 import com.google.auto.service.AutoService;
 import datadog.trace.agent.tooling.Instrumenter;
 import datadog.trace.api.Config;
-import datadog.trace.api.WithGlobalTracer;
+import datadog.trace.api.CorrelationIdentifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 
+/**
+ * Adds the trace and span ids of the active span to what is read from the ThreadContext, rather
+ * than updating the ThreadContext every time a scope is activated or closed. Log events copy the
+ * context with {@code getImmutableContext()} when they're created.
+ *
+ * <p>The ids always come from the active span, and are absent when there is none, even if the
+ * application put values with the same keys in the context. A context copied with {@code
+ * getContext()} doesn't get the ids, so restoring the copy later can't bring back stale ids.
+ */
 @AutoService(Instrumenter.class)
 public class ThreadContextInstrumentation extends Instrumenter.Tracing {
   private static final String TYPE_NAME = "org.apache.logging.log4j.ThreadContext";
@@ -40,21 +56,71 @@ public class ThreadContextInstrumentation extends Instrumenter.Tracing {
   @Override
   public void adviceTransformations(AdviceTransformation transformation) {
     transformation.applyAdvice(
-        isTypeInitializer(), ThreadContextInstrumentation.class.getName() + "$ThreadContextAdvice");
+        isMethod()
+            .and(isStatic())
+            .and(named("get"))
+            .and(takesArguments(1))
+            .and(takesArgument(0, String.class)),
+        ThreadContextInstrumentation.class.getName() + "$GetAdvice");
+    transformation.applyAdvice(
+        isMethod()
+            .and(isStatic())
+            .and(named("containsKey"))
+            .and(takesArguments(1))
+            .and(takesArgument(0, String.class)),
+        ThreadContextInstrumentation.class.getName() + "$ContainsKeyAdvice");
+    transformation.applyAdvice(
+        isMethod().and(isStatic()).and(named("getImmutableContext")).and(takesArguments(0)),
+        ThreadContextInstrumentation.class.getName() + "$GetImmutableContextAdvice");
   }
 
-  @Override
-  public String[] helperClassNames() {
-    return new String[] {
-      "datadog.trace.agent.tooling.log.LogContextScopeListener",
-      "datadog.trace.instrumentation.log4j2.ThreadContextUpdater"
-    };
+  public static class GetAdvice {
+    @Advice.OnMethodExit(suppress = Throwable.class)
+    public static void getValue(
+        @Advice.Argument(0) final String key,
+        @Advice.Return(readOnly = false) String value) {
+      if (key == null) {
+        return;
+      }
+      if (key.equals(CorrelationIdentifier.getTraceIdKey())) {
+        value = activeSpan() != null ? CorrelationIdentifier.getTraceId() : null;
+      } else if (key.equals(CorrelationIdentifier.getSpanIdKey())) {
+        value = activeSpan() != null ? CorrelationIdentifier.getSpanId() : null;
+      }
+    }
+  }
+
+  public static class ContainsKeyAdvice {
+    @Advice.OnMethodExit(suppress = Throwable.class)
+    public static void containsKey(
+        @Advice.Argument(0) final String key,
+        @Advice.Return(readOnly = false) boolean contains) {
+      if (CorrelationIdentifier.getTraceIdKey().equals(key)
+          || CorrelationIdentifier.getSpanIdKey().equals(key)) {
+        contains = activeSpan() != null;
+      }
+    }
   }
 
-  public static class ThreadContextAdvice {
+  public static class GetImmutableContextAdvice {
     @Advice.OnMethodExit(suppress = Throwable.class)
-    public static void mdcClassInitialized() {
-      WithGlobalTracer.registerOrExecute(new ThreadContextUpdater());
+    public static void getImmutableContext(
+        @Advice.Return(readOnly = false) Map<String, String> context) {
+      if (context == null) {
+        return;
+      }
+      if (activeSpan() != null) {
+        Map<String, String> withIds = new HashMap<>(context);
+        withIds.put(CorrelationIdentifier.getTraceIdKey(), CorrelationIdentifier.getTraceId());
+        withIds.put(CorrelationIdentifier.getSpanIdKey(), CorrelationIdentifier.getSpanId());
+        context = Collections.unmodifiableMap(withIds);
+      } else if (context.containsKey(CorrelationIdentifier.getTraceIdKey())
+          || context.containsKey(CorrelationIdentifier.getSpanIdKey())) {
+        Map<String, String> withoutIds = new HashMap<>(context);
+        withoutIds.remove(CorrelationIdentifier.getTraceIdKey());
+        withoutIds.remove(CorrelationIdentifier.getSpanIdKey());
+        context = Collections.unmodifiableMap(withoutIds);
+      }
     }
   }
 }
@@ -1,6 +1,10 @@
 import datadog.trace.agent.test.log.injection.LogContextInjectionTestBase
+import datadog.trace.api.CorrelationIdentifier
 import org.apache.logging.log4j.ThreadContext
 
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.activateSpan
+import static datadog.trace.bootstrap.instrumentation.api.AgentTracer.startSpan
+
 class Log4jThreadContextTest extends LogContextInjectionTestBase {
 
   @Override
@@ -27,4 +31,69 @@ class Log4jThreadContextTest extends LogContextInjectionTestBase {
   Map<String, Object> getMap() {
     return ThreadContext.getImmutableContext()
   }
+
+  def "ids of the active span take priority over values put in the context"() {
+    setup:
+    def traceIdKey = CorrelationIdentifier.getTraceIdKey()
+    def spanIdKey = CorrelationIdentifier.getSpanIdKey()
+    ThreadContext.put(traceIdKey, "1234")
+    ThreadContext.put(spanIdKey, "5678")
+
+    when:
+    def span = startSpan("root")
+    def scope = activateSpan(span)
+
+    then:
+    ThreadContext.get(traceIdKey) == CorrelationIdentifier.getTraceId()
+    ThreadContext.get(spanIdKey) == CorrelationIdentifier.getSpanId()
+    ThreadContext.getImmutableContext()[traceIdKey] == CorrelationIdentifier.getTraceId()
+    ThreadContext.getImmutableContext()[spanIdKey] == CorrelationIdentifier.getSpanId()
+
+    when:
+    scope.close()
+    span.finish()
+
+    then:
+    ThreadContext.get(traceIdKey) == null
+    ThreadContext.get(spanIdKey) == null
+    !ThreadContext.containsKey(traceIdKey)
+    !ThreadContext.getImmutableContext().containsKey(traceIdKey)
+    !ThreadContext.getImmutableContext().containsKey(spanIdKey)
+
+    cleanup:
+    ThreadContext.clearAll()
+  }
+
+  def "restoring a copy of the context doesn't bring back stale ids"() {
+    setup:
+    def traceIdKey = CorrelationIdentifier.getTraceIdKey()
+    def spanIdKey = CorrelationIdentifier.getSpanIdKey()
+    ThreadContext.clearAll()
+    ThreadContext.put("foo", "bar")
+    def firstSpan = startSpan("first")
+    def firstScope = activateSpan(firstSpan)
+    def firstTraceId = CorrelationIdentifier.getTraceId()
+
+    when:
+    def copy = ThreadContext.getContext()
+    firstScope.close()
+    firstSpan.finish()
+    ThreadContext.clearMap()
+    copy.each { key, value -> ThreadContext.put(key, value) }
+    def secondSpan = startSpan("second")
+    def secondScope = activateSpan(secondSpan)
+
+    then:
+    copy == [foo: "bar"]
+    ThreadContext.get("foo") == "bar"
+    ThreadContext.get(traceIdKey) == CorrelationIdentifier.getTraceId()
+    ThreadContext.get(traceIdKey) != firstTraceId
+    ThreadContext.getImmutableContext()[traceIdKey] == CorrelationIdentifier.getTraceId()
+    ThreadContext.getImmutableContext()[spanIdKey] == CorrelationIdentifier.getSpanId()
+
+    cleanup:
+    secondScope?.close()
+    secondSpan?.finish()
+    ThreadContext.clearAll()
+  }
 }
@@ -17,6 +17,35 @@ public enum IdGenerationStrategy {
     public DDId generate() {
       return DDId.from(id.incrementAndGet());
     }
+  },
+  /**
+   * Sequential ids, where each thread reserves a block of ids at a time so that threads don't
+   * contend on a shared counter. The ids are unique, and increasing on each thread, but not ordered
+   * across threads.
+   */
+  SEQUENTIAL_BLOCKS {
+    private static final int BLOCK_SIZE = 1024;
+
+    private final AtomicLong blocks = new AtomicLong(0);
+    private final ThreadLocal<long[]> block =
+        new ThreadLocal<long[]>() {
+          @Override
+          protected long[] initialValue() {
+            // next and limit, the block is empty until the first id is generated
+            return new long[2];
+          }
+        };
+
+    @Override
+    public DDId generate() {
+      long[] range = block.get();
+      if (range[0] == range[1]) {
+        long start = blocks.getAndAdd(BLOCK_SIZE);
+        range[0] = start + 1;
+        range[1] = start + BLOCK_SIZE + 1;
+      }
+      return DDId.from(range[0]++);
+    }
   };
 
   public abstract DDId generate();
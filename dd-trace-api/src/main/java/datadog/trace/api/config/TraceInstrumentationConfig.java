@@ -47,6 +47,8 @@ public final class TraceInstrumentationConfig {
       "kafka.client.propagation.disabled.topics";
   public static final String KAFKA_CLIENT_BASE64_DECODING_ENABLED =
       "kafka.client.base64.decoding.enabled";
+  public static final String KAFKA_CLIENT_BATCH_TRACING_ENABLED =
+      "kafka.client.batch.tracing.enabled";
 
   public static final String JMS_PROPAGATION_ENABLED = "jms.propagation.enabled";
   public static final String JMS_PROPAGATION_DISABLED_TOPICS = "jms.propagation.disabled.topics";
@@ -79,6 +81,8 @@ public final class TraceInstrumentationConfig {
   public static final String TEMP_JARS_CLEAN_ON_BOOT = "temp.jars.clean.on.boot";
 
   public static final String RESOLVER_USE_LOADCLASS = "resolver.use.loadclass";
+  public static final String RESOLVER_CACHE_DIR = "resolver.cache.dir";
+  public static final String RESOLVER_PRESCAN_ENABLED = "resolver.prescan.enabled";
 
   private TraceInstrumentationConfig() {}
 }
@@ -124,6 +124,21 @@ class DDIdTest extends DDSpecification {
     idGenerator << IdGenerationStrategy.values()
   }
 
+  def "sequential blocks of ids are unique across threads"() {
+    when:
+    List<List<DDId>> ids = Collections.synchronizedList([])
+    List<Thread> threads = (1..4).collect {
+      Thread.start {
+        ids.add((1..3000).collect { IdGenerationStrategy.SEQUENTIAL_BLOCKS.generate() })
+      }
+    }
+    threads*.join()
+
+    then:
+    ids.flatten().toSet().size() == 4 * 3000
+    ids.every { it == it.toSorted { a, b -> Long.compare(a.toLong(), b.toLong()) } }
+  }
+
   def "convert ids from/to hex String while keeping the original"() {
     when:
     final ddid = DDId.fromHexWithOriginal(hexId)
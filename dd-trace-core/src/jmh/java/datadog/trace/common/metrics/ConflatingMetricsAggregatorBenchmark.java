@@ -0,0 +1,145 @@
+package datadog.trace.common.metrics;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
+import datadog.communication.monitor.Monitoring;
+import datadog.trace.api.WellKnownTags;
+import datadog.trace.common.writer.LoggingWriter;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput of {@link ConflatingMetricsAggregator#publish(List)} as the number of
+ * publishing threads grows, with a single aggregator thread or several aggregator shards.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 1)
+public class ConflatingMetricsAggregatorBenchmark {
+
+  private static final CoreTracer tracer =
+      CoreTracer.builder().writer(new LoggingWriter()).strictTraceWrites(true).build();
+
+  @Param({"1", "4", "8"})
+  int shards;
+
+  @Param({"64", "1024"})
+  int cardinality;
+
+  private ConflatingMetricsAggregator aggregator;
+  private List<List<DDSpan>> traces;
+
+  @Setup(Level.Trial)
+  public void init() {
+    aggregator =
+        new ConflatingMetricsAggregator(
+            new WellKnownTags("runtimeid", "hostname", "env", "service", "version"),
+            Collections.<String>emptySet(),
+            new FixedAgentFeaturesDiscovery(),
+            new NullSink(),
+            2048,
+            2048,
+            shards);
+    aggregator.start();
+    traces = new ArrayList<>(cardinality);
+    for (int i = 0; i < cardinality; ++i) {
+      traces.add(Collections.singletonList(createSpan(i)));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    aggregator.close();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public boolean publish1() {
+    return publish();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean publish4() {
+    return publish();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public boolean publish16() {
+    return publish();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public boolean publish64() {
+    return publish();
+  }
+
+  private boolean publish() {
+    return aggregator.publish(traces.get(ThreadLocalRandom.current().nextInt(cardinality)));
+  }
+
+  private static DDSpan createSpan(int i) {
+    return (DDSpan)
+        tracer
+            .buildSpan("operation")
+            .withServiceName("service" + (i & 7))
+            .withResourceName("resource" + i)
+            .withSpanType("type")
+            .start();
+  }
+
+  private static final class FixedAgentFeaturesDiscovery extends DDAgentFeaturesDiscovery {
+    FixedAgentFeaturesDiscovery() {
+      super(
+          new OkHttpClient(),
+          Monitoring.DISABLED,
+          HttpUrl.parse("http://localhost:8126"),
+          true,
+          true);
+    }
+
+    @Override
+    public void discover() {}
+
+    @Override
+    public boolean supportsMetrics() {
+      return true;
+    }
+  }
+
+  private static final class NullSink implements Sink {
+    @Override
+    public void register(EventListener listener) {}
+
+    @Override
+    public void accept(int messageCount, ByteBuffer buffer) {}
+  }
+}
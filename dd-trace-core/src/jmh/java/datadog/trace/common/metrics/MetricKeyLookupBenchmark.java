@@ -0,0 +1,83 @@
+package datadog.trace.common.metrics;
+
+import static datadog.trace.api.Functions.UTF8_ENCODE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
+import org.jctools.maps.NonBlockingHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares finding an existing {@link MetricKey} by constructing a new key against finding it with
+ * a {@link MetricKeyProbe}. Run with {@code -prof gc} to report the allocation rate; the probe
+ * lookup should show a {@code gc.alloc.rate.norm} of zero.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class MetricKeyLookupBenchmark {
+
+  private static final DDCache<String, UTF8BytesString> SERVICE_NAMES =
+      DDCaches.newFixedSizeCache(32);
+
+  @Param({"16", "1024"})
+  int cardinality;
+
+  private final NonBlockingHashMap<MetricKey, MetricKey> keys = new NonBlockingHashMap<>();
+  private final MetricKeyProbe probe = new MetricKeyProbe();
+  private String[] resources;
+  private int index;
+
+  @Setup(Level.Trial)
+  public void init() {
+    resources = new String[cardinality];
+    for (int i = 0; i < cardinality; ++i) {
+      resources[i] = "GET /api/v1/resource/" + i;
+      MetricKey key = new MetricKey(resources[i], "service", "servlet.request", "web", 200);
+      keys.put(key, key);
+    }
+  }
+
+  @Benchmark
+  public MetricKey lookupWithNewKey() {
+    MetricKey newKey =
+        new MetricKey(
+            nextResource(),
+            SERVICE_NAMES.computeIfAbsent("service", UTF8_ENCODE),
+            "servlet.request",
+            "web",
+            200);
+    MetricKey key = keys.putIfAbsent(newKey, newKey);
+    return null == key ? newKey : key;
+  }
+
+  @Benchmark
+  public MetricKey lookupWithProbe() {
+    MetricKey key = keys.get(probe.set(nextResource(), "service", "servlet.request", "web", 200));
+    probe.clear();
+    return key;
+  }
+
+  private String nextResource() {
+    String resource = resources[index];
+    index = (index + 1) % cardinality;
+    return resource;
+  }
+}
@@ -0,0 +1,96 @@
+package datadog.trace.common.sampling;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.common.writer.LoggingWriter;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures choosing the sampling rule for root spans, with rule sets made of plain names, names
+ * with leading or trailing wildcards, and general regular expressions. Most of the spans match
+ * none of the rules, which is the worst case since every rule has to be tried.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class RuleBasedSamplerBenchmark {
+
+  @Param({"literal", "wildcard", "regex"})
+  String ruleSet;
+
+  @Param({"5", "25"})
+  int ruleCount;
+
+  private CoreTracer tracer;
+  private RuleBasedSampler<DDSpan> sampler;
+  private DDSpan[] spans;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void init() {
+    Map<String, String> serviceRules = new LinkedHashMap<>();
+    Map<String, String> operationRules = new LinkedHashMap<>();
+    for (int i = 0; i < ruleCount; ++i) {
+      String service = "service-" + i;
+      String operation = "operation." + i;
+      switch (ruleSet) {
+        case "literal":
+          serviceRules.put(service, "0.5");
+          operationRules.put(operation.replace(".", "\\."), "0.5");
+          break;
+        case "wildcard":
+          serviceRules.put(service + ".*", "0.5");
+          operationRules.put(".*\\." + i, "0.5");
+          break;
+        default:
+          serviceRules.put("service-[0-9]*" + i + "(-canary)?", "0.5");
+          operationRules.put("(operation|handler)\\." + i, "0.5");
+      }
+    }
+    tracer = CoreTracer.builder().writer(new LoggingWriter()).strictTraceWrites(true).build();
+    sampler = RuleBasedSampler.build(serviceRules, operationRules, null, 1000);
+    spans = new DDSpan[64];
+    for (int i = 0; i < spans.length; ++i) {
+      // one in four spans matches a rule
+      spans[i] =
+          (DDSpan)
+              tracer
+                  .buildSpan((i & 3) == 0 ? "operation." + (i % ruleCount) : "servlet.request")
+                  .withServiceName("app-" + i)
+                  .ignoreActiveSpan()
+                  .start();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    tracer.close();
+  }
+
+  @Benchmark
+  public DDSpan setSamplingPriority() {
+    DDSpan span = spans[next++ & (spans.length - 1)];
+    sampler.setSamplingPriority(span);
+    return span;
+  }
+}
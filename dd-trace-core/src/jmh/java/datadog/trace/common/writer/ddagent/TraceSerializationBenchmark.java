@@ -0,0 +1,192 @@
+package datadog.trace.common.writer.ddagent;
+
+import static datadog.trace.api.sampling.PrioritySampling.USER_KEEP;
+import static datadog.trace.common.writer.ddagent.Prioritization.FAST_LANE;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
+import datadog.communication.ddagent.DroppingPolicy;
+import datadog.communication.monitor.Monitoring;
+import datadog.trace.api.StatsDClient;
+import datadog.trace.common.writer.LoggingWriter;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.DDSpan;
+import datadog.trace.core.monitor.HealthMetrics;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many traces per second the {@link TraceProcessingWorker} can serialize and send as
+ * the number of serializer threads grows. The benchmark thread keeps retrying until each trace is
+ * accepted, so the throughput is bounded by how fast the queues are drained rather than by
+ * dropping. Payloads are sent over HTTP to a local stand-in for the agent which discards them.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MICROSECONDS)
+@Fork(value = 1)
+public class TraceSerializationBenchmark {
+
+  private static final int TRACE_COUNT = 1024;
+
+  private static final CoreTracer tracer =
+      CoreTracer.builder().writer(new LoggingWriter()).strictTraceWrites(true).build();
+
+  @Param({"1", "2", "4", "8"})
+  int serializers;
+
+  @Param({"v0.4/traces", "v0.5/traces"})
+  String endpoint;
+
+  private HttpServer agent;
+  private TraceProcessingWorker worker;
+  private List<List<DDSpan>> traces;
+
+  @Setup(Level.Trial)
+  public void init() throws IOException {
+    agent = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    agent.createContext("/", new DiscardingHandler());
+    agent.setExecutor(Executors.newCachedThreadPool());
+    agent.start();
+    DDAgentFeaturesDiscovery discovery =
+        new FixedAgentFeaturesDiscovery(agent.getAddress().getPort(), endpoint);
+    DDAgentApi api =
+        new DDAgentApi(
+            new OkHttpClient(),
+            HttpUrl.parse("http://localhost:" + agent.getAddress().getPort()),
+            discovery,
+            Monitoring.DISABLED,
+            false);
+    HealthMetrics healthMetrics = new HealthMetrics(StatsDClient.NO_OP);
+    worker =
+        new TraceProcessingWorker(
+            TRACE_COUNT,
+            healthMetrics,
+            new PayloadDispatcher(discovery, api, healthMetrics, Monitoring.DISABLED),
+            new DroppingPolicy() {
+              @Override
+              public boolean active() {
+                return false;
+              }
+            },
+            FAST_LANE,
+            1,
+            SECONDS,
+            serializers);
+    worker.start();
+    traces = new ArrayList<>(TRACE_COUNT);
+    for (int i = 0; i < TRACE_COUNT; ++i) {
+      traces.add(createTrace(i));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    worker.flush(10, SECONDS);
+    worker.close();
+    agent.stop(0);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TRACE_COUNT)
+  public void serialize() {
+    for (List<DDSpan> trace : traces) {
+      while (!worker.publish(trace.get(0), USER_KEEP, trace)) {
+        Thread.yield();
+      }
+    }
+  }
+
+  private static List<DDSpan> createTrace(int i) {
+    DDSpan root =
+        (DDSpan)
+            tracer
+                .buildSpan("servlet.request")
+                .withServiceName("service")
+                .withResourceName("GET /resource/" + (i & 63))
+                .withSpanType("web")
+                .withTag("http.url", "http://localhost/resource/" + i)
+                .withTag("http.status_code", 200)
+                .start();
+    List<DDSpan> trace = new ArrayList<>();
+    trace.add(root);
+    for (int j = 0; j < 8; ++j) {
+      trace.add(
+          (DDSpan)
+              tracer
+                  .buildSpan("database.query")
+                  .asChildOf(root.context())
+                  .withServiceName("database")
+                  .withResourceName("SELECT * FROM table WHERE id = ?")
+                  .withSpanType("sql")
+                  .withTag("db.instance", "db" + j)
+                  .start());
+    }
+    return trace;
+  }
+
+  private static final class DiscardingHandler implements HttpHandler {
+    private final byte[] ok = "OK".getBytes();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      byte[] buffer = new byte[8192];
+      try (InputStream body = exchange.getRequestBody()) {
+        while (body.read(buffer) != -1) {}
+      }
+      exchange.sendResponseHeaders(200, ok.length);
+      try (OutputStream response = exchange.getResponseBody()) {
+        response.write(ok);
+      }
+    }
+  }
+
+  private static final class FixedAgentFeaturesDiscovery extends DDAgentFeaturesDiscovery {
+    private final String endpoint;
+
+    FixedAgentFeaturesDiscovery(int port, String endpoint) {
+      super(
+          new OkHttpClient(),
+          Monitoring.DISABLED,
+          HttpUrl.parse("http://localhost:" + port),
+          true,
+          false);
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public void discover() {}
+
+    @Override
+    public String getTraceEndpoint() {
+      return endpoint;
+    }
+  }
+}
@@ -75,9 +75,26 @@ public class PendingTraceWrite {
                 null));
   }
 
+  @Threads(1)
+  @Benchmark
+  public void writeTracesSingleThread() {
+    registerAndFinishSpans();
+  }
+
   @Threads(4)
   @Benchmark
   public void writeTraces() {
+    registerAndFinishSpans();
+  }
+
+  /** Many executor threads finishing the spans of the same trace concurrently. */
+  @Threads(16)
+  @Benchmark
+  public void writeTracesFanOut() {
+    registerAndFinishSpans();
+  }
+
+  private void registerAndFinishSpans() {
     trace.registerSpan(root);
     for (int i = 0; i < depthPerThread; ++i) {
       trace.registerSpan(span);
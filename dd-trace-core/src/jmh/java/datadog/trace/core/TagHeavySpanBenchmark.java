@@ -0,0 +1,124 @@
+package datadog.trace.core;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.DDId;
+import datadog.trace.common.writer.LoggingWriter;
+import java.util.Collections;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures tagging spans with many tags, iterating over the tags the way the trace mappers do, and
+ * tagging a single span from several threads. Run with {@code -prof gc} to compare allocation per
+ * span.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class TagHeavySpanBenchmark {
+
+  private static final CoreTracer tracer =
+      CoreTracer.builder().writer(new LoggingWriter()).strictTraceWrites(true).build();
+
+  @Param({"8", "32"})
+  int tagCount;
+
+  private String[] keys;
+  private String[] values;
+  private DDSpanContext shared;
+
+  @Setup(Level.Trial)
+  public void init() {
+    keys = new String[tagCount];
+    values = new String[tagCount];
+    for (int i = 0; i < tagCount; ++i) {
+      keys[i] = ("tag.key." + i).intern();
+      values[i] = "value-" + i;
+    }
+    shared = createContext();
+  }
+
+  @Benchmark
+  public DDSpanContext tagNewSpan() {
+    DDSpanContext context = createContext();
+    for (int i = 0; i < tagCount; ++i) {
+      context.setTag(keys[i], values[i]);
+      context.setMetric(keys[i], i);
+    }
+    return context;
+  }
+
+  @Benchmark
+  public DDSpanContext metricNewSpan() {
+    DDSpanContext context = createContext();
+    for (int i = 0; i < tagCount; ++i) {
+      context.setMetric(keys[i], 1000L * i);
+      context.setMetric(keys[i], 0.5 * i);
+    }
+    return context;
+  }
+
+  @Benchmark
+  public void tagAndSerializeNewSpan(final Blackhole blackhole) {
+    DDSpanContext context = createContext();
+    for (int i = 0; i < tagCount; ++i) {
+      context.setTag(keys[i], values[i]);
+    }
+    context.processTagsAndBaggage(
+        new MetadataConsumer() {
+          @Override
+          public void accept(Metadata metadata) {
+            for (Map.Entry<String, Object> tag : metadata.getTags().entrySet()) {
+              blackhole.consume(tag.getKey());
+              blackhole.consume(tag.getValue());
+            }
+          }
+        });
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void tagSharedSpan() {
+    for (int i = 0; i < tagCount; ++i) {
+      shared.setTag(keys[i], values[i]);
+    }
+  }
+
+  private static DDSpanContext createContext() {
+    DDId traceId = DDId.from(1);
+    return new DDSpanContext(
+        traceId,
+        DDId.from(2),
+        DDId.ZERO,
+        null,
+        "service",
+        "operation",
+        "resource",
+        1,
+        null,
+        Collections.<String, String>emptyMap(),
+        false,
+        "type",
+        0,
+        tracer.createTrace(traceId),
+        null);
+  }
+}
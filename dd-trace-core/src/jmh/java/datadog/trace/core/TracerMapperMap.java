@@ -85,6 +85,19 @@ public class TracerMapperMap {
     mapperV5.map(enrichedSpansWithOrigin, writer);
   }
 
+  /** Starts a new payload each time, so every string has to be added to the dictionary again. */
+  @Benchmark
+  public void mapTracesV5NewPayload() {
+    mapperV5.map(spans, writer);
+    mapperV5.reset();
+  }
+
+  @Benchmark
+  public void mapEnrichedTracesV5NewPayload() {
+    mapperV5.map(enrichedSpans, writer);
+    mapperV5.reset();
+  }
+
   private DDSpan createEnrichedSpanWithOrigin(int iter, final String origin) {
     final DDSpan span = createSpanWithOrigin(iter, origin);
     span.setTag("some-tag-key", "some-tag-value");
@@ -0,0 +1,126 @@
+package datadog.trace.core.propagation;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures extracting the context from the headers of a request with 30 headers, typical of a
+ * browser request which has passed through a load balancer, with and without a tagged header. Run
+ * with {@code -prof gc} to see the allocation per request.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 10, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class HeaderExtractionBenchmark {
+
+  private static final String[][] COMMON_HEADERS = {
+    {"Host", "www.example.com"},
+    {"Connection", "keep-alive"},
+    {"Cache-Control", "max-age=0"},
+    {"sec-ch-ua", "\" Not A;Brand\";v=\"99\", \"Chromium\";v=\"96\""},
+    {"sec-ch-ua-mobile", "?0"},
+    {"sec-ch-ua-platform", "\"macOS\""},
+    {"Upgrade-Insecure-Requests", "1"},
+    {"User-Agent", "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36"},
+    {"Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"},
+    {"Sec-Fetch-Site", "same-origin"},
+    {"Sec-Fetch-Mode", "navigate"},
+    {"Sec-Fetch-User", "?1"},
+    {"Sec-Fetch-Dest", "document"},
+    {"Referer", "https://www.example.com/"},
+    {"Accept-Encoding", "gzip, deflate, br"},
+    {"Accept-Language", "en-GB,en-US;q=0.9,en;q=0.8"},
+    {"Cookie", "session=4f6b3c2a; theme=dark"},
+    {"If-None-Match", "W/\"2a-1f3b\""},
+    {"X-Forwarded-For", "203.0.113.195, 70.41.3.18"},
+    {"X-Forwarded-Proto", "https"},
+    {"X-Forwarded-Port", "443"},
+    {"X-Amzn-Trace-Id", "Root=1-5f84c7a9-4c5fd3a2b9e0c6d35a1b2c3d"},
+    {"X-Request-Id", "3f2a1b4c-5d6e-7f80-9a1b-2c3d4e5f6a7b"},
+    {"Content-Type", "text/plain"},
+    {"Pragma", "no-cache"},
+    {"DNT", "1"},
+  };
+
+  @Param({"datadog", "b3", "haystack"})
+  String codec;
+
+  @Param({"false", "true"})
+  boolean taggedHeader;
+
+  private HttpCodec.Extractor extractor;
+  private Map<String, String> headers;
+
+  @Setup(Level.Trial)
+  public void init() {
+    Map<String, String> tagMapping =
+        taggedHeader
+            ? Collections.singletonMap("x-request-id", "http.request_id")
+            : Collections.<String, String>emptyMap();
+    headers = new HashMap<>();
+    for (String[] header : COMMON_HEADERS) {
+      headers.put(header[0], header[1]);
+    }
+    switch (codec) {
+      case "datadog":
+        extractor = DatadogHttpCodec.newExtractor(tagMapping);
+        headers.put("x-datadog-trace-id", "1234567890123456789");
+        headers.put("x-datadog-parent-id", "9876543210987654321");
+        headers.put("x-datadog-sampling-priority", "1");
+        headers.put("x-datadog-origin", "rum");
+        break;
+      case "b3":
+        extractor = B3HttpCodec.newExtractor(tagMapping);
+        headers.put("X-B3-TraceId", "463ac35c9f6413ad48485a3953bb6124");
+        headers.put("X-B3-SpanId", "a2fb4a1d1a96d312");
+        headers.put("X-B3-Sampled", "1");
+        headers.put("X-B3-ParentSpanId", "0020000000000001");
+        break;
+      default:
+        extractor = HaystackHttpCodec.newExtractor(tagMapping);
+        headers.put("Trace-ID", "44617461-646f-6721-463a-c35c9f6413ad");
+        headers.put("Span-ID", "44617461-646f-6721-a2fb-4a1d1a96d312");
+        headers.put("Parent-ID", "44617461-646f-6721-0000-000000000001");
+        headers.put("Baggage-user", "someone");
+    }
+  }
+
+  @Benchmark
+  public TagContext extract() {
+    return extractor.extract(headers, MapVisitor.INSTANCE);
+  }
+
+  private static final class MapVisitor
+      implements AgentPropagation.ContextVisitor<Map<String, String>> {
+    static final MapVisitor INSTANCE = new MapVisitor();
+
+    @Override
+    public void forEachKey(Map<String, String> carrier, AgentPropagation.KeyClassifier classifier) {
+      for (Map.Entry<String, String> header : carrier.entrySet()) {
+        if (!classifier.accept(header.getKey(), header.getValue())) {
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package datadog.trace.core.scopemanager;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import datadog.trace.api.DDId;
+import datadog.trace.api.scopemanager.ExtendedScopeListener;
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.context.ScopeListener;
+import datadog.trace.core.BlackholeWriter;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.TraceCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures activating and closing a scope, and a nested scope, without scope listeners, which is
+ * the case when logs injection doesn't need to update the MDC on activation, and with a listener of
+ * each kind.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 2, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class ScopeActivationBenchmark {
+
+  @Param({"none", "listener", "extended"})
+  String listeners;
+
+  private CoreTracer tracer;
+  private AgentSpan span;
+  private AgentSpan child;
+
+  @Setup(Level.Trial)
+  public void init(final Blackhole blackhole) {
+    tracer =
+        CoreTracer.builder()
+            .writer(new BlackholeWriter(blackhole, new TraceCounters(), 0))
+            .strictTraceWrites(true)
+            .build();
+    if ("listener".equals(listeners)) {
+      tracer.addScopeListener(
+          new ScopeListener() {
+            @Override
+            public void afterScopeActivated() {
+              blackhole.consume(this);
+            }
+
+            @Override
+            public void afterScopeClosed() {
+              blackhole.consume(this);
+            }
+          });
+    } else if ("extended".equals(listeners)) {
+      tracer.addScopeListener(
+          new ExtendedScopeListener() {
+            @Override
+            public void afterScopeActivated(final DDId traceId, final DDId spanId) {
+              blackhole.consume(spanId);
+            }
+
+            @Override
+            public void afterScopeActivated() {
+              blackhole.consume(this);
+            }
+
+            @Override
+            public void afterScopeClosed() {
+              blackhole.consume(this);
+            }
+          });
+    }
+    span = tracer.startSpan("root");
+    child = tracer.startSpan("child", span.context());
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    child.finish();
+    span.finish();
+    tracer.close();
+  }
+
+  @Benchmark
+  public void activate() {
+    try (AgentScope scope = tracer.activateSpan(span)) {}
+  }
+
+  @Benchmark
+  public void activateNested() {
+    try (AgentScope scope = tracer.activateSpan(span)) {
+      try (AgentScope childScope = tracer.activateSpan(child)) {}
+    }
+  }
+}
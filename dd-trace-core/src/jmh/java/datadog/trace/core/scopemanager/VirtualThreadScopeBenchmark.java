@@ -0,0 +1,117 @@
+package datadog.trace.core.scopemanager;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import datadog.trace.bootstrap.instrumentation.api.AgentScope;
+import datadog.trace.bootstrap.instrumentation.api.AgentSpan;
+import datadog.trace.core.BlackholeWriter;
+import datadog.trace.core.CoreTracer;
+import datadog.trace.core.TraceCounters;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Runs a million short tasks, each on its own thread, which check for an active span and then
+ * activate a span and a nested child span, as a request handled on a virtual thread would. Run with
+ * {@code -prof gc} to compare the allocation per task of the scope stacks.
+ *
+ * <p>Virtual threads are used when running on a JDK which supports them, otherwise the tasks run on
+ * a cached pool of platform threads, which reuse their scope stacks from one task to the next and
+ * so give the baseline to compare against.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Fork(value = 1)
+public class VirtualThreadScopeBenchmark {
+
+  @Param({"1000000"})
+  int taskCount;
+
+  @Param({"0", "1"})
+  int nestedSpans;
+
+  private CoreTracer tracer;
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void init(Blackhole blackhole) {
+    tracer =
+        CoreTracer.builder()
+            .writer(new BlackholeWriter(blackhole, new TraceCounters(), 0))
+            .strictTraceWrites(true)
+            .build();
+    executor = newThreadPerTaskExecutor();
+  }
+
+  @TearDown(Level.Trial)
+  public void close() {
+    executor.shutdownNow();
+    tracer.close();
+  }
+
+  @Benchmark
+  public void runTasks(final Blackhole blackhole) throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(taskCount);
+    Runnable task =
+        new Runnable() {
+          @Override
+          public void run() {
+            try {
+              blackhole.consume(tracer.activeSpan());
+              AgentSpan span = tracer.startSpan("task");
+              try (AgentScope scope = tracer.activateSpan(span)) {
+                for (int i = 0; i < nestedSpans; ++i) {
+                  AgentSpan child = tracer.startSpan("child");
+                  try (AgentScope childScope = tracer.activateSpan(child)) {
+                    blackhole.consume(tracer.activeSpan());
+                  }
+                  child.finish();
+                }
+              }
+              span.finish();
+            } finally {
+              done.countDown();
+            }
+          }
+        };
+    for (int i = 0; i < taskCount; ++i) {
+      executor.execute(task);
+    }
+    done.await();
+  }
+
+  private static ExecutorService newThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (Exception e) {
+      // no virtual threads on this JDK
+      return Executors.newCachedThreadPool(
+          new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+              return new Thread(runnable);
+            }
+          });
+    }
+  }
+}
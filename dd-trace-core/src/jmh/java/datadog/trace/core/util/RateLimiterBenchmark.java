@@ -0,0 +1,69 @@
+package datadog.trace.core.util;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link RateLimiter#tryAcquire()} with a rate which is exhausted almost immediately,
+ * which is the common case for the sampling rate limit under load, and with a rate high enough
+ * that tokens are always available.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5, timeUnit = SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Fork(value = 1)
+public class RateLimiterBenchmark {
+
+  @Param({"simple", "striped"})
+  String limiter;
+
+  @Param({"100", "1000000000"})
+  long rate;
+
+  private RateLimiter rateLimiter;
+
+  @Setup
+  public void init() {
+    rateLimiter =
+        "simple".equals(limiter) ? new SimpleRateLimiter(rate) : new StripedRateLimiter(rate);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public boolean tryAcquire1() {
+    return rateLimiter.tryAcquire();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean tryAcquire4() {
+    return rateLimiter.tryAcquire();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public boolean tryAcquire16() {
+    return rateLimiter.tryAcquire();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public boolean tryAcquire64() {
+    return rateLimiter.tryAcquire();
+  }
+}
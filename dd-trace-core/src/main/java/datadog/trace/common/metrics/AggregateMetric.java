@@ -46,6 +46,22 @@ public final class AggregateMetric {
     return this;
   }
 
+  /**
+   * Adds the counts and latencies of another aggregate into this one.
+   *
+   * @param other the aggregate to merge, which is left unmodified
+   * @return this aggregate
+   */
+  public AggregateMetric mergeWith(AggregateMetric other) {
+    this.errorCount += other.errorCount;
+    this.hitCount += other.hitCount;
+    this.topLevelCount += other.topLevelCount;
+    this.duration += other.duration;
+    this.okLatencies.mergeWith(other.okLatencies);
+    this.errorLatencies.mergeWith(other.errorLatencies);
+    return this;
+  }
+
   public int getErrorCount() {
     return errorCount;
   }
@@ -29,6 +29,8 @@ final class Aggregator implements Runnable {
   // when the agent is unresponsive (only 10 pending requests will be
   // buffered by OkHttpSink)
   private final long reportingIntervalNanos;
+  // shards must always complete their report so the merged bucket can be written
+  private final boolean reportEmptyBuckets;
 
   private boolean dirty;
 
@@ -41,6 +43,28 @@ final class Aggregator implements Runnable {
       int maxAggregates,
       long reportingInterval,
       TimeUnit reportingIntervalTimeUnit) {
+    this(
+        writer,
+        batchPool,
+        inbox,
+        pending,
+        commonKeys,
+        maxAggregates,
+        reportingInterval,
+        reportingIntervalTimeUnit,
+        false);
+  }
+
+  Aggregator(
+      MetricWriter writer,
+      Queue<Batch> batchPool,
+      BlockingQueue<Batch> inbox,
+      NonBlockingHashMap<MetricKey, Batch> pending,
+      final Set<MetricKey> commonKeys,
+      int maxAggregates,
+      long reportingInterval,
+      TimeUnit reportingIntervalTimeUnit,
+      boolean reportEmptyBuckets) {
     this.writer = writer;
     this.batchPool = batchPool;
     this.inbox = inbox;
@@ -50,6 +74,7 @@ final class Aggregator implements Runnable {
             new CommonKeyCleaner(commonKeys), maxAggregates * 4 / 3, 0.75f, maxAggregates);
     this.pending = pending;
     this.reportingIntervalNanos = reportingIntervalTimeUnit.toNanos(reportingInterval);
+    this.reportEmptyBuckets = reportEmptyBuckets;
   }
 
   public void clearAggregates() {
@@ -112,6 +137,15 @@ final class Aggregator implements Runnable {
       dirty = false;
     }
     if (skipped) {
+      if (reportEmptyBuckets) {
+        try {
+          writer.startBucket(0, when, reportingIntervalNanos);
+          writer.finishBucket();
+        } catch (Throwable error) {
+          writer.reset();
+          log.debug("Error publishing metrics. Dropping payload", error);
+        }
+      }
       log.debug("skipped metrics reporting because no points have changed");
     }
   }
@@ -35,16 +35,25 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
   private static final DDCache<String, UTF8BytesString> SERVICE_NAMES =
       DDCaches.newFixedSizeCache(32);
 
+  private static final ThreadLocal<MetricKeyProbe> PROBE =
+      new ThreadLocal<MetricKeyProbe>() {
+        @Override
+        protected MetricKeyProbe initialValue() {
+          return new MetricKeyProbe();
+        }
+      };
+
   static final Batch POISON_PILL = Batch.NULL;
 
   private final Set<String> ignoredResources;
-  private final Queue<Batch> batchPool;
+  private final Queue<Batch>[] batchPools;
   private final NonBlockingHashMap<MetricKey, Batch> pending;
   private final NonBlockingHashMap<MetricKey, MetricKey> keys;
-  private final Thread thread;
-  private final BlockingQueue<Batch> inbox;
+  private final Thread[] threads;
+  private final BlockingQueue<Batch>[] inboxes;
+  private final int shardMask;
   private final Sink sink;
-  private final Aggregator aggregator;
+  private final Aggregator[] aggregators;
   private final long reportingInterval;
   private final TimeUnit reportingIntervalTimeUnit;
   private final DDAgentFeaturesDiscovery features;
@@ -61,7 +70,8 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
             config.getAgentTimeout(),
             config.isTracerMetricsBufferingEnabled()),
         config.getTracerMetricsMaxAggregates(),
-        config.getTracerMetricsMaxPending());
+        config.getTracerMetricsMaxPending(),
+        config.getTracerMetricsAggregatorShards());
   }
 
   ConflatingMetricsAggregator(
@@ -71,7 +81,27 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
       Sink sink,
       int maxAggregates,
       int queueSize) {
-    this(wellKnownTags, ignoredResources, features, sink, maxAggregates, queueSize, 10, SECONDS);
+    this(wellKnownTags, ignoredResources, features, sink, maxAggregates, queueSize, 1);
+  }
+
+  ConflatingMetricsAggregator(
+      WellKnownTags wellKnownTags,
+      Set<String> ignoredResources,
+      DDAgentFeaturesDiscovery features,
+      Sink sink,
+      int maxAggregates,
+      int queueSize,
+      int shards) {
+    this(
+        ignoredResources,
+        features,
+        sink,
+        new SerializingMetricWriter(wellKnownTags, sink),
+        maxAggregates,
+        queueSize,
+        10,
+        SECONDS,
+        shards);
   }
 
   ConflatingMetricsAggregator(
@@ -103,24 +133,65 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
       int queueSize,
       long reportingInterval,
       TimeUnit timeUnit) {
+    this(
+        ignoredResources,
+        features,
+        sink,
+        metricWriter,
+        maxAggregates,
+        queueSize,
+        reportingInterval,
+        timeUnit,
+        1);
+  }
+
+  /**
+   * When more than one shard is requested, the number of shards is rounded up to a power of two
+   * and batches are routed to shards by the hash of their {@link MetricKey}. Each shard has its own
+   * inbox of {@code queueSize} and aggregator thread, and the {@code maxAggregates} are divided
+   * between the shards. The shards' aggregates are merged into a single bucket when reporting.
+   */
+  @SuppressWarnings("unchecked")
+  ConflatingMetricsAggregator(
+      Set<String> ignoredResources,
+      DDAgentFeaturesDiscovery features,
+      Sink sink,
+      MetricWriter metricWriter,
+      int maxAggregates,
+      int queueSize,
+      long reportingInterval,
+      TimeUnit timeUnit,
+      int shards) {
+    int shardCount = shards <= 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+    int maxAggregatesPerShard = Math.max(1, (maxAggregates + shardCount - 1) / shardCount);
     this.ignoredResources = ignoredResources;
-    this.inbox = new MpscBlockingConsumerArrayQueue<>(queueSize);
-    this.batchPool = new SpmcArrayQueue<>(maxAggregates);
+    this.inboxes = new BlockingQueue[shardCount];
+    this.batchPools = new Queue[shardCount];
+    this.aggregators = new Aggregator[shardCount];
+    this.threads = new Thread[shardCount];
+    this.shardMask = shardCount - 1;
     this.pending = new NonBlockingHashMap<>(maxAggregates * 4 / 3);
     this.keys = new NonBlockingHashMap<>();
     this.features = features;
     this.sink = sink;
-    this.aggregator =
-        new Aggregator(
-            metricWriter,
-            batchPool,
-            inbox,
-            pending,
-            keys.keySet(),
-            maxAggregates,
-            reportingInterval,
-            timeUnit);
-    this.thread = newAgentThread(METRICS_AGGREGATOR, aggregator);
+    MergingMetricWriter mergingWriter =
+        shardCount > 1 ? new MergingMetricWriter(metricWriter, shardCount) : null;
+    for (int i = 0; i < shardCount; ++i) {
+      this.inboxes[i] = new MpscBlockingConsumerArrayQueue<>(queueSize);
+      this.batchPools[i] = new SpmcArrayQueue<>(maxAggregatesPerShard);
+      this.aggregators[i] =
+          new Aggregator(
+              null == mergingWriter ? metricWriter : mergingWriter.shard(i),
+              batchPools[i],
+              inboxes[i],
+              pending,
+              keys.keySet(),
+              maxAggregatesPerShard,
+              reportingInterval,
+              timeUnit,
+              null != mergingWriter);
+      this.threads[i] = newAgentThread(METRICS_AGGREGATOR, aggregators[i]);
+    }
     this.reportingInterval = reportingInterval;
     this.reportingIntervalTimeUnit = timeUnit;
   }
@@ -130,7 +201,9 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
     features.discover();
     if (features.supportsMetrics()) {
       sink.register(this);
-      thread.start();
+      for (Thread thread : threads) {
+        thread.start();
+      }
       cancellation =
           AgentTaskScheduler.INSTANCE.scheduleAtFixedRate(
               new ReportTask(),
@@ -146,15 +219,23 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
 
   @Override
   public boolean report() {
+    boolean published = true;
+    for (BlockingQueue<Batch> inbox : inboxes) {
+      published &= offerReport(inbox);
+    }
+    if (!published) {
+      log.debug("Skipped metrics reporting because the queue is full");
+    }
+    return published;
+  }
+
+  private static boolean offerReport(BlockingQueue<Batch> inbox) {
     boolean published;
     int attempts = 0;
     do {
       published = inbox.offer(REPORT);
       ++attempts;
     } while (!published && attempts < 10);
-    if (!published) {
-      log.debug("Skipped metrics reporting because the queue is full");
-    }
     return published;
   }
 
@@ -177,18 +258,21 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
   }
 
   private boolean publish(CoreSpan<?> span, boolean isTopLevel) {
-    MetricKey newKey =
-        new MetricKey(
-            span.getResourceName(),
-            SERVICE_NAMES.computeIfAbsent(span.getServiceName(), UTF8_ENCODE),
-            span.getOperationName(),
-            span.getType(),
-            span.getHttpStatusCode());
     boolean isNewKey = false;
-    MetricKey key = keys.putIfAbsent(newKey, newKey);
+    MetricKey key = findKey(span);
     if (null == key) {
-      key = newKey;
-      isNewKey = true;
+      MetricKey newKey =
+          new MetricKey(
+              span.getResourceName(),
+              SERVICE_NAMES.computeIfAbsent(span.getServiceName(), UTF8_ENCODE),
+              span.getOperationName(),
+              span.getType(),
+              span.getHttpStatusCode());
+      key = keys.putIfAbsent(newKey, newKey);
+      if (null == key) {
+        key = newKey;
+        isNewKey = true;
+      }
     }
     long tag = (span.getError() > 0 ? ERROR_TAG : 0L) | (isTopLevel ? TOP_LEVEL_TAG : 0L);
     long durationNanos = span.getDurationNano();
@@ -207,19 +291,40 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
       key = batch.getKey();
       isNewKey = false;
     }
-    batch = newBatch(key);
+    int shard = shard(key);
+    batch = newBatch(shard, key);
     batch.add(tag, durationNanos);
     // overwrite the last one if present, it was already full
     // or had been consumed by the time we tried to add to it
     pending.put(key, batch);
     // must offer to the queue after adding to pending
-    inbox.offer(batch);
+    inboxes[shard].offer(batch);
     // force keep keys we haven't seen before or errors
     return isNewKey || span.getError() > 0;
   }
 
-  private Batch newBatch(MetricKey key) {
-    Batch batch = batchPool.poll();
+  /** Looks up a key we have seen before without allocating a new one. */
+  private MetricKey findKey(CoreSpan<?> span) {
+    MetricKeyProbe probe = PROBE.get();
+    MetricKey key =
+        keys.get(
+            probe.set(
+                span.getResourceName(),
+                span.getServiceName(),
+                span.getOperationName(),
+                span.getType(),
+                span.getHttpStatusCode()));
+    probe.clear();
+    return key;
+  }
+
+  private int shard(MetricKey key) {
+    int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & shardMask;
+  }
+
+  private Batch newBatch(int shard, MetricKey key) {
+    Batch batch = batchPools[shard].poll();
     if (null == batch) {
       return new Batch(key);
     }
@@ -230,14 +335,18 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
     if (null != cancellation) {
       cancellation.cancel();
     }
-    inbox.offer(POISON_PILL);
+    for (BlockingQueue<Batch> inbox : inboxes) {
+      inbox.offer(POISON_PILL);
+    }
   }
 
   @Override
   public void close() {
     stop();
     try {
-      thread.join(THREAD_JOIN_TIMOUT_MS);
+      for (Thread thread : threads) {
+        thread.join(THREAD_JOIN_TIMOUT_MS);
+      }
     } catch (InterruptedException ignored) {
     }
   }
@@ -266,11 +375,15 @@ public final class ConflatingMetricsAggregator implements MetricsAggregator, Eve
       if (null != cancellation) {
         cancellation.cancel();
       }
-      this.thread.interrupt();
+      for (Thread thread : threads) {
+        thread.interrupt();
+      }
       this.pending.clear();
-      this.batchPool.clear();
-      this.inbox.clear();
-      this.aggregator.clearAggregates();
+      for (int i = 0; i < aggregators.length; ++i) {
+        this.batchPools[i].clear();
+        this.inboxes[i].clear();
+        this.aggregators[i].clearAggregates();
+      }
     }
   }
 
@@ -0,0 +1,146 @@
+package datadog.trace.common.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges the buckets reported by each aggregator shard into a single bucket. Keys are routed to
+ * shards by hash so the aggregates of different shards never overlap, and merging a bucket is a
+ * concatenation of what each shard reported.
+ *
+ * <p>Each shard reports to its own view, which stages copies of the aggregates because the shard
+ * clears its aggregates as soon as they have been added. The bucket is written to the delegate by
+ * whichever shard completes the round last. A shard which reports twice before the round completes
+ * (e.g. because another shard missed a report request) flushes the round early so that a slow or
+ * overloaded shard cannot hold back the others.
+ *
+ * <p>Not intended to be used outside of {@link ConflatingMetricsAggregator}, all methods of the
+ * views synchronize on this object.
+ */
+final class MergingMetricWriter {
+
+  private static final Logger log = LoggerFactory.getLogger(MergingMetricWriter.class);
+
+  private final MetricWriter writer;
+  private final Shard[] shards;
+  private int arrived;
+
+  MergingMetricWriter(MetricWriter writer, int shardCount) {
+    this.writer = writer;
+    this.shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; ++i) {
+      shards[i] = new Shard();
+    }
+  }
+
+  MetricWriter shard(int index) {
+    return shards[index];
+  }
+
+  private void arrive(Shard shard) {
+    if (shard.arrived) {
+      flush();
+    }
+    shard.arrived = true;
+    if (++arrived == shards.length) {
+      flush();
+    }
+  }
+
+  private void flush() {
+    int metricCount = 0;
+    long start = Long.MAX_VALUE;
+    long duration = 0;
+    for (Shard shard : shards) {
+      if (shard.arrived && !shard.keys.isEmpty()) {
+        metricCount += shard.keys.size();
+        start = Math.min(start, shard.start);
+        duration = Math.max(duration, shard.duration);
+      }
+    }
+    try {
+      if (metricCount > 0) {
+        writer.startBucket(metricCount, start, duration);
+        for (Shard shard : shards) {
+          if (shard.arrived) {
+            for (int i = 0; i < shard.keys.size(); ++i) {
+              writer.add(shard.keys.get(i), shard.aggregates.get(i));
+            }
+          }
+        }
+        // note that this may do IO and block
+        writer.finishBucket();
+      }
+    } catch (Throwable error) {
+      writer.reset();
+      log.debug("Error publishing merged metrics. Dropping payload", error);
+    }
+    for (Shard shard : shards) {
+      if (shard.arrived) {
+        shard.recycle();
+        shard.arrived = false;
+      }
+    }
+    arrived = 0;
+  }
+
+  private final class Shard implements MetricWriter {
+    private final List<MetricKey> keys = new ArrayList<>();
+    private final List<AggregateMetric> aggregates = new ArrayList<>();
+    private final ArrayDeque<AggregateMetric> pool = new ArrayDeque<>();
+    private long start;
+    private long duration;
+    private boolean arrived;
+
+    @Override
+    public void startBucket(int metricCount, long start, long duration) {
+      synchronized (MergingMetricWriter.this) {
+        this.start = start;
+        this.duration = duration;
+      }
+    }
+
+    @Override
+    public void add(MetricKey key, AggregateMetric aggregate) {
+      synchronized (MergingMetricWriter.this) {
+        AggregateMetric copy = pool.poll();
+        if (null == copy) {
+          copy = new AggregateMetric();
+        }
+        keys.add(key);
+        aggregates.add(copy.mergeWith(aggregate));
+      }
+    }
+
+    @Override
+    public void finishBucket() {
+      synchronized (MergingMetricWriter.this) {
+        arrive(this);
+      }
+    }
+
+    @Override
+    public void reset() {
+      synchronized (MergingMetricWriter.this) {
+        if (!arrived) {
+          // the shard failed part way through its report, so it completes
+          // the round without contributing anything
+          recycle();
+          arrive(this);
+        }
+      }
+    }
+
+    private void recycle() {
+      for (AggregateMetric aggregate : aggregates) {
+        aggregate.clear();
+        pool.offer(aggregate);
+      }
+      keys.clear();
+      aggregates.clear();
+    }
+  }
+}
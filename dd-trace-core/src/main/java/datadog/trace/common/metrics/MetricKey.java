@@ -24,14 +24,64 @@ public final class MetricKey {
     this.operationName = null == operationName ? EMPTY : UTF8BytesString.create(operationName);
     this.type = null == type ? EMPTY : UTF8BytesString.create(type);
     this.httpStatusCode = httpStatusCode;
+    this.hash = hash(this.resource, this.service, this.operationName, this.type, httpStatusCode);
+  }
+
+  /**
+   * Computes the hash a {@code MetricKey} constructed from these fields would have, without
+   * encoding them.
+   */
+  static int hash(
+      CharSequence resource,
+      CharSequence service,
+      CharSequence operationName,
+      CharSequence type,
+      int httpStatusCode) {
     // unrolled polynomial hashcode which avoids allocating varargs
     // the constants are 31^4, 31^3, 31^2, 31^1, 31^0
-    this.hash =
-        923521 * this.resource.hashCode()
-            + 29791 * this.service.hashCode()
-            + 961 * this.operationName.hashCode()
-            + 31 * this.type.hashCode()
-            + httpStatusCode;
+    return 923521 * hash(resource)
+        + 29791 * hash(service)
+        + 961 * hash(operationName)
+        + 31 * hash(type)
+        + httpStatusCode;
+  }
+
+  /** Consistent with {@code String.hashCode()} for any {@code CharSequence}. */
+  private static int hash(CharSequence sequence) {
+    if (null == sequence) {
+      return 0;
+    }
+    if (sequence instanceof String || sequence instanceof UTF8BytesString) {
+      return sequence.hashCode();
+    }
+    int hash = 0;
+    for (int i = 0; i < sequence.length(); ++i) {
+      hash = 31 * hash + sequence.charAt(i);
+    }
+    return hash;
+  }
+
+  /**
+   * Whether this key would be equal to a key constructed from these fields, without encoding
+   * them.
+   */
+  boolean matches(
+      int hash,
+      CharSequence resource,
+      CharSequence service,
+      CharSequence operationName,
+      CharSequence type,
+      int httpStatusCode) {
+    return this.hash == hash
+        && this.httpStatusCode == httpStatusCode
+        && contentEquals(this.resource, resource)
+        && contentEquals(this.service, service)
+        && contentEquals(this.operationName, operationName)
+        && contentEquals(this.type, type);
+  }
+
+  private static boolean contentEquals(UTF8BytesString field, CharSequence sequence) {
+    return null == sequence ? field.length() == 0 : field.toString().contentEquals(sequence);
   }
 
   public UTF8BytesString getResource() {
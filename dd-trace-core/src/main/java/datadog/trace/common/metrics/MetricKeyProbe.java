@@ -0,0 +1,56 @@
+package datadog.trace.common.metrics;
+
+/**
+ * A reusable lookup key which finds an existing {@link MetricKey} in a hash map from a span's
+ * fields, without encoding them or allocating a new key.
+ *
+ * <p>The probe hashes like the {@link MetricKey} it stands in for, but is only equal to a {@link
+ * MetricKey} when compared from the probe's side, which is how lookups in {@code
+ * NonBlockingHashMap} and {@code ConcurrentHashMap} compare keys. It must never be stored in a map.
+ *
+ * <p>Not thread-safe.
+ */
+final class MetricKeyProbe {
+
+  private CharSequence resource;
+  private CharSequence service;
+  private CharSequence operationName;
+  private CharSequence type;
+  private int httpStatusCode;
+  private int hash;
+
+  MetricKeyProbe set(
+      CharSequence resource,
+      CharSequence service,
+      CharSequence operationName,
+      CharSequence type,
+      int httpStatusCode) {
+    this.resource = resource;
+    this.service = service;
+    this.operationName = operationName;
+    this.type = type;
+    this.httpStatusCode = httpStatusCode;
+    this.hash = MetricKey.hash(resource, service, operationName, type, httpStatusCode);
+    return this;
+  }
+
+  /** Drops the references to the span's fields once the lookup is done. */
+  void clear() {
+    this.resource = null;
+    this.service = null;
+    this.operationName = null;
+    this.type = null;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof MetricKey
+        && ((MetricKey) o)
+            .matches(hash, resource, service, operationName, type, httpStatusCode);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
@@ -1,11 +1,16 @@
 package datadog.trace.common.sampling;
 
+import datadog.trace.api.Function;
+import datadog.trace.api.cache.DDCache;
+import datadog.trace.api.cache.DDCaches;
 import datadog.trace.api.sampling.PrioritySampling;
 import datadog.trace.common.sampling.SamplingRule.AlwaysMatchesSamplingRule;
 import datadog.trace.common.sampling.SamplingRule.OperationSamplingRule;
+import datadog.trace.common.sampling.SamplingRule.PatternMatchSamplingRule;
 import datadog.trace.common.sampling.SamplingRule.ServiceSamplingRule;
 import datadog.trace.core.CoreSpan;
-import datadog.trace.core.util.SimpleRateLimiter;
+import datadog.trace.core.util.RateLimiter;
+import datadog.trace.core.util.StripedRateLimiter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -16,9 +21,17 @@ import org.slf4j.LoggerFactory;
 public class RuleBasedSampler<T extends CoreSpan<T>> implements Sampler<T>, PrioritySampler<T> {
 
   private static final Logger log = LoggerFactory.getLogger(RuleBasedSampler.class);
+
+  private static final int MATCH_CACHE_SIZE = 256;
+  private static final Integer NO_MATCH = -1;
+
   private final List<SamplingRule<T>> samplingRules;
+  // maps service and operation name to the index of the first matching rule, when that's all the
+  // rules depend on, so the rules only need to be evaluated the first time a pair is seen
+  private final DDCache<String[], Integer> matchCache;
+  private final Function<String[], Integer> matchRules;
   private final PrioritySampler<T> fallbackSampler;
-  private final SimpleRateLimiter rateLimiter;
+  private final RateLimiter rateLimiter;
   private final long rateLimit;
 
   public static final String SAMPLING_RULE_RATE = "_dd.rule_psr";
@@ -30,7 +43,14 @@ public class RuleBasedSampler<T extends CoreSpan<T>> implements Sampler<T>, Prio
       final PrioritySampler<T> fallbackSampler) {
     this.samplingRules = samplingRules;
     this.fallbackSampler = fallbackSampler;
-    rateLimiter = new SimpleRateLimiter(rateLimit);
+    if (onlyMatchesNames(samplingRules)) {
+      this.matchCache = DDCaches.newFixedSizeArrayKeyCache(MATCH_CACHE_SIZE);
+      this.matchRules = new MatchRules<>(samplingRules);
+    } else {
+      this.matchCache = null;
+      this.matchRules = null;
+    }
+    rateLimiter = new StripedRateLimiter(rateLimit);
 
     this.rateLimit = rateLimit;
   }
@@ -86,14 +106,7 @@ public class RuleBasedSampler<T extends CoreSpan<T>> implements Sampler<T>, Prio
 
   @Override
   public void setSamplingPriority(final T span) {
-    SamplingRule<T> matchedRule = null;
-
-    for (final SamplingRule<T> samplingRule : samplingRules) {
-      if (samplingRule.matches(span)) {
-        matchedRule = samplingRule;
-        break;
-      }
-    }
+    final SamplingRule<T> matchedRule = findMatchingRule(span);
 
     if (matchedRule == null) {
       fallbackSampler.setSamplingPriority(span);
@@ -119,4 +132,64 @@ public class RuleBasedSampler<T extends CoreSpan<T>> implements Sampler<T>, Prio
       }
     }
   }
+
+  private SamplingRule<T> findMatchingRule(final T span) {
+    if (null != matchCache) {
+      final CharSequence operationName = span.getOperationName();
+      final int index =
+          matchCache.computeIfAbsent(
+              new String[] {
+                span.getServiceName(), null == operationName ? null : operationName.toString()
+              },
+              matchRules);
+      return index < 0 ? null : samplingRules.get(index);
+    }
+    for (final SamplingRule<T> samplingRule : samplingRules) {
+      if (samplingRule.matches(span)) {
+        return samplingRule;
+      }
+    }
+    return null;
+  }
+
+  private static boolean onlyMatchesNames(final List<? extends SamplingRule<?>> samplingRules) {
+    for (final SamplingRule<?> samplingRule : samplingRules) {
+      // subclasses may match on anything else
+      final Class<?> type = samplingRule.getClass();
+      if (type != ServiceSamplingRule.class
+          && type != OperationSamplingRule.class
+          && type != AlwaysMatchesSamplingRule.class) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class MatchRules<T extends CoreSpan<T>>
+      implements Function<String[], Integer> {
+    private final List<SamplingRule<T>> samplingRules;
+
+    MatchRules(final List<SamplingRule<T>> samplingRules) {
+      this.samplingRules = samplingRules;
+    }
+
+    @Override
+    public Integer apply(final String[] serviceAndOperation) {
+      for (int i = 0; i < samplingRules.size(); ++i) {
+        final SamplingRule<T> samplingRule = samplingRules.get(i);
+        if (samplingRule instanceof ServiceSamplingRule) {
+          if (((PatternMatchSamplingRule<T>) samplingRule).matches(serviceAndOperation[0])) {
+            return i;
+          }
+        } else if (samplingRule instanceof OperationSamplingRule) {
+          if (((PatternMatchSamplingRule<T>) samplingRule).matches(serviceAndOperation[1])) {
+            return i;
+          }
+        } else {
+          return i;
+        }
+      }
+      return NO_MATCH;
+    }
+  }
 }
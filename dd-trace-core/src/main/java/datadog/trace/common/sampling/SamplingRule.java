@@ -32,19 +32,123 @@ public abstract class SamplingRule<T extends CoreSpan<T>> {
     }
   }
 
+  /**
+   * Matches a regular expression against a name of the span.
+   *
+   * <p>Most rules are plain names, or names with a leading or trailing {@code .*}, so these are
+   * matched by comparing the characters directly rather than with the regular expression.
+   */
   public abstract static class PatternMatchSamplingRule<T extends CoreSpan<T>>
       extends SamplingRule<T> {
     private final Pattern pattern;
+    // when not null, the regex is equivalent to this literal, optionally preceded or followed by .*
+    private final String literal;
+    private final boolean anyPrefix;
+    private final boolean anySuffix;
 
     public PatternMatchSamplingRule(final String regex, final RateSampler<T> sampler) {
       super(sampler);
       this.pattern = Pattern.compile(regex);
+      int start = 0;
+      int end = regex.length();
+      this.anyPrefix = regex.startsWith(".*");
+      if (anyPrefix) {
+        start += 2;
+      }
+      this.anySuffix = end - start >= 2 && regex.endsWith(".*") && !isEscaped(regex, end - 2);
+      if (anySuffix) {
+        end -= 2;
+      }
+      this.literal = toLiteral(regex, start, end);
     }
 
     @Override
     public boolean matches(final T span) {
-      final CharSequence relevantString = getRelevantString(span);
-      return relevantString != null && pattern.matcher(relevantString).matches();
+      return matches(getRelevantString(span));
+    }
+
+    final boolean matches(final CharSequence relevantString) {
+      if (relevantString == null) {
+        return false;
+      }
+      if (literal == null) {
+        return pattern.matcher(relevantString).matches();
+      }
+      int length = relevantString.length();
+      int literalLength = literal.length();
+      if (length < literalLength) {
+        return false;
+      }
+      if (!anyPrefix) {
+        return regionMatches(relevantString, 0)
+            && (anySuffix ? noLineTerminators(relevantString, literalLength, length)
+                : length == literalLength);
+      }
+      if (!anySuffix) {
+        return regionMatches(relevantString, length - literalLength)
+            && noLineTerminators(relevantString, 0, length - literalLength);
+      }
+      // .*literal.* can match the literal anywhere, but . doesn't match line terminators
+      for (int offset = 0; offset <= length - literalLength; ++offset) {
+        if (regionMatches(relevantString, offset)) {
+          return noLineTerminators(relevantString, 0, offset)
+              && noLineTerminators(relevantString, offset + literalLength, length);
+        }
+        if (isLineTerminator(relevantString.charAt(offset))) {
+          return false;
+        }
+      }
+      return false;
+    }
+
+    private boolean regionMatches(final CharSequence s, final int offset) {
+      for (int i = 0; i < literal.length(); ++i) {
+        if (s.charAt(offset + i) != literal.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean noLineTerminators(final CharSequence s, final int from, final int to) {
+      for (int i = from; i < to; ++i) {
+        if (isLineTerminator(s.charAt(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean isLineTerminator(final char c) {
+      return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean isEscaped(final String regex, final int index) {
+      int backslashes = 0;
+      for (int i = index - 1; i >= 0 && regex.charAt(i) == '\\'; --i) {
+        ++backslashes;
+      }
+      return (backslashes & 1) == 1;
+    }
+
+    /** @return the literal the regex matches, or null if it isn't a literal */
+    private static String toLiteral(final String regex, final int start, final int end) {
+      StringBuilder literal = new StringBuilder(end - start);
+      for (int i = start; i < end; ++i) {
+        char c = regex.charAt(i);
+        if (c == '\\') {
+          // a backslash before anything but a letter or digit quotes it
+          if (++i == end || Character.isLetterOrDigit(regex.charAt(i))) {
+            return null;
+          }
+          literal.append(regex.charAt(i));
+        } else if ("[](){}.*+?^$|".indexOf(c) >= 0) {
+          return null;
+        } else {
+          literal.append(c);
+        }
+      }
+      return literal.toString();
     }
 
     protected abstract CharSequence getRelevantString(T span);
@@ -69,6 +69,7 @@ public class DDAgentWriter implements Writer {
     Monitoring monitoring = Monitoring.DISABLED;
     boolean traceAgentV05Enabled = Config.get().isTraceAgentV05Enabled();
     boolean metricsReportingEnabled = Config.get().isTracerMetricsEnabled();
+    int serializerThreads = Config.get().getTraceSerializerThreads();
 
     private DDAgentApi agentApi;
     private Prioritization prioritization;
@@ -134,6 +135,11 @@ public class DDAgentWriter implements Writer {
       return this;
     }
 
+    public DDAgentWriterBuilder serializerThreads(int serializerThreads) {
+      this.serializerThreads = serializerThreads;
+      return this;
+    }
+
     public DDAgentWriterBuilder featureDiscovery(DDAgentFeaturesDiscovery featureDiscovery) {
       this.featureDiscovery = featureDiscovery;
       return this;
@@ -153,7 +159,8 @@ public class DDAgentWriter implements Writer {
           monitoring,
           traceAgentV05Enabled,
           metricsReportingEnabled,
-          featureDiscovery);
+          featureDiscovery,
+          serializerThreads);
     }
   }
 
@@ -170,7 +177,8 @@ public class DDAgentWriter implements Writer {
       final Monitoring monitoring,
       final boolean traceAgentV05Enabled,
       boolean metricsReportingEnabled,
-      DDAgentFeaturesDiscovery featureDiscovery) {
+      DDAgentFeaturesDiscovery featureDiscovery,
+      int serializerThreads) {
     HttpUrl agentUrl = HttpUrl.get("http://" + agentHost + ":" + traceAgentPort);
     OkHttpClient client =
         null == featureDiscovery || null == agentApi
@@ -198,7 +206,8 @@ public class DDAgentWriter implements Writer {
             featureDiscovery,
             null == prioritization ? FAST_LANE : prioritization,
             flushFrequencySeconds,
-            TimeUnit.SECONDS);
+            TimeUnit.SECONDS,
+            serializerThreads);
   }
 
   private DDAgentWriter(
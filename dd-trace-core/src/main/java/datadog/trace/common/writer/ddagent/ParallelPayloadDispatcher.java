@@ -0,0 +1,174 @@
+package datadog.trace.common.writer.ddagent;
+
+import static datadog.trace.util.AgentThreadFactory.AgentThread.TRACE_SERIALIZER;
+import static datadog.trace.util.AgentThreadFactory.THREAD_JOIN_TIMOUT_MS;
+import static datadog.trace.util.AgentThreadFactory.newAgentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import datadog.trace.core.CoreSpan;
+import datadog.trace.core.DDSpan;
+import datadog.trace.core.monitor.HealthMetrics;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+import org.jctools.queues.MpscBlockingConsumerArrayQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands traces round-robin to a pool of serializer threads, each of which maps and buffers traces
+ * with its own {@link TraceMapper} and {@link datadog.communication.serialization.FlushingBuffer}.
+ * Serialized payloads are sent through the API of the dispatcher the pool was created from, one
+ * payload at a time.
+ *
+ * <p>{@link #addTrace(List)} and {@link #flush()} must only be called from the trace processor
+ * thread, which keeps draining the primary queue before the secondary queue, so traces are still
+ * handed to the serializers in priority order. Each serializer has a bounded queue, and the trace
+ * processor waits for space when a serializer falls behind, which applies the same back pressure
+ * as serializing on the trace processor thread would.
+ */
+final class ParallelPayloadDispatcher extends PayloadDispatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(ParallelPayloadDispatcher.class);
+
+  private final MpscBlockingConsumerArrayQueue<Object>[] queues;
+  private final Thread[] threads;
+  private final HealthMetrics healthMetrics;
+  private int next;
+
+  @SuppressWarnings("unchecked")
+  ParallelPayloadDispatcher(
+      PayloadDispatcher dispatcher,
+      HealthMetrics healthMetrics,
+      int serializerCount,
+      int queueCapacity) {
+    super(dispatcher);
+    this.healthMetrics = healthMetrics;
+    this.queues = new MpscBlockingConsumerArrayQueue[serializerCount];
+    this.threads = new Thread[serializerCount];
+    for (int i = 0; i < serializerCount; ++i) {
+      queues[i] = new MpscBlockingConsumerArrayQueue<>(queueCapacity);
+      threads[i] =
+          newAgentThread(
+              TRACE_SERIALIZER,
+              new Serializer(queues[i], new PayloadDispatcher(dispatcher), healthMetrics));
+    }
+  }
+
+  void start() {
+    for (Thread thread : threads) {
+      thread.start();
+    }
+  }
+
+  void close() {
+    for (Thread thread : threads) {
+      thread.interrupt();
+    }
+    for (Thread thread : threads) {
+      try {
+        thread.join(THREAD_JOIN_TIMOUT_MS);
+      } catch (InterruptedException ignored) {
+      }
+    }
+  }
+
+  @Override
+  void addTrace(List<? extends CoreSpan<?>> trace) {
+    int index = next;
+    next = index + 1 == queues.length ? 0 : index + 1;
+    if (!offer(index, trace)) {
+      healthMetrics.onFailedPublish(trace.get(0).samplingPriority());
+    }
+  }
+
+  /** Flushes every serializer, and waits until they have all sent what they had buffered. */
+  @Override
+  void flush() {
+    CountDownLatch latch = new CountDownLatch(queues.length);
+    FlushEvent flush = new FlushEvent(latch);
+    for (int i = 0; i < queues.length; ++i) {
+      if (!offer(i, flush)) {
+        latch.countDown();
+      }
+    }
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private boolean offer(int index, Object event) {
+    MpscBlockingConsumerArrayQueue<Object> queue = queues[index];
+    Thread thread = threads[index];
+    while (!queue.offer(event)) {
+      // give up when shutting down or if the serializer is gone
+      if (Thread.currentThread().isInterrupted() || !thread.isAlive()) {
+        return false;
+      }
+      LockSupport.parkNanos(1000);
+    }
+    return true;
+  }
+
+  private static final class Serializer implements Runnable {
+
+    private final MpscBlockingConsumerArrayQueue<Object> queue;
+    private final PayloadDispatcher dispatcher;
+    private final HealthMetrics healthMetrics;
+
+    Serializer(
+        MpscBlockingConsumerArrayQueue<Object> queue,
+        PayloadDispatcher dispatcher,
+        HealthMetrics healthMetrics) {
+      this.queue = queue;
+      this.dispatcher = dispatcher;
+      this.healthMetrics = healthMetrics;
+    }
+
+    @Override
+    public void run() {
+      Thread thread = Thread.currentThread();
+      try {
+        while (!thread.isInterrupted()) {
+          Object event = queue.poll(100, MILLISECONDS);
+          if (null != event) {
+            onEvent(event);
+          }
+        }
+      } catch (InterruptedException e) {
+        thread.interrupt();
+      }
+      // release anybody waiting for a flush
+      Object event;
+      while (null != (event = queue.poll())) {
+        if (event instanceof FlushEvent) {
+          ((FlushEvent) event).sync();
+        }
+      }
+      log.debug("Datadog trace serializer exited");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onEvent(Object event) {
+      try {
+        if (event instanceof List) {
+          dispatcher.addTrace((List<DDSpan>) event);
+        } else if (event instanceof FlushEvent) {
+          try {
+            dispatcher.flush();
+          } finally {
+            ((FlushEvent) event).sync();
+          }
+        }
+      } catch (final Throwable e) {
+        if (log.isDebugEnabled()) {
+          log.debug("Error while serializing trace", e);
+        }
+        List<DDSpan> data = event instanceof List ? (List<DDSpan>) event : null;
+        healthMetrics.onFailedSerialize(data, e);
+      }
+    }
+  }
+}
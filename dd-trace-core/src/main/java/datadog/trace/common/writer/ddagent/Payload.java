@@ -1,5 +1,6 @@
 package datadog.trace.common.writer.ddagent;
 
+import static datadog.communication.http.OkHttpUtils.msgpackRequestBodyOf;
 import static datadog.communication.serialization.msgpack.MsgPackWriter.ARRAY16;
 import static datadog.communication.serialization.msgpack.MsgPackWriter.ARRAY32;
 import static datadog.communication.serialization.msgpack.MsgPackWriter.FIXARRAY;
@@ -7,6 +8,7 @@ import static datadog.communication.serialization.msgpack.MsgPackWriter.FIXARRAY
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
+import java.util.List;
 import okhttp3.RequestBody;
 
 public abstract class Payload {
@@ -50,9 +52,28 @@ public abstract class Payload {
 
   public abstract int sizeInBytes();
 
-  protected abstract void writeTo(WritableByteChannel channel) throws IOException;
+  /**
+   * The buffers making up the serialized payload, in order. These are sent as they are, without
+   * being copied into a single buffer first.
+   */
+  protected abstract List<ByteBuffer> buffers();
+
+  /**
+   * Writes the payload without consuming its buffers, so it can be written again, e.g. if the
+   * request needs to be retried.
+   */
+  protected void writeTo(WritableByteChannel channel) throws IOException {
+    for (ByteBuffer buffer : buffers()) {
+      ByteBuffer duplicate = buffer.duplicate();
+      while (duplicate.hasRemaining()) {
+        channel.write(duplicate);
+      }
+    }
+  }
 
-  protected abstract RequestBody toRequest();
+  protected RequestBody toRequest() {
+    return msgpackRequestBodyOf(buffers());
+  }
 
   protected int msgpackArrayHeaderSize(int count) {
     if (count < 0x10) {
@@ -0,0 +1,137 @@
+package datadog.trace.common.writer.ddagent;
+
+import datadog.communication.serialization.GrowableBuffer;
+import datadog.communication.serialization.Mapper;
+import datadog.communication.serialization.Writable;
+import datadog.communication.serialization.WritableFormatter;
+import datadog.communication.serialization.msgpack.MsgPackWriter;
+import java.nio.ByteBuffer;
+
+/**
+ * The string dictionary of a v0.5 payload, which remembers the msgpack encoding of the strings it
+ * has seen across payloads.
+ *
+ * <p>Each payload needs its own dictionary, but the same service names, operation names, resource
+ * names and tag keys tend to recur in every payload. Strings are held in a bounded, direct-mapped
+ * table of the keys, their encoded bytes and the code they were given in the current payload, so
+ * encoding a string which has been seen before is a table lookup and a copy of its bytes into the
+ * dictionary the first time it occurs in a payload, with no allocation. Codes are invalidated in
+ * bulk on {@link #reset()} by moving on to the next generation rather than clearing the table.
+ *
+ * <p>When two strings map to the same slot the older one is evicted. If the evicted string occurs
+ * again in the same payload it is added to the dictionary a second time, which wastes a few bytes
+ * but is otherwise harmless.
+ */
+final class PayloadDictionary {
+
+  static final int DEFAULT_CAPACITY = 4096;
+  // longer strings are still deduplicated within a payload, but their bytes aren't kept
+  static final int MAX_CACHED_LENGTH = 256;
+
+  private final GrowableBuffer dictionary;
+  private final GrowableBuffer scratch = new GrowableBuffer(MAX_CACHED_LENGTH);
+  private final WritableFormatter scratchWriter = new MsgPackWriter(scratch);
+  private final WritableFormatter dictionaryWriter;
+
+  private final int mask;
+  private final Object[] keys;
+  private final byte[][] encodings;
+  private final int[] codes;
+  private final int[] generations;
+  private int generation = 1;
+
+  PayloadDictionary(int initialBufferSize) {
+    this(initialBufferSize, DEFAULT_CAPACITY);
+  }
+
+  PayloadDictionary(int initialBufferSize, int capacity) {
+    int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+    this.dictionary = new GrowableBuffer(initialBufferSize);
+    this.dictionaryWriter = new MsgPackWriter(dictionary);
+    this.mask = size - 1;
+    this.keys = new Object[size];
+    this.encodings = new byte[size][];
+    this.codes = new int[size];
+    this.generations = new int[size];
+  }
+
+  /**
+   * @return the code of the value in this payload's dictionary, adding it to the dictionary if
+   *     necessary
+   */
+  int encode(Object value) {
+    Object key = toKey(value);
+    int hash = key.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    Object existing = keys[slot];
+    if (existing == key || (null != existing && key.equals(existing))) {
+      if (generations[slot] == generation) {
+        return codes[slot];
+      }
+      byte[] encoding = encodings[slot];
+      if (null != encoding) {
+        dictionary.put(encoding);
+        dictionary.mark();
+      } else {
+        dictionaryWriter.format(key, StringMapper.INSTANCE);
+      }
+    } else {
+      keys[slot] = key;
+      encodings[slot] = add(key);
+    }
+    int code = dictionary.messageCount() - 1;
+    codes[slot] = code;
+    generations[slot] = generation;
+    return code;
+  }
+
+  private byte[] add(Object key) {
+    if (key instanceof CharSequence && ((CharSequence) key).length() > MAX_CACHED_LENGTH) {
+      dictionaryWriter.format(key, StringMapper.INSTANCE);
+      return null;
+    }
+    scratch.reset();
+    scratchWriter.format(key, StringMapper.INSTANCE);
+    ByteBuffer encoded = scratch.slice();
+    byte[] encoding = new byte[encoded.remaining()];
+    encoded.get(encoding);
+    dictionary.put(encoding);
+    dictionary.mark();
+    return encoding;
+  }
+
+  ByteBuffer slice() {
+    return dictionary.slice();
+  }
+
+  int size() {
+    return dictionary.messageCount();
+  }
+
+  void reset() {
+    dictionary.reset();
+    ++generation;
+  }
+
+  private static Object toKey(Object value) {
+    if (null == value) {
+      return "";
+    }
+    // only keep immutable values, anything else is encoded as a string anyway, and a
+    // UTF8BytesString is keyed by its text so that it shares the entry of the equal String
+    if (value instanceof String || value instanceof Boolean) {
+      return value;
+    }
+    return String.valueOf(value);
+  }
+
+  private static final class StringMapper implements Mapper<Object> {
+
+    static final StringMapper INSTANCE = new StringMapper();
+
+    @Override
+    public void map(final Object data, final Writable packer) {
+      packer.writeString(String.valueOf(data), null);
+    }
+  }
+}
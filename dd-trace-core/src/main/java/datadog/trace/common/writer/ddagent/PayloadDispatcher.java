@@ -24,15 +24,15 @@ public class PayloadDispatcher implements ByteBufferConsumer {
   private final DDAgentFeaturesDiscovery featuresDiscovery;
   private final HealthMetrics healthMetrics;
   private final Monitoring monitoring;
+  // serializes sends from dispatchers forked from the same dispatcher
+  private final Object sendLock;
 
   private Recording batchTimer;
   private TraceMapper traceMapper;
   private WritableFormatter packer;
 
-  private final FixedSizeStripedLongCounter droppedSpanCount =
-      CountersFactory.createFixedSizeStripedCounter(8);
-  private final FixedSizeStripedLongCounter droppedTraceCount =
-      CountersFactory.createFixedSizeStripedCounter(8);
+  private final FixedSizeStripedLongCounter droppedSpanCount;
+  private final FixedSizeStripedLongCounter droppedTraceCount;
 
   public PayloadDispatcher(
       DDAgentFeaturesDiscovery featuresDiscovery,
@@ -43,6 +43,24 @@ public class PayloadDispatcher implements ByteBufferConsumer {
     this.api = api;
     this.healthMetrics = healthMetrics;
     this.monitoring = monitoring;
+    this.sendLock = new Object();
+    this.droppedSpanCount = CountersFactory.createFixedSizeStripedCounter(8);
+    this.droppedTraceCount = CountersFactory.createFixedSizeStripedCounter(8);
+  }
+
+  /**
+   * Creates a dispatcher with its own trace mapper and buffer, which sends through the same API as
+   * {@code parent}. Payloads are sent by one dispatcher at a time, and dropped traces are counted
+   * once, by whichever dispatcher sends next.
+   */
+  PayloadDispatcher(PayloadDispatcher parent) {
+    this.featuresDiscovery = parent.featuresDiscovery;
+    this.api = parent.api;
+    this.healthMetrics = parent.healthMetrics;
+    this.monitoring = parent.monitoring;
+    this.sendLock = parent.sendLock;
+    this.droppedSpanCount = parent.droppedSpanCount;
+    this.droppedTraceCount = parent.droppedTraceCount;
   }
 
   void flush() {
@@ -100,10 +118,14 @@ public class PayloadDispatcher implements ByteBufferConsumer {
     // or when the packer is flushed at a heartbeat
     if (messageCount > 0) {
       batchTimer.reset();
-      Payload payload = newPayload(messageCount, buffer);
-      final int sizeInBytes = payload.sizeInBytes();
-      healthMetrics.onSerialize(sizeInBytes);
-      DDAgentApi.Response response = api.sendSerializedTraces(payload);
+      final DDAgentApi.Response response;
+      final int sizeInBytes;
+      synchronized (sendLock) {
+        Payload payload = newPayload(messageCount, buffer);
+        sizeInBytes = payload.sizeInBytes();
+        healthMetrics.onSerialize(sizeInBytes);
+        response = api.sendSerializedTraces(payload);
+      }
       traceMapper.reset();
       if (response.success()) {
         if (log.isDebugEnabled()) {
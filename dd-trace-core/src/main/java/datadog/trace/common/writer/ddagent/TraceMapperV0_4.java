@@ -1,6 +1,5 @@
 package datadog.trace.common.writer.ddagent;
 
-import static datadog.communication.http.OkHttpUtils.msgpackRequestBodyOf;
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
 
 import datadog.communication.serialization.Writable;
@@ -8,13 +7,11 @@ import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags;
 import datadog.trace.core.CoreSpan;
 import datadog.trace.core.Metadata;
 import datadog.trace.core.MetadataConsumer;
-import java.io.IOException;
+import datadog.trace.core.NumericTags;
 import java.nio.ByteBuffer;
-import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import okhttp3.RequestBody;
 
 public final class TraceMapperV0_4 implements TraceMapper {
 
@@ -62,6 +59,7 @@ public final class TraceMapperV0_4 implements TraceMapper {
           (metadata.hasSamplingPriority() ? 1 : 0)
               + (metadata.measured() ? 1 : 0)
               + (metadata.topLevel() ? 1 : 0)
+              + metadata.getNumericTags().size()
               + 1;
       for (Map.Entry<String, Object> tag : metadata.getTags().entrySet()) {
         if (tag.getValue() instanceof Number) {
@@ -91,6 +89,11 @@ public final class TraceMapperV0_4 implements TraceMapper {
           writable.writeObject(entry.getValue(), null);
         }
       }
+      NumericTags numericTags = metadata.getNumericTags();
+      for (int i = 0; i < numericTags.size(); ++i) {
+        writable.writeString(numericTags.name(i), null);
+        numericTags.writeValue(i, writable);
+      }
 
       writable.writeUTF8(META);
       writable.startMap(metaSize);
@@ -188,19 +191,8 @@ public final class TraceMapperV0_4 implements TraceMapper {
     }
 
     @Override
-    protected void writeTo(WritableByteChannel channel) throws IOException {
-      ByteBuffer header = msgpackArrayHeader(traceCount());
-      while (header.hasRemaining()) {
-        channel.write(header);
-      }
-      while (body.hasRemaining()) {
-        channel.write(body);
-      }
-    }
-
-    @Override
-    protected RequestBody toRequest() {
-      return msgpackRequestBodyOf(Arrays.asList(msgpackArrayHeader(traceCount()), body));
+    protected List<ByteBuffer> buffers() {
+      return Arrays.asList(msgpackArrayHeader(traceCount()), body);
     }
   }
 }
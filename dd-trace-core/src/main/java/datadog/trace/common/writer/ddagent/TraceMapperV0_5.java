@@ -1,32 +1,19 @@
 package datadog.trace.common.writer.ddagent;
 
-import static datadog.communication.http.OkHttpUtils.msgpackRequestBodyOf;
-
-import datadog.communication.serialization.GrowableBuffer;
-import datadog.communication.serialization.Mapper;
 import datadog.communication.serialization.Writable;
-import datadog.communication.serialization.WritableFormatter;
-import datadog.communication.serialization.msgpack.MsgPackWriter;
 import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags;
-import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString;
 import datadog.trace.core.CoreSpan;
 import datadog.trace.core.Metadata;
 import datadog.trace.core.MetadataConsumer;
-import java.io.IOException;
+import datadog.trace.core.NumericTags;
 import java.nio.ByteBuffer;
-import java.nio.channels.WritableByteChannel;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import okhttp3.RequestBody;
 
 public final class TraceMapperV0_5 implements TraceMapper {
 
-  private final WritableFormatter dictionaryWriter;
-  private final DictionaryMapper dictionaryMapper = new DictionaryMapper();
-  private final Map<Object, Integer> encoding = new HashMap<>();
-  private final GrowableBuffer dictionary;
+  private final PayloadDictionary dictionary;
 
   private final MetaWriter metaWriter = new MetaWriter();
   private final int size;
@@ -38,8 +25,7 @@ public final class TraceMapperV0_5 implements TraceMapper {
   public TraceMapperV0_5(int dictionarySize, int bufferSize) {
     // growable buffer is implicitly bounded by the fixed size buffer
     // the messages themselves are written into
-    this.dictionary = new GrowableBuffer(bufferSize);
-    this.dictionaryWriter = new MsgPackWriter(dictionary);
+    this.dictionary = new PayloadDictionary(bufferSize);
     this.size = bufferSize;
     reset();
   }
@@ -79,23 +65,14 @@ public final class TraceMapperV0_5 implements TraceMapper {
   }
 
   private void writeDictionaryEncoded(final Writable writable, final Object value) {
-    final Object target = null == value ? "" : value;
-    final Integer encoded = encoding.get(target);
-    if (null == encoded) {
-      dictionaryWriter.format(target, dictionaryMapper);
-      final int dictionaryCode = dictionary.messageCount() - 1;
-      encoding.put(target, dictionaryCode);
-      // this call can fail, but the dictionary has been written to now
-      // so should make sure dictionary state is consistent first
-      writable.writeInt(dictionaryCode);
-    } else {
-      writable.writeInt(encoded);
-    }
+    // this call can fail, but the dictionary has been written to by
+    // now so its state is consistent whatever happens to the message
+    writable.writeInt(dictionary.encode(value));
   }
 
   @Override
   public Payload newPayload() {
-    return new PayloadV0_5(dictionary.slice(), dictionary.messageCount());
+    return new PayloadV0_5(dictionary.slice(), dictionary.size());
   }
 
   @Override
@@ -106,7 +83,6 @@ public final class TraceMapperV0_5 implements TraceMapper {
   @Override
   public void reset() {
     dictionary.reset();
-    encoding.clear();
   }
 
   @Override
@@ -114,18 +90,6 @@ public final class TraceMapperV0_5 implements TraceMapper {
     return "v0.5";
   }
 
-  private static class DictionaryMapper implements Mapper<Object> {
-
-    @Override
-    public void map(final Object data, final Writable packer) {
-      if (data instanceof UTF8BytesString) {
-        packer.writeObject(data, null);
-      } else {
-        packer.writeString(String.valueOf(data), null);
-      }
-    }
-  }
-
   private static class PayloadV0_5 extends Payload {
 
     private final ByteBuffer dictionary;
@@ -146,27 +110,12 @@ public final class TraceMapperV0_5 implements TraceMapper {
     }
 
     @Override
-    protected void writeTo(WritableByteChannel channel) throws IOException {
-      for (ByteBuffer buffer : toList()) {
-        while (buffer.hasRemaining()) {
-          channel.write(buffer);
-        }
-      }
-    }
-
-    @Override
-    protected RequestBody toRequest() {
-      return msgpackRequestBodyOf(toList());
-    }
-
-    private List<ByteBuffer> toList() {
-      return Arrays.asList(
-          // msgpack array header with 2 elements (FIXARRAY | 2)
-          ByteBuffer.allocate(1).put(0, (byte) 0x92),
-          msgpackArrayHeader(stringCount),
-          dictionary,
-          msgpackArrayHeader(traceCount()),
-          body);
+    protected List<ByteBuffer> buffers() {
+      ByteBuffer dictionaryHeader = msgpackArrayHeader(stringCount);
+      ByteBuffer header = ByteBuffer.allocate(1 + dictionaryHeader.remaining());
+      // msgpack array header with 2 elements (FIXARRAY | 2)
+      header.put((byte) 0x92).put(dictionaryHeader).flip();
+      return Arrays.asList(header, dictionary, msgpackArrayHeader(traceCount()), body);
     }
   }
 
@@ -191,6 +140,7 @@ public final class TraceMapperV0_5 implements TraceMapper {
           (metadata.hasSamplingPriority() ? 1 : 0)
               + (metadata.measured() ? 1 : 0)
               + (metadata.topLevel() ? 1 : 0)
+              + metadata.getNumericTags().size()
               + 1;
       for (Map.Entry<String, Object> tag : metadata.getTags().entrySet()) {
         if (tag.getValue() instanceof Number) {
@@ -243,6 +193,11 @@ public final class TraceMapperV0_5 implements TraceMapper {
           writable.writeObject(entry.getValue(), null);
         }
       }
+      NumericTags numericTags = metadata.getNumericTags();
+      for (int i = 0; i < numericTags.size(); ++i) {
+        writeDictionaryEncoded(writable, numericTags.name(i));
+        numericTags.writeValue(i, writable);
+      }
     }
   }
 }
@@ -33,6 +33,7 @@ public class TraceProcessingWorker implements AutoCloseable {
   private final MpscBlockingConsumerArrayQueue<Object> secondaryQueue;
   private final TraceSerializingHandler serializingHandler;
   private final Thread serializerThread;
+  private final ParallelPayloadDispatcher parallelDispatcher;
   private final int capacity;
 
   public TraceProcessingWorker(
@@ -43,18 +44,56 @@ public class TraceProcessingWorker implements AutoCloseable {
       final Prioritization prioritization,
       final long flushInterval,
       final TimeUnit timeUnit) {
+    this(
+        capacity,
+        healthMetrics,
+        dispatcher,
+        droppingPolicy,
+        prioritization,
+        flushInterval,
+        timeUnit,
+        1);
+  }
+
+  /**
+   * @param serializerCount when greater than one, the trace processor thread only takes traces from
+   *     the queues and hands them to this many serializer threads, which each serialize into their
+   *     own buffer and send through {@code dispatcher}'s API.
+   */
+  public TraceProcessingWorker(
+      final int capacity,
+      final HealthMetrics healthMetrics,
+      final PayloadDispatcher dispatcher,
+      final DroppingPolicy droppingPolicy,
+      final Prioritization prioritization,
+      final long flushInterval,
+      final TimeUnit timeUnit,
+      final int serializerCount) {
     this.capacity = capacity;
     this.primaryQueue = createQueue(capacity);
     this.secondaryQueue = createQueue(capacity);
     this.prioritizationStrategy =
         prioritization.create(primaryQueue, secondaryQueue, droppingPolicy);
+    this.parallelDispatcher =
+        serializerCount > 1
+            ? new ParallelPayloadDispatcher(
+                dispatcher, healthMetrics, serializerCount, Math.max(16, capacity / serializerCount))
+            : null;
     this.serializingHandler =
         new TraceSerializingHandler(
-            primaryQueue, secondaryQueue, healthMetrics, dispatcher, flushInterval, timeUnit);
+            primaryQueue,
+            secondaryQueue,
+            healthMetrics,
+            null == parallelDispatcher ? dispatcher : parallelDispatcher,
+            flushInterval,
+            timeUnit);
     this.serializerThread = newAgentThread(TRACE_PROCESSOR, serializingHandler);
   }
 
   public void start() {
+    if (null != parallelDispatcher) {
+      parallelDispatcher.start();
+    }
     this.serializerThread.start();
   }
 
@@ -80,6 +119,9 @@ public class TraceProcessingWorker implements AutoCloseable {
       serializerThread.join(THREAD_JOIN_TIMOUT_MS);
     } catch (InterruptedException ignored) {
     }
+    if (null != parallelDispatcher) {
+      parallelDispatcher.close();
+    }
   }
 
   public <T extends CoreSpan<T>> boolean publish(
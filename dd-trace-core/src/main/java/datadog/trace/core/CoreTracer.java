@@ -1,6 +1,5 @@
 package datadog.trace.core;
 
-import static datadog.communication.monitor.DDAgentStatsDClientManager.statsDClientManager;
 import static datadog.trace.api.ConfigDefaults.DEFAULT_ASYNC_PROPAGATING;
 import static datadog.trace.common.metrics.MetricsAggregatorFactory.createMetricsAggregator;
 import static datadog.trace.util.AgentThreadFactory.AGENT_THREAD_GROUP;
@@ -8,6 +7,7 @@ import static datadog.trace.util.CollectionUtils.tryMakeImmutableMap;
 
 import datadog.communication.ddagent.DDAgentFeaturesDiscovery;
 import datadog.communication.ddagent.SharedCommunicationObjects;
+import datadog.communication.monitor.HealthMetricsStatsD;
 import datadog.communication.monitor.Monitoring;
 import datadog.communication.monitor.Recording;
 import datadog.trace.api.Checkpointer;
@@ -16,7 +16,6 @@ import datadog.trace.api.DDId;
 import datadog.trace.api.IdGenerationStrategy;
 import datadog.trace.api.SamplingCheckpointer;
 import datadog.trace.api.StatsDClient;
-import datadog.trace.api.config.GeneralConfig;
 import datadog.trace.api.gateway.InstrumentationGateway;
 import datadog.trace.api.gateway.RequestContext;
 import datadog.trace.api.interceptor.MutableSpan;
@@ -76,12 +75,6 @@ public class CoreTracer implements AgentTracer.TracerAPI {
     return new CoreTracerBuilder();
   }
 
-  private static final String LANG_STATSD_TAG = "lang";
-  private static final String LANG_VERSION_STATSD_TAG = "lang_version";
-  private static final String LANG_INTERPRETER_STATSD_TAG = "lang_interpreter";
-  private static final String LANG_INTERPRETER_VENDOR_STATSD_TAG = "lang_interpreter_vendor";
-  private static final String TRACER_VERSION_STATSD_TAG = "tracer_version";
-
   private final PendingTraceBuffer pendingTraceBuffer;
 
   /** Default service name if none provided on the trace or span */
@@ -392,7 +385,7 @@ public class CoreTracer implements AgentTracer.TracerAPI {
     if (statsDClient != null) {
       this.statsDClient = statsDClient;
     } else if (writer == null || writer instanceof DDAgentWriter) {
-      this.statsDClient = createStatsDClient(config);
+      this.statsDClient = HealthMetricsStatsD.createClient(config, DDTraceCoreInfo.VERSION);
     } else {
       // avoid creating internal StatsD client when using external trace writer
       this.statsDClient = StatsDClient.NO_OP;
@@ -741,56 +734,10 @@ public class CoreTracer implements AgentTracer.TracerAPI {
     writer.flush();
   }
 
-  private static StatsDClient createStatsDClient(final Config config) {
-    if (!config.isHealthMetricsEnabled()) {
-      return StatsDClient.NO_OP;
-    } else {
-      String host = config.getHealthMetricsStatsdHost();
-      if (host == null) {
-        host = config.getJmxFetchStatsdHost();
-      }
-      Integer port = config.getHealthMetricsStatsdPort();
-      if (port == null) {
-        port = config.getJmxFetchStatsdPort();
-      }
-
-      return statsDClientManager()
-          .statsDClient(host, port, "datadog.tracer", generateConstantTags(config));
-    }
-  }
-
-  private static String[] generateConstantTags(final Config config) {
-    final List<String> constantTags = new ArrayList<>();
-
-    constantTags.add(statsdTag(LANG_STATSD_TAG, "java"));
-    constantTags.add(statsdTag(LANG_VERSION_STATSD_TAG, DDTraceCoreInfo.JAVA_VERSION));
-    constantTags.add(statsdTag(LANG_INTERPRETER_STATSD_TAG, DDTraceCoreInfo.JAVA_VM_NAME));
-    constantTags.add(statsdTag(LANG_INTERPRETER_VENDOR_STATSD_TAG, DDTraceCoreInfo.JAVA_VM_VENDOR));
-    constantTags.add(statsdTag(TRACER_VERSION_STATSD_TAG, DDTraceCoreInfo.VERSION));
-    constantTags.add(statsdTag("service", config.getServiceName()));
-
-    final Map<String, String> mergedSpanTags = config.getMergedSpanTags();
-    final String version = mergedSpanTags.get(GeneralConfig.VERSION);
-    if (version != null && !version.isEmpty()) {
-      constantTags.add(statsdTag("version", version));
-    }
-
-    final String env = mergedSpanTags.get(GeneralConfig.ENV);
-    if (env != null && !env.isEmpty()) {
-      constantTags.add(statsdTag("env", env));
-    }
-
-    return constantTags.toArray(new String[0]);
-  }
-
   Recording writeTimer() {
     return traceWriteTimer.start();
   }
 
-  private static String statsdTag(final String tagPrefix, final String tagValue) {
-    return tagPrefix + ":" + tagValue;
-  }
-
   /** Spans are built using this builder */
   public class CoreSpanBuilder implements AgentTracer.SpanBuilder {
     private final CharSequence operationName;
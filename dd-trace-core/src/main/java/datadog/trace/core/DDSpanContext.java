@@ -68,9 +68,12 @@ public class DDSpanContext implements AgentSpan.Context {
    * ConcurrentHashMap is that even though the tags can be accessed and modified from multiple
    * threads, they will rarely, if ever, be read and modified concurrently by multiple threads but
    * rather read and accessed in a serial fashion on thread after thread. The synchronization can
-   * then be wrapped around bulk operations to minimize the costly atomic operations.
+   * then be wrapped around bulk operations to minimize the costly atomic operations. Serialization
+   * also relies on the lock, since the number of tags is written before the tags themselves.
    */
-  private final Map<String, Object> unsafeTags;
+  private final TagMap unsafeTags;
+  /** Numeric tags set as primitives, guarded by the same lock as {@link #unsafeTags} */
+  private final NumericTags numericTags = new NumericTags();
 
   /** The service name is required, otherwise the span are dropped by the agent */
   private volatile String serviceName;
@@ -138,10 +141,8 @@ public class DDSpanContext implements AgentSpan.Context {
 
     this.requestContext = requestContext;
 
-    // The +1 is the magic number from the tags below that we set at the end,
-    // and "* 4 / 3" is to make sure that we don't resize immediately
-    final int capacity = Math.max((tagsSize <= 0 ? 3 : (tagsSize + 1)) * 4 / 3, 8);
-    this.unsafeTags = new HashMap<>(capacity);
+    // The +1 is the magic number from the tags below that we set at the end
+    this.unsafeTags = new TagMap(tagsSize <= 0 ? 3 : (tagsSize + 1));
 
     setServiceName(serviceName);
     this.operationName = operationName;
@@ -380,6 +381,68 @@ public class DDSpanContext implements AgentSpan.Context {
     }
   }
 
+  public void setMetric(final CharSequence key, final short value) {
+    // rare, so keep the previously observable Short rather than widening it
+    setMetric(key, (Number) value);
+  }
+
+  public void setMetric(final CharSequence key, final int value) {
+    String name = key.toString();
+    synchronized (unsafeTags) {
+      removeObjectTag(name);
+      numericTags.put(name, value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final long value) {
+    String name = key.toString();
+    synchronized (unsafeTags) {
+      removeObjectTag(name);
+      numericTags.put(name, value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final float value) {
+    String name = key.toString();
+    synchronized (unsafeTags) {
+      removeObjectTag(name);
+      numericTags.put(name, value);
+    }
+  }
+
+  public void setMetric(final CharSequence key, final double value) {
+    String name = key.toString();
+    synchronized (unsafeTags) {
+      removeObjectTag(name);
+      numericTags.put(name, value);
+    }
+  }
+
+  /** Sets a numeric tag without boxing the value, unless the tag needs to be intercepted. */
+  public void setTag(final String tag, final int value) {
+    if (trace.getTracer().getTagInterceptor().needsIntercept(tag)) {
+      setTag(tag, (Object) value);
+    } else {
+      setMetric(tag, value);
+    }
+  }
+
+  public void setTag(final String tag, final long value) {
+    if (trace.getTracer().getTagInterceptor().needsIntercept(tag)) {
+      setTag(tag, (Object) value);
+    } else {
+      setMetric(tag, value);
+    }
+  }
+
+  public void setTag(final String tag, final double value) {
+    if (trace.getTracer().getTagInterceptor().needsIntercept(tag)) {
+      setTag(tag, (Object) value);
+    } else {
+      setMetric(tag, value);
+    }
+  }
+
   /**
    * Add a tag to the span. Tags are not propagated to the children
    *
@@ -390,6 +453,7 @@ public class DDSpanContext implements AgentSpan.Context {
     if (null == value || "".equals(value)) {
       synchronized (unsafeTags) {
         unsafeTags.remove(tag);
+        removeNumericTag(tag);
       }
     } else if (!trace.getTracer().getTagInterceptor().interceptTag(this, tag, value)) {
       synchronized (unsafeTags) {
@@ -414,9 +478,22 @@ public class DDSpanContext implements AgentSpan.Context {
   }
 
   void unsafeSetTag(final String tag, final Object value) {
+    removeNumericTag(tag);
     unsafeTags.put(tag, value);
   }
 
+  private void removeObjectTag(final String tag) {
+    if (!unsafeTags.isEmpty()) {
+      unsafeTags.remove(tag);
+    }
+  }
+
+  private void removeNumericTag(final String tag) {
+    if (numericTags.size() > 0) {
+      numericTags.remove(tag);
+    }
+  }
+
   Object getTag(final String key) {
     switch (key) {
       case DDTags.THREAD_ID:
@@ -441,12 +518,16 @@ public class DDSpanContext implements AgentSpan.Context {
    * @return the value associated with the tag
    */
   public Object unsafeGetTag(final String tag) {
-    return unsafeTags.get(tag);
+    Object value = unsafeTags.get(tag);
+    return null != value || numericTags.size() == 0 ? value : numericTags.get(tag);
   }
 
   public Map<String, Object> getTags() {
     synchronized (unsafeTags) {
       Map<String, Object> tags = new HashMap<>(unsafeTags);
+      for (int i = 0; i < numericTags.size(); ++i) {
+        tags.put(numericTags.name(i), numericTags.value(i));
+      }
       tags.put(DDTags.THREAD_ID, threadId);
       tags.put(DDTags.THREAD_NAME, threadName.toString());
       if (samplingPriorityV1 != UNSET) {
@@ -466,6 +547,7 @@ public class DDSpanContext implements AgentSpan.Context {
               threadId,
               threadName,
               unsafeTags,
+              numericTags,
               baggageItems,
               samplingPriorityV1,
               measured,
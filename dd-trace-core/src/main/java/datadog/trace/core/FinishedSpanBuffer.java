@@ -0,0 +1,178 @@
+package datadog.trace.core;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Accumulates the finished spans of a {@link PendingTrace} in a linked list of array chunks.
+ *
+ * <p>Any number of threads may {@link #add(DDSpan)} concurrently: each one claims a slot in the
+ * current chunk with a single atomic increment, so there is no node allocated per span and no CAS
+ * loop on a shared head as spans finish. Chunks start small and double in size up to {@link
+ * #MAX_CHUNK_SIZE} so that small traces stay small.
+ *
+ * <p>Only one thread at a time may {@link #drain(List)}, which the caller must ensure. Draining
+ * stops at a slot which has been claimed but not yet filled; that span will be drained by a later
+ * call, which the span's publisher is guaranteed to trigger when it decrements the pending
+ * reference count.
+ */
+final class FinishedSpanBuffer implements Iterable<DDSpan> {
+
+  static final int MIN_CHUNK_SIZE = 4;
+  static final int MAX_CHUNK_SIZE = 64;
+
+  private static final AtomicReferenceFieldUpdater<FinishedSpanBuffer, Chunk> TAIL =
+      AtomicReferenceFieldUpdater.newUpdater(FinishedSpanBuffer.class, Chunk.class, "tail");
+
+  private volatile Chunk tail;
+  // only modified by the draining thread, but read by others
+  private volatile Chunk head;
+  private volatile int headIndex;
+
+  FinishedSpanBuffer() {
+    Chunk first = new Chunk(MIN_CHUNK_SIZE);
+    this.tail = first;
+    this.head = first;
+  }
+
+  void add(DDSpan span) {
+    while (true) {
+      Chunk chunk = tail;
+      int index = Chunk.CLAIMED.getAndIncrement(chunk);
+      if (index < chunk.capacity) {
+        chunk.spans.set(index, span);
+        return;
+      }
+      // the chunk is full, link a new one if nobody else has and move the tail on
+      Chunk next = chunk.next;
+      if (null == next) {
+        Chunk newChunk = new Chunk(Math.min(chunk.capacity << 1, MAX_CHUNK_SIZE));
+        next = Chunk.NEXT.compareAndSet(chunk, null, newChunk) ? newChunk : chunk.next;
+      }
+      TAIL.compareAndSet(this, chunk, next);
+    }
+  }
+
+  /**
+   * Moves the finished spans to the trace, newest first. Must only be called by one thread at a
+   * time.
+   *
+   * @return the number of spans drained
+   */
+  int drain(List<DDSpan> trace) {
+    int start = trace.size();
+    Chunk chunk = head;
+    int index = headIndex;
+    while (true) {
+      if (index == chunk.capacity) {
+        Chunk next = chunk.next;
+        if (null == next) {
+          break;
+        }
+        chunk = next;
+        index = 0;
+        continue;
+      }
+      DDSpan span = chunk.spans.get(index);
+      if (null == span) {
+        // not yet claimed, or claimed and not yet filled
+        break;
+      }
+      chunk.spans.lazySet(index, null);
+      trace.add(span);
+      ++index;
+    }
+    this.head = chunk;
+    this.headIndex = index;
+    int end = trace.size();
+    // spans are accumulated in the order they finished, but are written newest first
+    for (int i = start, j = end - 1; i < j; ++i, --j) {
+      trace.set(i, trace.set(j, trace.get(i)));
+    }
+    return end - start;
+  }
+
+  /** May be stale if spans are concurrently being added or drained. */
+  boolean isEmpty() {
+    return !iterator().hasNext();
+  }
+
+  /** Weakly consistent iteration over the spans which have not been drained yet. */
+  @Override
+  public Iterator<DDSpan> iterator() {
+    return new SpanIterator(head, headIndex);
+  }
+
+  private static final class Chunk {
+    static final AtomicIntegerFieldUpdater<Chunk> CLAIMED =
+        AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "claimed");
+    static final AtomicReferenceFieldUpdater<Chunk, Chunk> NEXT =
+        AtomicReferenceFieldUpdater.newUpdater(Chunk.class, Chunk.class, "next");
+
+    final int capacity;
+    final AtomicReferenceArray<DDSpan> spans;
+    volatile int claimed;
+    volatile Chunk next;
+
+    Chunk(int capacity) {
+      this.capacity = capacity;
+      this.spans = new AtomicReferenceArray<>(capacity);
+    }
+  }
+
+  private static final class SpanIterator implements Iterator<DDSpan> {
+    private Chunk chunk;
+    private int index;
+    private DDSpan next;
+
+    SpanIterator(Chunk chunk, int index) {
+      this.chunk = chunk;
+      this.index = Math.min(index, chunk.capacity);
+      advance();
+    }
+
+    private void advance() {
+      next = null;
+      while (null != chunk) {
+        if (index >= chunk.capacity) {
+          chunk = chunk.next;
+          index = 0;
+          continue;
+        }
+        DDSpan span = chunk.spans.get(index);
+        if (null == span) {
+          // nothing more has been filled yet
+          chunk = null;
+          return;
+        }
+        ++index;
+        next = span;
+        return;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return null != next;
+    }
+
+    @Override
+    public DDSpan next() {
+      DDSpan span = next;
+      if (null == span) {
+        throw new NoSuchElementException();
+      }
+      advance();
+      return span;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
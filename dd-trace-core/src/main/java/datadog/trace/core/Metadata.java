@@ -10,6 +10,7 @@ public final class Metadata {
   private final UTF8BytesString threadName;
   private final UTF8BytesString httpStatusCode;
   private final Map<String, Object> tags;
+  private final NumericTags numericTags;
   private final Map<String, String> baggage;
 
   private final int samplingPriority;
@@ -27,10 +28,35 @@ public final class Metadata {
       boolean topLevel,
       UTF8BytesString httpStatusCode,
       CharSequence origin) {
+    this(
+        threadId,
+        threadName,
+        tags,
+        NumericTags.EMPTY,
+        baggage,
+        samplingPriority,
+        measured,
+        topLevel,
+        httpStatusCode,
+        origin);
+  }
+
+  public Metadata(
+      long threadId,
+      UTF8BytesString threadName,
+      Map<String, Object> tags,
+      NumericTags numericTags,
+      Map<String, String> baggage,
+      int samplingPriority,
+      boolean measured,
+      boolean topLevel,
+      UTF8BytesString httpStatusCode,
+      CharSequence origin) {
     this.threadId = threadId;
     this.threadName = threadName;
     this.httpStatusCode = httpStatusCode;
     this.tags = tags;
+    this.numericTags = numericTags;
     this.baggage = baggage;
     this.samplingPriority = samplingPriority;
     this.measured = measured;
@@ -58,6 +84,11 @@ public final class Metadata {
     return tags;
   }
 
+  /** Numeric tags which were set as primitives, these are not in {@link #getTags()} */
+  public NumericTags getNumericTags() {
+    return numericTags;
+  }
+
   public Map<String, String> getBaggage() {
     return baggage;
   }
@@ -0,0 +1,158 @@
+package datadog.trace.core;
+
+import datadog.communication.serialization.Writable;
+import java.util.Arrays;
+
+/**
+ * The numeric tags of a span, held as primitives so that setting them and writing them out does
+ * not box the values.
+ *
+ * <p>Names are held in one array and the values in parallel {@code long[]} and {@code double[]}
+ * arrays, with the type the value was set as, so it can be written with the same msgpack type as
+ * the boxed value would have been. Spans rarely have more than a handful of numeric tags, so names
+ * are found by a linear scan, comparing by identity first since names are almost always constants.
+ * The arrays are only allocated when the first numeric tag is set.
+ *
+ * <p>Not thread-safe, {@link DDSpanContext} synchronizes access.
+ */
+public final class NumericTags {
+
+  public static final NumericTags EMPTY = new NumericTags();
+
+  static final byte INT = 0;
+  static final byte LONG = 1;
+  static final byte FLOAT = 2;
+  static final byte DOUBLE = 3;
+
+  private static final int INITIAL_CAPACITY = 4;
+
+  private String[] names;
+  private long[] longValues;
+  private double[] doubleValues;
+  private byte[] types;
+  private int size;
+
+  NumericTags() {}
+
+  public int size() {
+    return size;
+  }
+
+  public String name(int index) {
+    return names[index];
+  }
+
+  /** Writes the value at the index with the msgpack type matching the type it was set as. */
+  public void writeValue(int index, Writable writable) {
+    switch (types[index]) {
+      case INT:
+        writable.writeInt((int) longValues[index]);
+        break;
+      case LONG:
+        writable.writeLong(longValues[index]);
+        break;
+      case FLOAT:
+        writable.writeFloat((float) doubleValues[index]);
+        break;
+      default:
+        writable.writeDouble(doubleValues[index]);
+    }
+  }
+
+  /** Boxes the value at the index as the type it was set as. */
+  public Number value(int index) {
+    switch (types[index]) {
+      case INT:
+        return (int) longValues[index];
+      case LONG:
+        return longValues[index];
+      case FLOAT:
+        return (float) doubleValues[index];
+      default:
+        return doubleValues[index];
+    }
+  }
+
+  Number get(String name) {
+    int index = indexOf(name);
+    return index >= 0 ? value(index) : null;
+  }
+
+  void put(String name, int value) {
+    putLong(name, value, INT);
+  }
+
+  void put(String name, long value) {
+    putLong(name, value, LONG);
+  }
+
+  void put(String name, float value) {
+    putDouble(name, value, FLOAT);
+  }
+
+  void put(String name, double value) {
+    putDouble(name, value, DOUBLE);
+  }
+
+  boolean remove(String name) {
+    int index = indexOf(name);
+    if (index < 0) {
+      return false;
+    }
+    // order doesn't matter, so move the last tag into the gap
+    int last = --size;
+    names[index] = names[last];
+    longValues[index] = longValues[last];
+    doubleValues[index] = doubleValues[last];
+    types[index] = types[last];
+    names[last] = null;
+    return true;
+  }
+
+  private void putLong(String name, long value, byte type) {
+    int index = slotFor(name);
+    longValues[index] = value;
+    types[index] = type;
+  }
+
+  private void putDouble(String name, double value, byte type) {
+    int index = slotFor(name);
+    doubleValues[index] = value;
+    types[index] = type;
+  }
+
+  private int slotFor(String name) {
+    int index = indexOf(name);
+    if (index >= 0) {
+      return index;
+    }
+    if (null == names) {
+      names = new String[INITIAL_CAPACITY];
+      longValues = new long[INITIAL_CAPACITY];
+      doubleValues = new double[INITIAL_CAPACITY];
+      types = new byte[INITIAL_CAPACITY];
+    } else if (size == names.length) {
+      int capacity = size << 1;
+      names = Arrays.copyOf(names, capacity);
+      longValues = Arrays.copyOf(longValues, capacity);
+      doubleValues = Arrays.copyOf(doubleValues, capacity);
+      types = Arrays.copyOf(types, capacity);
+    }
+    names[size] = name;
+    return size++;
+  }
+
+  private int indexOf(String name) {
+    for (int i = 0; i < size; ++i) {
+      if (names[i] == name) {
+        return i;
+      }
+    }
+    for (int i = 0; i < size; ++i) {
+      if (names[i].equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
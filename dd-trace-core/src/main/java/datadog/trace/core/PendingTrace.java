@@ -7,7 +7,6 @@ import datadog.trace.bootstrap.instrumentation.api.AgentTrace;
 import datadog.trace.core.util.Clock;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import javax.annotation.Nonnull;
@@ -66,9 +65,9 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
   /** Nano second ticks value at trace start */
   private final long startNanoTicks;
 
-  private final ConcurrentLinkedDeque<DDSpan> finishedSpans = new ConcurrentLinkedDeque<>();
+  private final FinishedSpanBuffer finishedSpans = new FinishedSpanBuffer();
 
-  // We must maintain a separate count because ConcurrentLinkedDeque.size() is a linear operation.
+  // We must maintain a separate count because the buffer can't be sized without traversing it.
   private volatile int completedSpanCount = 0;
   private static final AtomicIntegerFieldUpdater<PendingTrace> COMPLETED_SPAN_COUNT =
       AtomicIntegerFieldUpdater.newUpdater(PendingTrace.class, "completedSpanCount");
@@ -150,7 +149,7 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
   }
 
   PublishState onPublish(final DDSpan span) {
-    finishedSpans.addFirst(span);
+    finishedSpans.add(span);
     // There is a benign race here where the span added above can get written out by a writer in
     // progress before the count has been incremented. It's being taken care of in the internal
     // write method.
@@ -254,11 +253,7 @@ public class PendingTrace implements AgentTrace, PendingTraceBuffer.Element {
           // was negative will be written by someone even if we don't write them right now.
           if (size > 0 && (!isPartial || size > tracer.getPartialFlushMinSpans())) {
             trace = new ArrayList<>(size);
-            DDSpan span = finishedSpans.pollFirst();
-            while (null != span) {
-              trace.add(span);
-              span = finishedSpans.pollFirst();
-            }
+            finishedSpans.drain(trace);
           } else {
             trace = EMPTY;
           }
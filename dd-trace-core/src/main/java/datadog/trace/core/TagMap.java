@@ -0,0 +1,267 @@
+package datadog.trace.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact map from tag names to values, used to hold the tags of a span.
+ *
+ * <p>Keys and values are stored in flat arrays with linear probing, so unlike a {@link
+ * java.util.HashMap} there is no node allocated per tag. Tag names are almost always constants, so
+ * keys are compared by identity before falling back to {@link String#equals(Object)}. Removal
+ * shifts the following entries back rather than leaving tombstones, which keeps lookups short for
+ * spans whose tags are overwritten and removed by several decorators.
+ *
+ * <p>Iterating over the entries allocates only the iterator: the entry returned by {@code next()}
+ * is reused, and is only valid until the next call. This is all serialization needs, and the
+ * methods of {@link AbstractMap} only use each entry before moving on to the next.
+ *
+ * <p>Not thread-safe, {@link DDSpanContext} synchronizes access.
+ */
+final class TagMap extends AbstractMap<String, Object> {
+
+  private static final int MIN_CAPACITY = 8;
+
+  private String[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+
+  TagMap(int expectedSize) {
+    allocate(capacityFor(expectedSize));
+  }
+
+  private static int capacityFor(int expectedSize) {
+    // keep the load factor below 3/4
+    int minimum = Math.max(MIN_CAPACITY, expectedSize + (expectedSize + 2) / 3);
+    return Integer.highestOneBit(minimum - 1) << 1;
+  }
+
+  private void allocate(int capacity) {
+    this.keys = new String[capacity];
+    this.values = new Object[capacity];
+    this.mask = capacity - 1;
+  }
+
+  private int slot(Object key) {
+    int hash = key.hashCode();
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  /** @return the index of the key, or the bitwise complement of the empty slot where it belongs */
+  private int indexOf(Object key) {
+    String[] keys = this.keys;
+    int i = slot(key);
+    while (true) {
+      String existing = keys[i];
+      if (null == existing) {
+        return ~i;
+      }
+      if (existing == key || existing.equals(key)) {
+        return i;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return null != key && indexOf(key) >= 0;
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (null == key) {
+      return null;
+    }
+    int index = indexOf(key);
+    return index >= 0 ? values[index] : null;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      Object previous = values[index];
+      values[index] = value;
+      return previous;
+    }
+    if (size + 1 > (keys.length >>> 2) * 3) {
+      resize(keys.length << 1);
+      index = indexOf(key);
+    }
+    index = ~index;
+    keys[index] = key;
+    values[index] = value;
+    ++size;
+    return null;
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (null == key) {
+      return null;
+    }
+    int index = indexOf(key);
+    if (index < 0) {
+      return null;
+    }
+    Object previous = values[index];
+    removeAt(index);
+    return previous;
+  }
+
+  private void removeAt(int index) {
+    String[] keys = this.keys;
+    Object[] values = this.values;
+    // shift back any following entries which would no longer be reachable
+    int gap = index;
+    int i = (index + 1) & mask;
+    String key;
+    while (null != (key = keys[i])) {
+      int home = slot(key);
+      // move the entry into the gap unless its home slot lies cyclically within (gap, i]
+      if (((i - home) & mask) >= ((i - gap) & mask)) {
+        keys[gap] = key;
+        values[gap] = values[i];
+        gap = i;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[gap] = null;
+    values[gap] = null;
+    --size;
+  }
+
+  private void resize(int capacity) {
+    String[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; ++i) {
+      String key = oldKeys[i];
+      if (null != key) {
+        int index = ~indexOf(key);
+        keys[index] = key;
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    if (size > 0) {
+      for (int i = 0; i < keys.length; ++i) {
+        keys[i] = null;
+        values[i] = null;
+      }
+      size = 0;
+    }
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new EntrySet();
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+    @Override
+    public Iterator<Entry<String, Object>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  private final class EntryIterator
+      implements Iterator<Entry<String, Object>>, Entry<String, Object> {
+    private int next = advance(0);
+    private int current = -1;
+
+    private int advance(int from) {
+      String[] keys = TagMap.this.keys;
+      for (int i = from; i < keys.length; ++i) {
+        if (null != keys[i]) {
+          return i;
+        }
+      }
+      return keys.length;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < keys.length;
+    }
+
+    @Override
+    public Entry<String, Object> next() {
+      if (next >= keys.length) {
+        throw new NoSuchElementException();
+      }
+      current = next;
+      next = advance(next + 1);
+      return this;
+    }
+
+    @Override
+    public void remove() {
+      // removal can shift a later entry back to before the cursor
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getKey() {
+      return keys[current];
+    }
+
+    @Override
+    public Object getValue() {
+      return values[current];
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      Object previous = values[current];
+      values[current] = value;
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+      Object value = getValue();
+      return getKey().equals(that.getKey())
+          && (null == value ? null == that.getValue() : value.equals(that.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      Object value = getValue();
+      return getKey().hashCode() ^ (null == value ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+}
@@ -88,13 +88,11 @@ class B3HttpCodec {
 
     private static final int TRACE_ID = 0;
     private static final int SPAN_ID = 1;
-    private static final int TAGS = 2;
-    private static final int SAMPLING_PRIORITY = 3;
-    private static final int B3_ID = 4;
-    private static final int IGNORE = -1;
+    private static final int SAMPLING_PRIORITY = 2;
+    private static final int B3_ID = 3;
 
     private B3ContextInterpreter(final Map<String, String> taggedHeaders) {
-      super(taggedHeaders);
+      super(taggedHeaders, TRACE_ID_KEY, SPAN_ID_KEY, SAMPLING_PRIORITY_KEY, B3_KEY);
     }
 
     @Override
@@ -105,29 +103,34 @@ class B3HttpCodec {
       if (LOG_EXTRACT_HEADER_NAMES) {
         log.debug("Header: {}", key);
       }
-      String lowerCaseKey = null;
-      int classification = IGNORE;
+      int classification = classify(key);
       // Prioritize b3 header. If b3 has already propagated traceId, spanId, and Sampling, we won't
       // overwrite those
-      if (B3_KEY.equals(key)) {
-        classification = B3_ID;
-      } else if (Character.toLowerCase(key.charAt(0)) == 'x') {
-        if ((traceId == null || traceId == DDId.ZERO) && TRACE_ID_KEY.equalsIgnoreCase(key)) {
-          classification = TRACE_ID;
-        } else if ((spanId == null || spanId == DDId.ZERO) && SPAN_ID_KEY.equalsIgnoreCase(key)) {
-          classification = SPAN_ID;
-        } else if (samplingPriority == defaultSamplingPriority()
-            && SAMPLING_PRIORITY_KEY.equalsIgnoreCase(key)) {
-          classification = SAMPLING_PRIORITY;
-        } else if (handledForwarding(key, value)) {
-          return true;
-        }
-      }
-      if (!taggedHeaders.isEmpty() && classification == IGNORE) {
-        lowerCaseKey = toLowerCase(key);
-        if (taggedHeaders.containsKey(lowerCaseKey)) {
-          classification = TAGS;
-        }
+      switch (classification) {
+        case B3_ID:
+          if (!B3_KEY.equals(key)) {
+            classification = IGNORE;
+          }
+          break;
+        case TRACE_ID:
+          if (traceId != null && traceId != DDId.ZERO) {
+            classification = IGNORE;
+          }
+          break;
+        case SPAN_ID:
+          if (spanId != null && spanId != DDId.ZERO) {
+            classification = IGNORE;
+          }
+          break;
+        case SAMPLING_PRIORITY:
+          if (samplingPriority != defaultSamplingPriority()) {
+            classification = IGNORE;
+          }
+          break;
+        default:
+          if (handledForwarding(classification, value)) {
+            return true;
+          }
       }
       if (classification != IGNORE) {
         try {
@@ -153,16 +156,9 @@ class B3HttpCodec {
                 samplingPriority = convertSamplingPriority(firstValue);
                 break;
               case TAGS:
-                {
-                  final String mappedKey = taggedHeaders.get(lowerCaseKey);
-                  if (null != mappedKey) {
-                    if (tags.isEmpty()) {
-                      tags = new TreeMap<>();
-                    }
-                    tags.put(mappedKey, HttpCodec.decode(firstValue));
-                  }
-                  break;
-                }
+                addTag(firstValue);
+                break;
+              default:
             }
           }
         } catch (final RuntimeException e) {
@@ -2,7 +2,6 @@ package datadog.trace.core.propagation;
 
 import static datadog.trace.core.propagation.HttpCodec.FORWARDED_FOR_KEY;
 import static datadog.trace.core.propagation.HttpCodec.FORWARDED_HOST_KEY;
-import static datadog.trace.core.propagation.HttpCodec.FORWARDED_KEY;
 import static datadog.trace.core.propagation.HttpCodec.FORWARDED_PORT_KEY;
 import static datadog.trace.core.propagation.HttpCodec.FORWARDED_PROTO_KEY;
 
@@ -16,10 +15,21 @@ import datadog.trace.bootstrap.instrumentation.api.AgentPropagation;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 public abstract class ContextInterpreter implements AgentPropagation.KeyClassifier {
 
+  protected static final int IGNORE = -1;
+  // the classifications of the interpreter's own headers are the indexes of their names
+  private static final int FORWARDED_PROTO = 64;
+  private static final int FORWARDED_HOST = 65;
+  private static final int FORWARDED_FOR = 66;
+  private static final int FORWARDED_PORT = 67;
+  protected static final int TAGS = 68;
+
   protected final Map<String, String> taggedHeaders;
+  private final HeaderClassifier headers;
+  private String mappedTag;
 
   protected DDId traceId;
   protected DDId spanId;
@@ -41,8 +51,24 @@ public abstract class ContextInterpreter implements AgentPropagation.KeyClassifi
     return CACHE.computeIfAbsent(key, Functions.LowerCase.INSTANCE);
   }
 
-  protected ContextInterpreter(Map<String, String> taggedHeaders) {
+  /**
+   * @param taggedHeaders the headers to add as tags, and the tags to add them as
+   * @param headerNames the names of the headers the interpreter handles, which are classified as
+   *     their index
+   */
+  protected ContextInterpreter(Map<String, String> taggedHeaders, String... headerNames) {
     this.taggedHeaders = taggedHeaders;
+    this.headers = new HeaderClassifier(headerNames.length + 4 + taggedHeaders.size());
+    for (int i = 0; i < headerNames.length; ++i) {
+      headers.add(headerNames[i], i, null);
+    }
+    headers.add(FORWARDED_PROTO_KEY, FORWARDED_PROTO, null);
+    headers.add(FORWARDED_HOST_KEY, FORWARDED_HOST, null);
+    headers.add(FORWARDED_FOR_KEY, FORWARDED_FOR, null);
+    headers.add(FORWARDED_PORT_KEY, FORWARDED_PORT, null);
+    for (Map.Entry<String, String> taggedHeader : taggedHeaders.entrySet()) {
+      headers.add(taggedHeader.getKey(), TAGS, taggedHeader.getValue());
+    }
     reset();
   }
 
@@ -64,30 +90,51 @@ public abstract class ContextInterpreter implements AgentPropagation.KeyClassifi
     }
   }
 
-  protected final boolean handledForwarding(String key, String value) {
-    if (null != value) {
-      if (FORWARDED_KEY.equalsIgnoreCase(key)) {
-        forwarded = value;
-        return true;
-      }
-      if (FORWARDED_PROTO_KEY.equalsIgnoreCase(key)) {
+  /**
+   * Classifies the header without allocating.
+   *
+   * @return the index of the header in the interpreter's header names, {@link #TAGS} if it is a
+   *     tagged header, in which case {@link #addTag(String)} adds it as the tag it's mapped to, or
+   *     {@link #IGNORE}
+   */
+  protected final int classify(String key) {
+    int slot = headers.find(key);
+    if (slot < 0) {
+      return IGNORE;
+    }
+    mappedTag = headers.tag(slot);
+    return headers.classification(slot);
+  }
+
+  protected final boolean handledForwarding(int classification, String value) {
+    if (null == value) {
+      return false;
+    }
+    switch (classification) {
+      case FORWARDED_PROTO:
         forwardedProto = value;
         return true;
-      }
-      if (FORWARDED_HOST_KEY.equalsIgnoreCase(key)) {
+      case FORWARDED_HOST:
         forwardedHost = value;
         return true;
-      }
-      if (FORWARDED_FOR_KEY.equalsIgnoreCase(key)) {
+      case FORWARDED_FOR:
         forwardedIp = value;
         return true;
-      }
-      if (FORWARDED_PORT_KEY.equalsIgnoreCase(key)) {
+      case FORWARDED_PORT:
         forwardedPort = value;
         return true;
+      default:
+        return false;
+    }
+  }
+
+  protected final void addTag(String value) {
+    if (null != mappedTag) {
+      if (tags.isEmpty()) {
+        tags = new TreeMap<>();
       }
+      tags.put(mappedTag, HttpCodec.decode(value));
     }
-    return false;
   }
 
   public ContextInterpreter reset() {
@@ -63,12 +63,10 @@ class DatadogHttpCodec {
     private static final int SPAN_ID = 1;
     private static final int ORIGIN = 2;
     private static final int SAMPLING_PRIORITY = 3;
-    private static final int TAGS = 4;
-    private static final int OT_BAGGAGE = 5;
-    private static final int IGNORE = -1;
+    private static final int OT_BAGGAGE = 4;
 
     private DatadogContextInterpreter(Map<String, String> taggedHeaders) {
-      super(taggedHeaders);
+      super(taggedHeaders, TRACE_ID_KEY, SPAN_ID_KEY, ORIGIN_KEY, SAMPLING_PRIORITY_KEY);
     }
 
     @Override
@@ -79,36 +77,13 @@ class DatadogHttpCodec {
       if (LOG_EXTRACT_HEADER_NAMES) {
         log.debug("Header: {}", key);
       }
-      String lowerCaseKey = null;
-      int classification = IGNORE;
-      char first = Character.toLowerCase(key.charAt(0));
-      switch (first) {
-        case 'x':
-          if (TRACE_ID_KEY.equalsIgnoreCase(key)) {
-            classification = TRACE_ID;
-          } else if (SPAN_ID_KEY.equalsIgnoreCase(key)) {
-            classification = SPAN_ID;
-          } else if (SAMPLING_PRIORITY_KEY.equalsIgnoreCase(key)) {
-            classification = SAMPLING_PRIORITY;
-          } else if (ORIGIN_KEY.equalsIgnoreCase(key)) {
-            classification = ORIGIN;
-          } else if (handledForwarding(key, value)) {
-            return true;
-          }
-          break;
-        case 'o':
-          lowerCaseKey = toLowerCase(key);
-          if (lowerCaseKey.startsWith(OT_BAGGAGE_PREFIX)) {
-            classification = OT_BAGGAGE;
-          }
-          break;
-        default:
+      int classification = classify(key);
+      if (handledForwarding(classification, value)) {
+        return true;
       }
-      if (!taggedHeaders.isEmpty() && classification == IGNORE) {
-        lowerCaseKey = toLowerCase(key);
-        if (taggedHeaders.containsKey(lowerCaseKey)) {
-          classification = TAGS;
-        }
+      if ((classification == IGNORE || classification == TAGS)
+          && key.regionMatches(true, 0, OT_BAGGAGE_PREFIX, 0, OT_BAGGAGE_PREFIX.length())) {
+        classification = OT_BAGGAGE;
       }
       if (classification != IGNORE) {
         try {
@@ -128,23 +103,16 @@ class DatadogHttpCodec {
                 samplingPriority = Integer.parseInt(firstValue);
                 break;
               case TAGS:
-                {
-                  String mappedKey = taggedHeaders.get(lowerCaseKey);
-                  if (null != mappedKey) {
-                    if (tags.isEmpty()) {
-                      tags = new TreeMap<>();
-                    }
-                    tags.put(mappedKey, HttpCodec.decode(value));
-                  }
-                  break;
-                }
+                addTag(value);
+                break;
               case OT_BAGGAGE:
                 {
                   if (baggage.isEmpty()) {
                     baggage = new TreeMap<>();
                   }
                   baggage.put(
-                      lowerCaseKey.substring(OT_BAGGAGE_PREFIX.length()), HttpCodec.decode(value));
+                      toLowerCase(key).substring(OT_BAGGAGE_PREFIX.length()),
+                      HttpCodec.decode(value));
                 }
                 break;
               default:
@@ -116,12 +116,10 @@ public class HaystackHttpCodec {
     private static final int TRACE_ID = 0;
     private static final int SPAN_ID = 1;
     private static final int PARENT_ID = 2;
-    private static final int TAGS = 3;
-    private static final int BAGGAGE = 4;
-    private static final int IGNORE = -1;
+    private static final int BAGGAGE = 3;
 
     private HaystackContextInterpreter(Map<String, String> taggedHeaders) {
-      super(taggedHeaders);
+      super(taggedHeaders, TRACE_ID_KEY, SPAN_ID_KEY, PARENT_ID_KEY);
     }
 
     @Override
@@ -132,43 +130,13 @@ public class HaystackHttpCodec {
       if (LOG_EXTRACT_HEADER_NAMES) {
         log.debug("Header: {}", key);
       }
-      char first = Character.toLowerCase(key.charAt(0));
-      String lowerCaseKey = null;
-      int classification = IGNORE;
-      switch (first) {
-        case 't':
-          if (TRACE_ID_KEY.equalsIgnoreCase(key)) {
-            classification = TRACE_ID;
-          }
-          break;
-        case 's':
-          if (SPAN_ID_KEY.equalsIgnoreCase(key)) {
-            classification = SPAN_ID;
-          }
-          break;
-        case 'p':
-          if (PARENT_ID_KEY.equalsIgnoreCase(key)) {
-            classification = PARENT_ID;
-          }
-          break;
-        case 'x':
-          if (handledForwarding(key, value)) {
-            return true;
-          }
-          break;
-        case 'b':
-          lowerCaseKey = toLowerCase(key);
-          if (lowerCaseKey.startsWith(BAGGAGE_PREFIX_LC)) {
-            classification = BAGGAGE;
-          }
-          break;
-        default:
+      int classification = classify(key);
+      if (handledForwarding(classification, value)) {
+        return true;
       }
-      if (!taggedHeaders.isEmpty() && classification == IGNORE) {
-        lowerCaseKey = toLowerCase(key);
-        if (taggedHeaders.containsKey(lowerCaseKey)) {
-          classification = TAGS;
-        }
+      if ((classification == IGNORE || classification == TAGS)
+          && key.regionMatches(true, 0, BAGGAGE_PREFIX_LC, 0, BAGGAGE_PREFIX_LC.length())) {
+        classification = BAGGAGE;
       }
       if (IGNORE != classification) {
         try {
@@ -187,20 +155,13 @@ public class HaystackHttpCodec {
                 addBaggageItem(HAYSTACK_PARENT_ID_BAGGAGE_KEY, HttpCodec.decode(value));
                 break;
               case TAGS:
-                {
-                  String mappedKey = taggedHeaders.get(lowerCaseKey);
-                  if (null != mappedKey) {
-                    if (tags.isEmpty()) {
-                      tags = new TreeMap<>();
-                    }
-                    tags.put(mappedKey, HttpCodec.decode(value));
-                  }
-                  break;
-                }
+                addTag(value);
+                break;
               case BAGGAGE:
                 {
                   addBaggageItem(
-                      lowerCaseKey.substring(BAGGAGE_PREFIX_LC.length()), HttpCodec.decode(value));
+                      toLowerCase(key).substring(BAGGAGE_PREFIX_LC.length()),
+                      HttpCodec.decode(value));
                   break;
                 }
               default:
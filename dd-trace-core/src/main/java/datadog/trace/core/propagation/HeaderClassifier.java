@@ -0,0 +1,83 @@
+package datadog.trace.core.propagation;
+
+/**
+ * A case-insensitive lookup table from the header names a {@link ContextInterpreter} handles to
+ * their classification, and for tagged headers the tag they are mapped to.
+ *
+ * <p>Most headers of a request aren't handled, so lookups need to be cheap and must not allocate.
+ * Names are hashed by folding the case of each character as it's read, so the header name never
+ * has to be lower-cased, and are compared with {@link String#regionMatches(boolean, int, String,
+ * int, int)}. The table is built once per interpreter and is at most a quarter full, so collisions
+ * are rare and probe sequences short.
+ */
+final class HeaderClassifier {
+
+  private final String[] names;
+  private final int[] classifications;
+  private final String[] tags;
+  private final int mask;
+
+  HeaderClassifier(int expectedNames) {
+    int capacity = Integer.highestOneBit(Math.max(expectedNames, 4) * 4 - 1) << 1;
+    this.names = new String[capacity];
+    this.classifications = new int[capacity];
+    this.tags = new String[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /** Adds the name unless it's already present, so names added first take precedence. */
+  void add(String name, int classification, String tag) {
+    int slot = hash(name) & mask;
+    while (null != names[slot]) {
+      if (matches(names[slot], name)) {
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    names[slot] = name;
+    classifications[slot] = classification;
+    tags[slot] = tag;
+  }
+
+  /** @return the slot of the name, or -1 if it isn't present */
+  int find(String name) {
+    int slot = hash(name) & mask;
+    String existing;
+    while (null != (existing = names[slot])) {
+      if (matches(existing, name)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  int classification(int slot) {
+    return classifications[slot];
+  }
+
+  String tag(int slot) {
+    return tags[slot];
+  }
+
+  private static boolean matches(String existing, String name) {
+    return existing.length() == name.length()
+        && existing.regionMatches(true, 0, name, 0, name.length());
+  }
+
+  private static int hash(String name) {
+    int hash = 0;
+    for (int i = 0; i < name.length(); ++i) {
+      hash = 31 * hash + fold(name.charAt(i));
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  /** Characters which are equal ignoring case fold to the same character. */
+  private static char fold(char c) {
+    if (c < 0x80) {
+      return c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c;
+    }
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+}
@@ -13,9 +13,7 @@ import datadog.trace.bootstrap.instrumentation.api.AgentTracer;
 import datadog.trace.bootstrap.instrumentation.api.ScopeSource;
 import datadog.trace.context.ScopeListener;
 import datadog.trace.context.TraceScope;
-import java.util.ArrayDeque;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,16 +27,17 @@ import org.slf4j.LoggerFactory;
 public class ContinuableScopeManager implements AgentScopeManager {
 
   private static final Logger log = LoggerFactory.getLogger(ContinuableScopeManager.class);
-  final ThreadLocal<ScopeStack> tlsScopeStack =
-      new ThreadLocal<ScopeStack>() {
-        @Override
-        protected final ScopeStack initialValue() {
-          return new ScopeStack();
-        }
-      };
+  // stacks are only created when a scope is first activated on the thread, so that threads which
+  // only check for an active span (e.g. short-lived virtual threads) don't allocate one
+  final ThreadLocal<ScopeStack> tlsScopeStack = new ThreadLocal<>();
+
+  private static final ScopeListener[] NO_SCOPE_LISTENERS = {};
+  private static final ExtendedScopeListener[] NO_EXTENDED_SCOPE_LISTENERS = {};
 
-  private final List<ScopeListener> scopeListeners;
-  private final List<ExtendedScopeListener> extendedScopeListeners;
+  // listeners are rarely added, so they're kept in arrays which are replaced on every addition;
+  // this way notifying no listeners, which is the common case, is a check of the array's length
+  private volatile ScopeListener[] scopeListeners = NO_SCOPE_LISTENERS;
+  private volatile ExtendedScopeListener[] extendedScopeListeners = NO_EXTENDED_SCOPE_LISTENERS;
   private final int depthLimit;
   private final StatsDClient statsDClient;
   private final boolean strictMode;
@@ -54,8 +53,6 @@ public class ContinuableScopeManager implements AgentScopeManager {
     this.statsDClient = statsDClient;
     this.strictMode = strictMode;
     this.inheritAsyncPropagation = inheritAsyncPropagation;
-    this.scopeListeners = new CopyOnWriteArrayList<>();
-    this.extendedScopeListeners = new CopyOnWriteArrayList<>();
   }
 
   @Override
@@ -134,12 +131,14 @@ public class ContinuableScopeManager implements AgentScopeManager {
 
   @Override
   public TraceScope active() {
-    return scopeStack().top();
+    final ScopeStack scopeStack = tlsScopeStack.get();
+    return scopeStack == null ? null : scopeStack.top();
   }
 
   @Override
   public AgentSpan activeSpan() {
-    final AgentScope active = scopeStack().top();
+    final ScopeStack scopeStack = tlsScopeStack.get();
+    final AgentScope active = scopeStack == null ? null : scopeStack.top();
     return active == null ? null : active.span();
   }
 
@@ -148,7 +147,9 @@ public class ContinuableScopeManager implements AgentScopeManager {
     if (listener instanceof ExtendedScopeListener) {
       addExtendedScopeListener((ExtendedScopeListener) listener);
     } else {
-      scopeListeners.add(listener);
+      synchronized (this) {
+        scopeListeners = append(scopeListeners, listener);
+      }
       log.debug("Added scope listener {}", listener);
       AgentSpan activeSpan = activeSpan();
       if (activeSpan != null) {
@@ -159,7 +160,9 @@ public class ContinuableScopeManager implements AgentScopeManager {
   }
 
   private void addExtendedScopeListener(final ExtendedScopeListener listener) {
-    extendedScopeListeners.add(listener);
+    synchronized (this) {
+      extendedScopeListeners = append(extendedScopeListeners, listener);
+    }
     log.debug("Added scope listener {}", listener);
     AgentSpan activeSpan = activeSpan();
     if (activeSpan != null && !(activeSpan instanceof NoopAgentSpan)) {
@@ -168,8 +171,19 @@ public class ContinuableScopeManager implements AgentScopeManager {
     }
   }
 
+  private static <T> T[] append(final T[] listeners, final T listener) {
+    final T[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+    newListeners[listeners.length] = listener;
+    return newListeners;
+  }
+
   protected ScopeStack scopeStack() {
-    return this.tlsScopeStack.get();
+    ScopeStack scopeStack = this.tlsScopeStack.get();
+    if (null == scopeStack) {
+      scopeStack = new ScopeStack();
+      this.tlsScopeStack.set(scopeStack);
+    }
+    return scopeStack;
   }
 
   private static final class ContinuableScope implements AgentScope {
@@ -360,17 +374,24 @@ public class ContinuableScopeManager implements AgentScopeManager {
   /**
    * The invariant is that the top of a non-empty stack is always active. Anytime a scope is closed,
    * cleanup() is called to ensure the invariant
+   *
+   * <p>Most threads never have more than one active scope, so the top is held in a field and the
+   * array for the scopes beneath it is only allocated when scopes are nested.
    */
   static final class ScopeStack {
-    private final ArrayDeque<ContinuableScope> stack = new ArrayDeque<>();
+    private static final ContinuableScope[] EMPTY = new ContinuableScope[0];
+
+    private ContinuableScope top;
+    private ContinuableScope[] below = EMPTY;
+    private int belowSize;
 
     /** top - accesses the top of the ScopeStack */
     final ContinuableScope top() {
-      return stack.peek();
+      return top;
     }
 
     void cleanup() {
-      ContinuableScope curScope = stack.peek();
+      ContinuableScope curScope = top;
       boolean changedTop = false;
       while (curScope != null) {
         if (curScope.alive()) {
@@ -382,31 +403,48 @@ public class ContinuableScopeManager implements AgentScopeManager {
 
         // no longer alive -- trigger listener & null out
         curScope.onProperClose();
-        stack.poll();
+        pop();
         changedTop = true;
-        curScope = stack.peek();
+        curScope = top;
       }
     }
 
     /** Pushes a new scope unto the stack */
     final void push(final ContinuableScope scope) {
-      stack.push(scope);
+      if (null != top) {
+        if (belowSize == below.length) {
+          below = Arrays.copyOf(below, Math.max(4, belowSize << 1));
+        }
+        below[belowSize++] = top;
+      }
+      top = scope;
       scope.afterActivated();
     }
 
+    private void pop() {
+      if (belowSize > 0) {
+        top = below[--belowSize];
+        below[belowSize] = null;
+      } else {
+        top = null;
+      }
+    }
+
     /** Fast check to see if the expectedScope is on top the stack */
     final boolean checkTop(final ContinuableScope expectedScope) {
-      return expectedScope.equals(stack.peek());
+      return expectedScope.equals(top);
     }
 
     /** Returns the current stack depth */
     final int depth() {
-      return stack.size();
+      return null == top ? 0 : belowSize + 1;
     }
 
     // DQH - regrettably needed for pre-existing tests
     final void clear() {
-      stack.clear();
+      top = null;
+      Arrays.fill(below, 0, belowSize, null);
+      belowSize = 0;
     }
   }
 
@@ -1,10 +1,7 @@
 package datadog.trace.core.taginterceptor;
 
 import static datadog.trace.api.DDTags.ANALYTICS_SAMPLE_RATE;
-import static datadog.trace.api.DDTags.ORIGIN_KEY;
-import static datadog.trace.api.DDTags.SPAN_TYPE;
 import static datadog.trace.api.sampling.PrioritySampling.USER_DROP;
-import static datadog.trace.bootstrap.instrumentation.api.Tags.HTTP_STATUS;
 import static datadog.trace.core.taginterceptor.RuleFlags.Feature.FORCE_MANUAL_DROP;
 import static datadog.trace.core.taginterceptor.RuleFlags.Feature.PEER_SERVICE;
 import static datadog.trace.core.taginterceptor.RuleFlags.Feature.RESOURCE_NAME;
@@ -18,10 +15,50 @@ import datadog.trace.api.env.CapturedEnvironment;
 import datadog.trace.bootstrap.instrumentation.api.InstrumentationTags;
 import datadog.trace.bootstrap.instrumentation.api.Tags;
 import datadog.trace.core.DDSpanContext;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 public class TagInterceptor {
 
+  /** The interceptions of {@link #interceptTag}, apart from the split-by tags. */
+  enum Intercepted {
+    RESOURCE_NAME,
+    DB_STATEMENT,
+    SERVICE_NAME,
+    PEER_SERVICE,
+    MANUAL_KEEP,
+    MANUAL_DROP,
+    SERVLET_CONTEXT,
+    SPAN_TYPE,
+    ANALYTICS_SAMPLE_RATE,
+    ERROR,
+    HTTP_STATUS,
+    ORIGIN
+  }
+
+  // the single list of intercepted tags, used both to intercept and to tell what may be intercepted
+  static final Map<String, Intercepted> INTERCEPTED_TAGS;
+
+  static {
+    final Map<String, Intercepted> tags = new HashMap<>();
+    tags.put(DDTags.RESOURCE_NAME, Intercepted.RESOURCE_NAME);
+    tags.put(Tags.DB_STATEMENT, Intercepted.DB_STATEMENT);
+    tags.put(DDTags.SERVICE_NAME, Intercepted.SERVICE_NAME);
+    tags.put("service", Intercepted.SERVICE_NAME);
+    tags.put(Tags.PEER_SERVICE, Intercepted.PEER_SERVICE);
+    tags.put(DDTags.MANUAL_KEEP, Intercepted.MANUAL_KEEP);
+    tags.put(DDTags.MANUAL_DROP, Intercepted.MANUAL_DROP);
+    tags.put(InstrumentationTags.SERVLET_CONTEXT, Intercepted.SERVLET_CONTEXT);
+    tags.put(DDTags.SPAN_TYPE, Intercepted.SPAN_TYPE);
+    tags.put(ANALYTICS_SAMPLE_RATE, Intercepted.ANALYTICS_SAMPLE_RATE);
+    tags.put(Tags.ERROR, Intercepted.ERROR);
+    tags.put(Tags.HTTP_STATUS, Intercepted.HTTP_STATUS);
+    tags.put(DDTags.ORIGIN_KEY, Intercepted.ORIGIN);
+    INTERCEPTED_TAGS = Collections.unmodifiableMap(tags);
+  }
+
   private final RuleFlags ruleFlags;
   private final boolean isServiceNameSetByUser;
   private final boolean splitByServletContext;
@@ -49,42 +86,50 @@ public class TagInterceptor {
   }
 
   public boolean interceptTag(DDSpanContext span, String tag, Object value) {
-    switch (tag) {
-      case DDTags.RESOURCE_NAME:
+    final Intercepted intercepted = INTERCEPTED_TAGS.get(tag);
+    if (null == intercepted) {
+      return intercept(span, tag, value);
+    }
+    switch (intercepted) {
+      case RESOURCE_NAME:
         return interceptResourceName(span, value);
-      case Tags.DB_STATEMENT:
+      case DB_STATEMENT:
         return interceptDbStatement(span, value);
-      case DDTags.SERVICE_NAME:
-      case "service":
+      case SERVICE_NAME:
         return interceptServiceName(SERVICE_NAME, span, value);
-      case Tags.PEER_SERVICE:
+      case PEER_SERVICE:
         return interceptServiceName(PEER_SERVICE, span, value);
-      case DDTags.MANUAL_KEEP:
+      case MANUAL_KEEP:
         if (asBoolean(value)) {
           span.forceKeep();
           return true;
         }
         return false;
-      case DDTags.MANUAL_DROP:
+      case MANUAL_DROP:
         return interceptSamplingPriority(FORCE_MANUAL_DROP, USER_DROP, span, value);
-      case InstrumentationTags.SERVLET_CONTEXT:
+      case SERVLET_CONTEXT:
         return interceptServletContext(span, value);
       case SPAN_TYPE:
         return interceptSpanType(span, value);
       case ANALYTICS_SAMPLE_RATE:
         return interceptAnalyticsSampleRate(span, value);
-      case Tags.ERROR:
+      case ERROR:
         return interceptError(span, value);
       case HTTP_STATUS:
         // not set internally but may come from manual instrumentation
         return interceptHttpStatusCode(span, value);
-      case ORIGIN_KEY:
+      case ORIGIN:
         return interceptOrigin(span, value);
       default:
-        return intercept(span, tag, value);
+        return false;
     }
   }
 
+  /** @return whether {@link #interceptTag} might intercept the tag, whatever its value */
+  public boolean needsIntercept(String tag) {
+    return INTERCEPTED_TAGS.containsKey(tag) || splitServiceTags.contains(tag);
+  }
+
   private boolean intercept(DDSpanContext span, String tag, Object value) {
     if (splitServiceTags.contains(tag)) {
       span.setServiceName(String.valueOf(value));
@@ -0,0 +1,8 @@
+package datadog.trace.core.util;
+
+/** Rate limiter that only supports non-blocking retrieval of a single token. */
+public interface RateLimiter {
+
+  /** @return {@code true} if a token was available */
+  boolean tryAcquire();
+}
@@ -0,0 +1,107 @@
+package datadog.trace.core.util;
+
+import datadog.trace.api.time.SystemTimeSource;
+import datadog.trace.api.time.TimeSource;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Rate limiter that only supports non-blocking retrieval of a single token at a minimum rate of 1
+ * per second. Tokens are not smoothed across the second.
+ *
+ * <p>The tokens are split across stripes, each on its own cache line, and threads take tokens from
+ * the stripe picked by their id so threads on different cores rarely update the same counter. A
+ * thread only moves on to the other stripes when its own stripe is empty, so a token is refused
+ * only when all stripes are empty: like {@link SimpleRateLimiter} it hands out exactly the rate per
+ * second, give or take the tokens taken while the stripes are refilled one after the other.
+ */
+public class StripedRateLimiter implements RateLimiter {
+  private static final long REFILL_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+  // keep each stripe on its own cache line, and away from the array header
+  private static final int PADDING = 16;
+
+  // don't split the tokens any further than this
+  private static final int MIN_TOKENS_PER_STRIPE = 16;
+
+  private final int stripeMask;
+  private final long[] capacities;
+  private final AtomicLongArray tokens;
+  private final AtomicLong lastRefillTime;
+  private final TimeSource timeSource;
+
+  public StripedRateLimiter(long rate) {
+    this(rate, SystemTimeSource.INSTANCE);
+  }
+
+  protected StripedRateLimiter(long rate, TimeSource timeSource) {
+    this(rate, Runtime.getRuntime().availableProcessors(), timeSource);
+  }
+
+  StripedRateLimiter(long rate, int maxStripes, TimeSource timeSource) {
+    this.timeSource = timeSource;
+
+    long capacity = Math.max(1, rate);
+    int stripes = 1;
+    while (stripes * 2 <= maxStripes && capacity / (stripes * 2) >= MIN_TOKENS_PER_STRIPE) {
+      stripes *= 2;
+    }
+    stripeMask = stripes - 1;
+
+    capacities = new long[stripes];
+    for (int i = 0; i < stripes; ++i) {
+      capacities[i] = capacity / stripes + (i < capacity % stripes ? 1 : 0);
+    }
+    tokens = new AtomicLongArray((stripes + 1) * PADDING);
+    refill();
+
+    lastRefillTime = new AtomicLong(timeSource.getNanoTime());
+  }
+
+  @Override
+  public boolean tryAcquire() {
+    long now = timeSource.getNanoTime();
+    long localRefill = lastRefillTime.get();
+
+    // Attempt to refill tokens if an interval has passed
+    // Only refill the tokens if this thread wins a race
+    if (now - localRefill > REFILL_INTERVAL && lastRefillTime.compareAndSet(localRefill, now)) {
+      refill();
+    }
+
+    int stripe = stripe();
+    for (int i = 0; i <= stripeMask; ++i) {
+      if (tryAcquire((stripe + i) & stripeMask)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean tryAcquire(int stripe) {
+    int index = (stripe + 1) * PADDING;
+    long previous;
+    do {
+      previous = tokens.get(index);
+      if (previous <= 0) {
+        return false;
+      }
+    } while (!tokens.compareAndSet(index, previous, previous - 1));
+    return true;
+  }
+
+  private void refill() {
+    for (int i = 0; i < capacities.length; ++i) {
+      tokens.set((i + 1) * PADDING, capacities[i]);
+    }
+  }
+
+  private int stripe() {
+    if (stripeMask == 0) {
+      return 0;
+    }
+    long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+    return (int) (id >>> 32) & stripeMask;
+  }
+}
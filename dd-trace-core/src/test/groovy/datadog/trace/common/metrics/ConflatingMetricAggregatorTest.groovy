@@ -403,6 +403,62 @@ class ConflatingMetricAggregatorTest extends DDSpecification {
     aggregator.close()
   }
 
+  def "sharded aggregators report a single merged bucket"() {
+    setup:
+    int maxAggregates = 64
+    MetricWriter writer = Mock(MetricWriter)
+    Sink sink = Stub(Sink)
+    DDAgentFeaturesDiscovery features = Mock(DDAgentFeaturesDiscovery)
+    features.supportsMetrics() >> true
+    ConflatingMetricsAggregator aggregator = new ConflatingMetricsAggregator(empty,
+      features, sink, writer, maxAggregates, queueSize, reportingInterval, SECONDS, shards)
+    long duration = 100
+    aggregator.start()
+
+    when:
+    CountDownLatch latch = new CountDownLatch(1)
+    for (int i = 0; i < 8; ++i) {
+      for (int j = 0; j <= i; ++j) {
+        aggregator.publish([
+          new SimpleSpan("service" + i, "operation", "resource", "type", false, true, j % 2 == 1, 0, duration, HTTP_OK)
+        ])
+      }
+    }
+    aggregator.report()
+    latch.await(2, SECONDS)
+
+    then: "the aggregates of every shard are written in one bucket"
+    1 * writer.startBucket(8, _, SECONDS.toNanos(reportingInterval))
+    for (int i = 0; i < 8; ++i) {
+      int hits = i + 1
+      1 * writer.add(new MetricKey("resource", "service" + i, "operation", "type", HTTP_OK), _) >> { MetricKey key, AggregateMetric value ->
+        assert value.getHitCount() == hits && value.getErrorCount() == (int) (hits / 2) && value.getDuration() == hits * duration
+      }
+    }
+    1 * writer.finishBucket() >> { latch.countDown() }
+
+    when:
+    latch = new CountDownLatch(1)
+    aggregator.publish([
+      new SimpleSpan("service0", "operation", "resource", "type", false, true, false, 0, duration, HTTP_OK)
+    ])
+    aggregator.report()
+    latch.await(2, SECONDS)
+
+    then: "shards without updates do not hold back the bucket"
+    1 * writer.startBucket(1, _, SECONDS.toNanos(reportingInterval))
+    1 * writer.add(new MetricKey("resource", "service0", "operation", "type", HTTP_OK), _) >> { MetricKey key, AggregateMetric value ->
+      assert value.getHitCount() == 1 && value.getDuration() == duration
+    }
+    1 * writer.finishBucket() >> { latch.countDown() }
+
+    cleanup:
+    aggregator.close()
+
+    where:
+    shards << [2, 3, 8]
+  }
+
   def "should be resilient to serialization errors"() {
     setup:
     int maxAggregates = 10
@@ -443,7 +499,7 @@ class ConflatingMetricAggregatorTest extends DDSpecification {
 
   def waitUntilEmpty(ConflatingMetricsAggregator aggregator) {
     int i = 0
-    while (!aggregator.inbox.isEmpty() && i++ < 100) {
+    while (!aggregator.inboxes.every { it.isEmpty() } && i++ < 100) {
       Thread.sleep(10)
     }
   }
@@ -0,0 +1,54 @@
+package datadog.trace.common.metrics
+
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString
+import datadog.trace.test.util.DDSpecification
+import org.jctools.maps.NonBlockingHashMap
+
+class MetricKeyProbeTest extends DDSpecification {
+
+  def "probe matches key constructed from the same fields"() {
+    setup:
+    MetricKey key = new MetricKey(resource, service, operation, type, 200)
+    MetricKeyProbe probe = new MetricKeyProbe().set(resource, service, operation, type, 200)
+
+    expect:
+    probe.hashCode() == key.hashCode()
+    probe.equals(key)
+
+    where:
+    resource                                | service                              | operation                | type
+    "resource"                              | "service"                            | "operation"              | "type"
+    UTF8BytesString.create("resource")      | UTF8BytesString.create("service")    | "operation"              | null
+    new StringBuilder("resource")           | "service"                            | new StringBuilder("op")  | "type"
+    null                                    | null                                 | null                     | null
+    ""                                      | "service"                            | null                     | ""
+  }
+
+  def "probe does not match key with different fields"() {
+    setup:
+    MetricKey key = new MetricKey("resource", "service", "operation", "type", 200)
+
+    expect:
+    !new MetricKeyProbe().set(resource, service, operation, type, statusCode).equals(key)
+
+    where:
+    resource    | service    | operation    | type    | statusCode
+    "resource2" | "service"  | "operation"  | "type"  | 200
+    "resource"  | "service2" | "operation"  | "type"  | 200
+    "resource"  | "service"  | "operation2" | "type"  | 200
+    "resource"  | "service"  | "operation"  | null    | 200
+    "resource"  | "service"  | "operation"  | "type"  | 500
+  }
+
+  def "probe finds existing key in map"() {
+    setup:
+    NonBlockingHashMap<MetricKey, MetricKey> keys = new NonBlockingHashMap<>()
+    MetricKey key = new MetricKey("resource", "service", "operation", "type", 200)
+    keys.put(key, key)
+    MetricKeyProbe probe = new MetricKeyProbe()
+
+    expect:
+    keys.get(probe.set(new StringBuilder("resource"), "service", UTF8BytesString.create("operation"), "type", 200)).is(key)
+    keys.get(probe.set("resource", "service", "operation", "type", 404)) == null
+  }
+}
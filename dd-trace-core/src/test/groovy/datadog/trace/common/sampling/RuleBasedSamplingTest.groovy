@@ -4,6 +4,8 @@ import datadog.trace.common.writer.ListWriter
 import datadog.trace.core.DDSpan
 import datadog.trace.core.test.DDCoreSpecification
 
+import java.util.regex.Pattern
+
 import static datadog.trace.api.config.TracerConfig.TRACE_RATE_LIMIT
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLE_RATE
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_OPERATION_RULES
@@ -213,4 +215,43 @@ class RuleBasedSamplingTest extends DDCoreSpecification {
     cleanup:
     tracer.close()
   }
+
+  def "simple patterns match the same names as the regex"() {
+    setup:
+    def rule = new SamplingRule.ServiceSamplingRule(regex, new DeterministicSampler(1))
+
+    expect:
+    rule.matches((CharSequence) name) == Pattern.compile(regex).matcher(name).matches()
+
+    where:
+    [regex, name] << [
+      ["service", ".*", "s.*", ".*e", ".*rv.*", "a\\.b", "a\\.*", "a.b", "[a-z]+", "foo\\-bar"],
+      ["", "service", "s", "e", "serv\nice", "a.b", "aXb", "a...", "rv", "xrvx", "foo-bar", "s\n"]
+    ].combinations()
+  }
+
+  def "cached rule matches follow the service and operation names"() {
+    setup:
+    def tracer = tracerBuilder().writer(new ListWriter()).build()
+    Properties properties = new Properties()
+    properties.setProperty(TRACE_SAMPLING_SERVICE_RULES, "foo:0")
+    properties.setProperty(TRACE_SAMPLING_OPERATION_RULES, "operation:1")
+    properties.setProperty(TRACE_RATE_LIMIT, "50")
+    Sampler sampler = Sampler.Builder.forConfig(properties)
+
+    when:
+    List<DDSpan> spans = ["foo", "service", "foo", "service"].collect {
+      DDSpan span = tracer.buildSpan("operation")
+        .withServiceName(it)
+        .ignoreActiveSpan().start()
+      ((PrioritySampler) sampler).setSamplingPriority(span)
+      span
+    }
+
+    then:
+    spans*.getSamplingPriority() == [SAMPLER_DROP, SAMPLER_KEEP, SAMPLER_DROP, SAMPLER_KEEP]
+
+    cleanup:
+    tracer.close()
+  }
 }
@@ -29,6 +29,7 @@ import spock.lang.Shared
 import spock.lang.Timeout
 
 import java.nio.ByteBuffer
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.RejectedExecutionException
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicLong
@@ -325,6 +326,38 @@ class DDAgentApiTest extends DDCoreSpecification {
     // spotless:on
   }
 
+  def "payload buffers are not consumed when sent"() {
+    setup:
+    def receivedContentLengths = new CopyOnWriteArrayList<Long>()
+    def agent = httpServer {
+      handlers {
+        put(agentVersion) {
+          receivedContentLengths.add(request.contentLength)
+          response.status(200).send()
+        }
+      }
+    }
+    def client = createAgentApi(agent.address.toString())[1]
+    def payload = prepareTraces(agentVersion, [[buildSpan(1L, "service.name", "my-service")]] * 10)
+    int sizeInBytes = payload.sizeInBytes()
+
+    when: "the same payload is sent twice"
+    def first = client.sendSerializedTraces(payload).success()
+    def second = client.sendSerializedTraces(payload).success()
+
+    then: "the whole payload is sent both times"
+    first
+    second
+    payload.sizeInBytes() == sizeInBytes
+    receivedContentLengths == [sizeInBytes as long, sizeInBytes as long]
+
+    cleanup:
+    agent.close()
+
+    where:
+    agentVersion << ["v0.4/traces", "v0.5/traces"]
+  }
+
   def "Embedded HTTP client rejects async requests"() {
     setup:
     def agent = newAgent("v0.5/traces")
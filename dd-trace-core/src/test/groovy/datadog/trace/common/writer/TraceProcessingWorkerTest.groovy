@@ -1,8 +1,12 @@
 package datadog.trace.common.writer
 
+import datadog.communication.ddagent.DDAgentFeaturesDiscovery
 import datadog.trace.api.StatsDClient
+import datadog.trace.common.writer.ddagent.DDAgentApi
+import datadog.trace.common.writer.ddagent.Payload
 import datadog.trace.common.writer.ddagent.PayloadDispatcher
 import datadog.trace.common.writer.ddagent.TraceProcessingWorker
+import datadog.trace.core.CoreSpan
 import datadog.trace.core.DDSpan
 import datadog.trace.core.monitor.HealthMetrics
 import datadog.trace.core.monitor.MonitoringImpl
@@ -19,6 +23,7 @@ import static datadog.trace.api.sampling.PrioritySampling.UNSET
 import static datadog.trace.api.sampling.PrioritySampling.USER_DROP
 import static datadog.trace.api.sampling.PrioritySampling.USER_KEEP
 import static datadog.trace.common.writer.ddagent.Prioritization.FAST_LANE
+import static datadog.trace.common.writer.ddagent.TraceGenerator.generateRandomTraces
 
 class TraceProcessingWorkerTest extends DDSpecification {
 
@@ -226,4 +231,47 @@ class TraceProcessingWorkerTest extends DDSpecification {
     !flushed
   }
 
+  def "traces should be serialized and sent by a pool of serializers"() {
+    setup:
+    AtomicInteger sentCount = new AtomicInteger()
+    HealthMetrics healthMetrics = Mock(HealthMetrics)
+    DDAgentFeaturesDiscovery discovery = Stub(DDAgentFeaturesDiscovery) {
+      getTraceEndpoint() >> traceEndpoint
+    }
+    DDAgentApi api = Stub(DDAgentApi) {
+      sendSerializedTraces(_) >> { Payload payload ->
+        sentCount.addAndGet(payload.traceCount())
+        return DDAgentApi.Response.success(200)
+      }
+    }
+    PayloadDispatcher dispatcher = new PayloadDispatcher(discovery, api, healthMetrics, monitoring)
+    TraceProcessingWorker worker = new TraceProcessingWorker(1024, healthMetrics,
+      dispatcher, {
+        false
+      }, FAST_LANE, 100, TimeUnit.SECONDS, serializerCount)
+    // prevent heartbeats from helping the flush happen
+    worker.start()
+
+    when: "traces are submitted and flushed"
+    int submitted = 0
+    for (List<CoreSpan> trace : generateRandomTraces(traceCount, false)) {
+      submitted += worker.publish(trace[0], USER_KEEP, trace) ? 1 : 0
+    }
+    boolean flushed = worker.flush(5, TimeUnit.SECONDS)
+
+    then: "every submitted trace has been sent once the flush completes"
+    flushed
+    0 * healthMetrics.onFailedSerialize(_, _)
+    submitted == sentCount.get()
+
+    cleanup:
+    worker.close()
+
+    where:
+    traceEndpoint | serializerCount | traceCount
+    "v0.4/traces" | 2               | 100
+    "v0.4/traces" | 4               | 1000
+    "v0.5/traces" | 2               | 100
+    "v0.5/traces" | 4               | 1000
+  }
 }
@@ -0,0 +1,97 @@
+package datadog.trace.common.writer.ddagent
+
+import datadog.trace.bootstrap.instrumentation.api.UTF8BytesString
+import datadog.trace.test.util.DDSpecification
+import org.msgpack.core.MessagePack
+import org.msgpack.core.MessageUnpacker
+
+import java.nio.ByteBuffer
+
+class PayloadDictionaryTest extends DDSpecification {
+
+  def "strings are encoded once per payload"() {
+    setup:
+    PayloadDictionary dictionary = new PayloadDictionary(1024)
+
+    when:
+    List<Integer> codes = values.collect { dictionary.encode(it) }
+
+    then:
+    codes == expectedCodes
+    decode(dictionary.slice(), dictionary.size()) == expectedStrings
+
+    where:
+    values                                                             | expectedCodes | expectedStrings
+    ["service", "operation", "service"]                                | [0, 1, 0]     | ["service", "operation"]
+    ["service", UTF8BytesString.create("service")]                     | [0, 0]        | ["service"]
+    [UTF8BytesString.create("op"), "op", UTF8BytesString.create("op")] | [0, 0, 0]     | ["op"]
+    [null, "", "resource", null]                                       | [0, 0, 1, 0]  | ["", "resource"]
+    [true, "true", UTF8BytesString.create("op"), "op"]                 | [0, 1, 2, 2]  | ["true", "true", "op"]
+  }
+
+  def "codes start again after reset but encodings are kept"() {
+    setup:
+    PayloadDictionary dictionary = new PayloadDictionary(1024)
+    List<String> strings = (0..99).collect { "string-" + it }
+
+    when:
+    strings.each { dictionary.encode(it) }
+    ByteBuffer first = copy(dictionary.slice())
+    dictionary.reset()
+    List<Integer> codes = strings.reverse().collect { dictionary.encode(it) }
+
+    then:
+    codes == (0..99).toList()
+    decode(first, 100) == strings
+    decode(dictionary.slice(), dictionary.size()) == strings.reverse()
+  }
+
+  def "evicted strings are added to the dictionary again"() {
+    setup:
+    PayloadDictionary dictionary = new PayloadDictionary(1024, 2)
+    List<String> strings = (0..9).collect { "string-" + it }
+
+    when:
+    List<Integer> first = strings.collect { dictionary.encode(it) }
+    List<Integer> second = strings.collect { dictionary.encode(it) }
+    List<String> decoded = decode(dictionary.slice(), dictionary.size())
+
+    then: "every code still refers to the right string"
+    first.eachWithIndex { code, i -> assert decoded[code] == strings[i] }
+    second.eachWithIndex { code, i -> assert decoded[code] == strings[i] }
+  }
+
+  def "long strings are deduplicated without being cached"() {
+    setup:
+    PayloadDictionary dictionary = new PayloadDictionary(1024)
+    String longString = "x" * (PayloadDictionary.MAX_CACHED_LENGTH + 1)
+
+    when:
+    int first = dictionary.encode(longString)
+    int second = dictionary.encode(longString)
+    dictionary.reset()
+    int afterReset = dictionary.encode(longString)
+
+    then:
+    first == 0
+    second == 0
+    afterReset == 0
+    decode(dictionary.slice(), dictionary.size()) == [longString]
+  }
+
+  static List<String> decode(ByteBuffer buffer, int count) {
+    MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(buffer)
+    List<String> strings = []
+    for (int i = 0; i < count; ++i) {
+      strings.add(unpacker.unpackString())
+    }
+    return strings
+  }
+
+  static ByteBuffer copy(ByteBuffer buffer) {
+    ByteBuffer copy = ByteBuffer.allocate(buffer.remaining())
+    copy.put(buffer)
+    copy.flip()
+    return copy
+  }
+}
@@ -137,6 +137,41 @@ class DDSpanContextTest extends DDCoreSpecification {
     Integer | 0x55
   }
 
+  def "numeric tags and object tags replace each other"() {
+    setup:
+    def span = tracer.buildSpan("fakeOperation")
+      .withServiceName("fakeService")
+      .withResourceName("fakeResource")
+      .start()
+    def context = span.context()
+
+    when:
+    context.setTag("some.tag", "asdf")
+    context.setMetric("some.tag", 42L)
+
+    then:
+    context.getTag("some.tag") == 42L
+    context.getTags()["some.tag"] == 42L
+
+    when:
+    context.setTag("some.tag", "qwerty")
+
+    then:
+    context.getTag("some.tag") == "qwerty"
+    context.getTags()["some.tag"] == "qwerty"
+
+    when:
+    context.setTag("some.tag", 7)
+    context.setTag("some.tag", null)
+
+    then:
+    context.getTag("some.tag") == null
+    !context.getTags().containsKey("some.tag")
+
+    cleanup:
+    span.finish()
+  }
+
   def "force keep really keeps the trace"() {
     setup:
     def span = tracer.buildSpan("fakeOperation")
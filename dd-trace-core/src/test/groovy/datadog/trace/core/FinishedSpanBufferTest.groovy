@@ -0,0 +1,99 @@
+package datadog.trace.core
+
+import datadog.trace.common.writer.ListWriter
+import datadog.trace.core.test.DDCoreSpecification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class FinishedSpanBufferTest extends DDCoreSpecification {
+
+  def writer = new ListWriter()
+  def tracer = tracerBuilder().writer(writer).build()
+
+  def cleanup() {
+    tracer?.close()
+  }
+
+  def "spans are drained newest first across chunks"() {
+    setup:
+    FinishedSpanBuffer buffer = new FinishedSpanBuffer()
+    List<DDSpan> spans = createSpans(count)
+
+    when:
+    spans.each { buffer.add(it) }
+
+    then:
+    !buffer.isEmpty()
+    buffer.asList() == spans
+
+    when:
+    List<DDSpan> drained = []
+    int drainedCount = buffer.drain(drained)
+
+    then:
+    drainedCount == count
+    drained == spans.reverse()
+    buffer.isEmpty()
+    buffer.asList() == []
+
+    when: "more spans are added after draining"
+    DDSpan late = createSpans(1)[0]
+    buffer.add(late)
+    drained = []
+
+    then:
+    buffer.drain(drained) == 1
+    drained == [late]
+
+    where:
+    count << [1, FinishedSpanBuffer.MIN_CHUNK_SIZE, FinishedSpanBuffer.MIN_CHUNK_SIZE + 1, 500]
+  }
+
+  def "concurrently added spans are all drained exactly once"() {
+    setup:
+    int threads = 8
+    int spansPerThread = 200
+    FinishedSpanBuffer buffer = new FinishedSpanBuffer()
+    List<DDSpan> spans = createSpans(threads * spansPerThread)
+    ExecutorService executor = Executors.newFixedThreadPool(threads)
+    CountDownLatch start = new CountDownLatch(1)
+    CountDownLatch done = new CountDownLatch(threads)
+    List<DDSpan> drained = []
+
+    when:
+    for (int t = 0; t < threads; ++t) {
+      List<DDSpan> slice = spans.subList(t * spansPerThread, (t + 1) * spansPerThread)
+      executor.execute {
+        start.await()
+        slice.each { buffer.add(it) }
+        done.countDown()
+      }
+    }
+    start.countDown()
+    while (!done.await(1, TimeUnit.MILLISECONDS)) {
+      synchronized (buffer) {
+        buffer.drain(drained)
+      }
+    }
+    buffer.drain(drained)
+
+    then:
+    drained.size() == spans.size()
+    drained.toSet() == spans.toSet()
+    buffer.isEmpty()
+
+    cleanup:
+    executor.shutdownNow()
+  }
+
+  List<DDSpan> createSpans(int count) {
+    List<DDSpan> spans = []
+    for (int i = 0; i < count; ++i) {
+      spans.add(tracer.buildSpan("span" + i).start() as DDSpan)
+    }
+    return spans
+  }
+}
@@ -0,0 +1,78 @@
+package datadog.trace.core
+
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.ThreadLocalRandom
+
+class TagMapTest extends DDSpecification {
+
+  def "behaves like a HashMap"() {
+    setup:
+    TagMap tags = new TagMap(expectedSize)
+    Map<String, Object> expected = new HashMap<>()
+    ThreadLocalRandom random = ThreadLocalRandom.current()
+
+    when:
+    for (int i = 0; i < 1000; ++i) {
+      String key = "key" + random.nextInt(keySpace)
+      switch (random.nextInt(4)) {
+        case 0:
+        case 1:
+          assert tags.put(key, i) == expected.put(key, i)
+          break
+        case 2:
+          assert tags.remove(key) == expected.remove(key)
+          break
+        default:
+          assert tags.get(key) == expected.get(key)
+          assert tags.containsKey(key) == expected.containsKey(key)
+      }
+      assert tags.size() == expected.size()
+    }
+
+    then:
+    tags == expected
+    new HashMap<>(tags) == expected
+    tags.hashCode() == expected.hashCode()
+
+    where:
+    expectedSize | keySpace
+    0            | 4
+    3            | 16
+    8            | 64
+    64           | 64
+  }
+
+  def "entries can be iterated"() {
+    setup:
+    TagMap tags = new TagMap(3)
+    (0..<count).each { tags.put("key" + it, it) }
+
+    when:
+    Map<String, Object> iterated = [:]
+    for (Map.Entry<String, Object> entry : tags.entrySet()) {
+      iterated.put(entry.key, entry.value)
+    }
+
+    then:
+    iterated == (0..<count).collectEntries { ["key" + it, it] }
+    tags.entrySet().size() == count
+
+    where:
+    count << [0, 1, 5, 100]
+  }
+
+  def "cleared map can be reused"() {
+    setup:
+    TagMap tags = new TagMap(3)
+    (0..<20).each { tags.put("key" + it, it) }
+
+    when:
+    tags.clear()
+    tags.put("key", "value")
+
+    then:
+    tags.size() == 1
+    tags == [key: "value"]
+  }
+}
@@ -0,0 +1,32 @@
+package datadog.trace.core.propagation
+
+import datadog.trace.test.util.DDSpecification
+
+class HeaderClassifierTest extends DDSpecification {
+
+  def "header names are found ignoring case"() {
+    setup:
+    HeaderClassifier classifier = new HeaderClassifier(4)
+    classifier.add("x-datadog-trace-id", 0, null)
+    classifier.add("x-datadog-parent-id", 1, null)
+    classifier.add("some-header", 2, "some-tag")
+    classifier.add("X-Datadog-Trace-Id", 3, null)
+
+    when:
+    int slot = classifier.find(name)
+
+    then:
+    (slot < 0 ? -1 : classifier.classification(slot)) == classification
+    (slot < 0 ? null : classifier.tag(slot)) == tag
+
+    where:
+    name                  | classification | tag
+    "x-datadog-trace-id"  | 0              | null
+    "X-DATADOG-TRACE-ID"  | 0              | null
+    "X-Datadog-Parent-Id" | 1              | null
+    "Some-Header"         | 2              | "some-tag"
+    "x-datadog-trace-i"   | -1             | null
+    "x-datadog-trace-idx" | -1             | null
+    "accept"              | -1             | null
+  }
+}
@@ -14,6 +14,8 @@ import datadog.trace.common.writer.LoggingWriter
 import datadog.trace.core.CoreSpan
 import datadog.trace.core.test.DDCoreSpecification
 
+import java.lang.reflect.Modifier
+
 import static datadog.trace.api.ConfigDefaults.DEFAULT_SERVICE_NAME
 import static datadog.trace.api.ConfigDefaults.DEFAULT_SERVLET_ROOT_CONTEXT_SERVICE_NAME
 import static datadog.trace.api.DDTags.ANALYTICS_SAMPLE_RATE
@@ -575,4 +577,31 @@ class TagInterceptorTest extends DDCoreSpecification {
     cleanup:
     tracer.close()
   }
+
+  def "every tag intercepted is reported as needing interception"() {
+    setup:
+    def tracer = tracerBuilder().writer(new ListWriter()).build()
+    def interceptor = new TagInterceptor(false, "my-service", Collections.singleton("sn.tag1"), new RuleFlags())
+    def tags = [DDTags, Tags, InstrumentationTags].collectMany { holder ->
+      holder.declaredFields.findAll {
+        Modifier.isPublic(it.modifiers) && Modifier.isStatic(it.modifiers) && it.type == String
+      }.collect { it.get(null) as String }
+    } + ["service", "sn.tag1", "not.intercepted"]
+    def values = [true, false, "true", "my-value", "/my-context", 0, 1, 200, 0.5d]
+
+    expect:
+    tags.each { tag ->
+      values.each { value ->
+        def span = tracer.buildSpan("test").start()
+        if (interceptor.interceptTag(span.context(), tag, value)) {
+          assert interceptor.needsIntercept(tag) : "$tag was intercepted"
+        }
+        span.finish()
+      }
+    }
+    !interceptor.needsIntercept("not.intercepted")
+
+    cleanup:
+    tracer.close()
+  }
 }
@@ -0,0 +1,73 @@
+package datadog.trace.core.util
+
+import datadog.trace.api.time.ControllableTimeSource
+import datadog.trace.test.util.DDSpecification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class StripedRateLimiterTest extends DDSpecification {
+  def "initial rate available at creation"() {
+    setup:
+    def timeSource = new ControllableTimeSource()
+    def limiter = new StripedRateLimiter(rate, stripes, timeSource)
+
+    when:
+    rate.times {
+      assert limiter.tryAcquire(): "failed for $it"
+    }
+
+    then:
+    assert !limiter.tryAcquire()
+
+    where:
+    [rate, stripes] << [[1, 10, 100, 1000, 1001], [1, 4, 64]].combinations()
+  }
+
+  def "tokens never go beyond rate"() {
+    setup:
+    def timeSource = new ControllableTimeSource()
+    def limiter = new StripedRateLimiter(rate, stripes, timeSource)
+
+    when:
+    timeSource.advance(TimeUnit.SECONDS.toNanos(5))
+    rate.times {
+      assert limiter.tryAcquire(): "failed for $it"
+    }
+
+    then:
+    assert !limiter.tryAcquire()
+
+    where:
+    [rate, stripes] << [[1, 10, 100, 1000, 1001], [1, 4, 64]].combinations()
+  }
+
+  def "concurrent threads acquire exactly the rate"() {
+    setup:
+    def timeSource = new ControllableTimeSource()
+    def limiter = new StripedRateLimiter(rate, 16, timeSource)
+    def acquired = new AtomicInteger()
+    def start = new CountDownLatch(1)
+    def threads = (1..16).collect {
+      Thread.start {
+        start.await()
+        1000.times {
+          if (limiter.tryAcquire()) {
+            acquired.incrementAndGet()
+          }
+        }
+      }
+    }
+
+    when:
+    start.countDown()
+    threads*.join()
+
+    then:
+    acquired.get() == rate
+
+    where:
+    rate << [1, 100, 5000]
+  }
+}
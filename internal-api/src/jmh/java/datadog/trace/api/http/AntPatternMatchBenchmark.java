@@ -0,0 +1,113 @@
+package datadog.trace.api.http;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Matches high-cardinality paths, as seen on cache misses, against hundreds of resource name
+ * patterns, one at a time with {@link AntPathMatcher} and all at once with {@link AntPatternTrie}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1)
+public class AntPatternMatchBenchmark {
+
+  private static final String[] SERVICES = {
+    "users", "orders", "payments", "carts", "products", "inventory", "shipping", "reviews"
+  };
+  private static final String[] ACTIONS = {"details", "history", "items", "status", "events"};
+
+  @Param({"100", "500"})
+  int patternCount;
+
+  private final AntPathMatcher matcher = new AntPathMatcher();
+  private List<String> patterns;
+  private AntPatternTrie trie;
+  private String[] paths;
+  private int next;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    patterns = new ArrayList<>(patternCount);
+    for (int i = 0; patterns.size() < patternCount; i++) {
+      String service = SERVICES[i % SERVICES.length];
+      String action = ACTIONS[(i / SERVICES.length) % ACTIONS.length];
+      int version = i / (SERVICES.length * ACTIONS.length);
+      switch (i % 4) {
+        case 0:
+          patterns.add("/api/v" + version + "/" + service + "/*/" + action);
+          break;
+        case 1:
+          patterns.add("/api/v" + version + "/" + service + "/**/" + action + "/*");
+          break;
+        case 2:
+          patterns.add("/v" + version + "/" + service + "-?/" + action + "/*.json");
+          break;
+        default:
+          patterns.add("/static/" + service + version + "/**/*." + action);
+      }
+    }
+    trie = new AntPatternTrie(patterns);
+
+    paths = new String[1024];
+    for (int i = 0; i < paths.length; i++) {
+      String service = SERVICES[random.nextInt(SERVICES.length)];
+      String action = ACTIONS[random.nextInt(ACTIONS.length)];
+      int version = random.nextInt(patternCount / (SERVICES.length * ACTIONS.length) + 2);
+      long id = random.nextLong() & Long.MAX_VALUE;
+      switch (random.nextInt(4)) {
+        case 0:
+          paths[i] = "/api/v" + version + "/" + service + "/" + id + "/" + action;
+          break;
+        case 1:
+          paths[i] = "/api/v" + version + "/" + service + "/" + id + "/" + action + "/" + id;
+          break;
+        case 2:
+          paths[i] = "/v" + version + "/" + service + "-x/" + action + "/" + id + ".json";
+          break;
+        default:
+          paths[i] = "/unmapped/" + service + "/" + id;
+      }
+    }
+  }
+
+  private String nextPath() {
+    return paths[next++ & (paths.length - 1)];
+  }
+
+  @Benchmark
+  public void matchEach(Blackhole blackhole) {
+    String path = nextPath();
+    int matched = AntPatternTrie.NO_MATCH;
+    for (int i = 0; i < patterns.size(); i++) {
+      if (matcher.match(patterns.get(i), path)) {
+        matched = i;
+        break;
+      }
+    }
+    blackhole.consume(matched);
+  }
+
+  @Benchmark
+  public void matchTrie(Blackhole blackhole) {
+    blackhole.consume(trie.match(nextPath()));
+  }
+}
@@ -85,6 +85,7 @@ import static datadog.trace.api.config.GeneralConfig.RUNTIME_METRICS_ENABLED;
 import static datadog.trace.api.config.GeneralConfig.SERVICE_NAME;
 import static datadog.trace.api.config.GeneralConfig.SITE;
 import static datadog.trace.api.config.GeneralConfig.TAGS;
+import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_AGGREGATOR_SHARDS;
 import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_BUFFERING_ENABLED;
 import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_ENABLED;
 import static datadog.trace.api.config.GeneralConfig.TRACER_METRICS_IGNORED_RESOURCES;
@@ -148,6 +149,7 @@ import static datadog.trace.api.config.TraceInstrumentationConfig.JMS_PROPAGATIO
 import static datadog.trace.api.config.TraceInstrumentationConfig.JMS_PROPAGATION_DISABLED_TOPICS;
 import static datadog.trace.api.config.TraceInstrumentationConfig.JMS_PROPAGATION_ENABLED;
 import static datadog.trace.api.config.TraceInstrumentationConfig.KAFKA_CLIENT_BASE64_DECODING_ENABLED;
+import static datadog.trace.api.config.TraceInstrumentationConfig.KAFKA_CLIENT_BATCH_TRACING_ENABLED;
 import static datadog.trace.api.config.TraceInstrumentationConfig.KAFKA_CLIENT_PROPAGATION_DISABLED_TOPICS;
 import static datadog.trace.api.config.TraceInstrumentationConfig.KAFKA_CLIENT_PROPAGATION_ENABLED;
 import static datadog.trace.api.config.TraceInstrumentationConfig.LOGS_INJECTION_ENABLED;
@@ -157,6 +159,8 @@ import static datadog.trace.api.config.TraceInstrumentationConfig.PLAY_REPORT_HT
 import static datadog.trace.api.config.TraceInstrumentationConfig.RABBIT_PROPAGATION_DISABLED_EXCHANGES;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RABBIT_PROPAGATION_DISABLED_QUEUES;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RABBIT_PROPAGATION_ENABLED;
+import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_CACHE_DIR;
+import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_PRESCAN_ENABLED;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RESOLVER_USE_LOADCLASS;
 import static datadog.trace.api.config.TraceInstrumentationConfig.RUNTIME_CONTEXT_FIELD_INJECTION;
 import static datadog.trace.api.config.TraceInstrumentationConfig.SERIALVERSIONUID_FIELD_INJECTION;
@@ -202,6 +206,7 @@ import static datadog.trace.api.config.TracerConfig.TRACE_RESOLVER_ENABLED;
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLE_RATE;
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_OPERATION_RULES;
 import static datadog.trace.api.config.TracerConfig.TRACE_SAMPLING_SERVICE_RULES;
+import static datadog.trace.api.config.TracerConfig.TRACE_SERIALIZER_THREADS;
 import static datadog.trace.api.config.TracerConfig.TRACE_STRICT_WRITES_ENABLED;
 import static datadog.trace.api.config.TracerConfig.WRITER_TYPE;
 import static datadog.trace.util.CollectionUtils.tryMakeImmutableList;
@@ -342,6 +347,7 @@ public class Config {
   private final boolean tracerMetricsBufferingEnabled;
   private final int tracerMetricsMaxAggregates;
   private final int tracerMetricsMaxPending;
+  private final int tracerMetricsAggregatorShards;
 
   private final boolean logsInjectionEnabled;
   private final boolean logsMDCTagsInjectionEnabled;
@@ -389,6 +395,7 @@ public class Config {
   private final boolean kafkaClientPropagationEnabled;
   private final Set<String> kafkaClientPropagationDisabledTopics;
   private final boolean kafkaClientBase64DecodingEnabled;
+  private final boolean kafkaClientBatchTracingEnabled;
 
   private final boolean jmsPropagationEnabled;
   private final Set<String> jmsPropagationDisabledTopics;
@@ -414,6 +421,7 @@ public class Config {
   private final boolean tempJarsCleanOnBoot;
 
   private final boolean traceAgentV05Enabled;
+  private final int traceSerializerThreads;
 
   private final boolean debugEnabled;
   private final String configFile;
@@ -423,6 +431,8 @@ public class Config {
   private final boolean internalExitOnFailure;
 
   private final boolean resolverUseLoadClassEnabled;
+  private final String resolverCacheDir;
+  private final boolean resolverPrescanEnabled;
 
   private final String jdbcPreparedStatementClassName;
   private final String jdbcConnectionClassName;
@@ -695,6 +705,8 @@ public class Config {
         configProvider.getBoolean(TRACER_METRICS_BUFFERING_ENABLED, false);
     tracerMetricsMaxAggregates = configProvider.getInteger(TRACER_METRICS_MAX_AGGREGATES, 2048);
     tracerMetricsMaxPending = configProvider.getInteger(TRACER_METRICS_MAX_PENDING, 2048);
+    tracerMetricsAggregatorShards =
+        Math.max(1, configProvider.getInteger(TRACER_METRICS_AGGREGATOR_SHARDS, 1));
 
     logsInjectionEnabled =
         configProvider.getBoolean(LOGS_INJECTION_ENABLED, DEFAULT_LOGS_INJECTION_ENABLED);
@@ -704,6 +716,7 @@ public class Config {
 
     traceAgentV05Enabled =
         configProvider.getBoolean(ENABLE_TRACE_AGENT_V05, DEFAULT_TRACE_AGENT_V05_ENABLED);
+    traceSerializerThreads = Math.max(1, configProvider.getInteger(TRACE_SERIALIZER_THREADS, 1));
 
     traceAnnotations = configProvider.getString(TRACE_ANNOTATIONS, DEFAULT_TRACE_ANNOTATIONS);
 
@@ -818,6 +831,9 @@ public class Config {
     kafkaClientBase64DecodingEnabled =
         configProvider.getBoolean(KAFKA_CLIENT_BASE64_DECODING_ENABLED, false);
 
+    kafkaClientBatchTracingEnabled =
+        configProvider.getBoolean(KAFKA_CLIENT_BATCH_TRACING_ENABLED, false);
+
     jmsPropagationEnabled =
         configProvider.getBoolean(JMS_PROPAGATION_ENABLED, DEFAULT_JMS_PROPAGATION_ENABLED);
 
@@ -862,6 +878,8 @@ public class Config {
     internalExitOnFailure = configProvider.getBoolean(INTERNAL_EXIT_ON_FAILURE, false);
 
     resolverUseLoadClassEnabled = configProvider.getBoolean(RESOLVER_USE_LOADCLASS, true);
+    resolverCacheDir = configProvider.getString(RESOLVER_CACHE_DIR);
+    resolverPrescanEnabled = configProvider.getBoolean(RESOLVER_PRESCAN_ENABLED, false);
 
     // Setting this last because we have a few places where this can come from
     apiKey = tmpApiKey;
@@ -1126,6 +1144,10 @@ public class Config {
     return tracerMetricsMaxPending;
   }
 
+  public int getTracerMetricsAggregatorShards() {
+    return tracerMetricsAggregatorShards;
+  }
+
   public boolean isLogsInjectionEnabled() {
     return logsInjectionEnabled;
   }
@@ -1280,6 +1302,10 @@ public class Config {
     return kafkaClientBase64DecodingEnabled;
   }
 
+  public boolean isKafkaClientBatchTracingEnabled() {
+    return kafkaClientBatchTracingEnabled;
+  }
+
   public boolean isRabbitPropagationEnabled() {
     return rabbitPropagationEnabled;
   }
@@ -1326,6 +1352,10 @@ public class Config {
     return traceAgentV05Enabled;
   }
 
+  public int getTraceSerializerThreads() {
+    return traceSerializerThreads;
+  }
+
   public boolean isDebugEnabled() {
     return debugEnabled;
   }
@@ -1346,6 +1376,14 @@ public class Config {
     return resolverUseLoadClassEnabled;
   }
 
+  public String getResolverCacheDir() {
+    return resolverCacheDir;
+  }
+
+  public boolean isResolverPrescanEnabled() {
+    return resolverPrescanEnabled;
+  }
+
   public String getJdbcPreparedStatementClassName() {
     return jdbcPreparedStatementClassName;
   }
@@ -1948,6 +1986,8 @@ public class Config {
         + tracerMetricsMaxAggregates
         + ", tracerMetricsMaxPending="
         + tracerMetricsMaxPending
+        + ", tracerMetricsAggregatorShards="
+        + tracerMetricsAggregatorShards
         + ", logsInjectionEnabled="
         + logsInjectionEnabled
         + ", logsMDCTagsInjectionEnabled="
@@ -2025,6 +2065,8 @@ public class Config {
         + kafkaClientPropagationDisabledTopics
         + ", kafkaClientBase64DecodingEnabled="
         + kafkaClientBase64DecodingEnabled
+        + ", kafkaClientBatchTracingEnabled="
+        + kafkaClientBatchTracingEnabled
         + ", jmsPropagationEnabled="
         + jmsPropagationEnabled
         + ", jmsPropagationDisabledTopics="
@@ -2053,6 +2095,8 @@ public class Config {
         + tempJarsCleanOnBoot
         + ", traceAgentV05Enabled="
         + traceAgentV05Enabled
+        + ", traceSerializerThreads="
+        + traceSerializerThreads
         + ", debugEnabled="
         + debugEnabled
         + ", configFile='"
@@ -2064,6 +2108,11 @@ public class Config {
         + internalExitOnFailure
         + ", resolverUseLoadClassEnabled="
         + resolverUseLoadClassEnabled
+        + ", resolverCacheDir='"
+        + resolverCacheDir
+        + '\''
+        + ", resolverPrescanEnabled="
+        + resolverPrescanEnabled
         + ", jdbcPreparedStatementClassName='"
         + jdbcPreparedStatementClassName
         + '\''
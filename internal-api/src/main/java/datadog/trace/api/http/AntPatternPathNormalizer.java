@@ -13,39 +13,47 @@ import org.slf4j.LoggerFactory;
 class AntPatternPathNormalizer extends PathNormalizer {
   private static final Logger log = LoggerFactory.getLogger(AntPatternPathNormalizer.class);
 
-  private final Map<String, String> resourceNameMatchers;
+  private final String[] resourceNames;
+  private final AntPatternTrie patterns;
   private final PathNormalizer fallback;
-  private final AntPathMatcher matcher = new AntPathMatcher();
 
   private final DDCache<String, String> cache = DDCaches.newFixedSizeCache(512);
   private final Function<String, String> cacheLoader =
       new Function<String, String>() {
         @Override
         public String apply(String path) {
-          for (Map.Entry<String, String> resourceNameMatcher : resourceNameMatchers.entrySet()) {
-            if (matcher.match(resourceNameMatcher.getKey(), path)) {
-              return resourceNameMatcher.getValue();
-            }
+          int matched = patterns.match(path);
+          if (matched != AntPatternTrie.NO_MATCH) {
+            return resourceNames[matched];
           }
           return fallback.normalize(path);
         }
       };
 
   AntPatternPathNormalizer(Map<String, String> httpResourceNameMatchers, PathNormalizer fallback) {
-    resourceNameMatchers = httpResourceNameMatchers;
     this.fallback = fallback;
 
     // Clean up invalid patterns
+    AntPathMatcher matcher = new AntPathMatcher();
     List<String> invalidPatterns = new ArrayList<>(httpResourceNameMatchers.keySet().size());
-    for (String pattern : resourceNameMatchers.keySet()) {
+    for (String pattern : httpResourceNameMatchers.keySet()) {
       if (!matcher.isPattern(pattern)) {
         invalidPatterns.add(pattern);
       }
     }
     for (String invalid : invalidPatterns) {
       log.warn("Invalid pattern {} removed from matchers", invalid);
-      resourceNameMatchers.remove(invalid);
+      httpResourceNameMatchers.remove(invalid);
     }
+
+    // Patterns are matched all at once, the first one in iteration order wins
+    List<String> validPatterns = new ArrayList<>(httpResourceNameMatchers.size());
+    resourceNames = new String[httpResourceNameMatchers.size()];
+    for (Map.Entry<String, String> resourceNameMatcher : httpResourceNameMatchers.entrySet()) {
+      resourceNames[validPatterns.size()] = resourceNameMatcher.getValue();
+      validPatterns.add(resourceNameMatcher.getKey());
+    }
+    patterns = new AntPatternTrie(validPatterns);
   }
 
   @Override
@@ -0,0 +1,278 @@
+package datadog.trace.api.http;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of Ant-style path patterns compiled into a trie of path segments, matching a path against
+ * all the patterns at once. A path matches the same patterns as it would with {@link
+ * AntPathMatcher}, {@linkplain #match(String)} returns the position of the first one.
+ *
+ * <p>Patterns sharing leading segments share the nodes for these segments, so matching visits each
+ * segment of the path once per distinct prefix instead of once per pattern, and literal segments
+ * are looked up in a hash table. Matching doesn't allocate, segments are compared in place.
+ */
+final class AntPatternTrie {
+  static final int NO_MATCH = -1;
+
+  private static final char SEPARATOR = '/';
+
+  private final Node absoluteRoot = new Node(false);
+  private final Node relativeRoot = new Node(false);
+
+  AntPatternTrie(List<String> patterns) {
+    for (int i = 0; i < patterns.size(); i++) {
+      add(patterns.get(i), i);
+    }
+    absoluteRoot.compile();
+    relativeRoot.compile();
+  }
+
+  /**
+   * @return the position of the first pattern matching the path, or {@value #NO_MATCH} if there is
+   *     none
+   */
+  int match(String path) {
+    if (path == null) {
+      return NO_MATCH;
+    }
+    Node root = startsWithSeparator(path) ? absoluteRoot : relativeRoot;
+    int best =
+        match(root, path, skipSeparators(path, 0), endsWithSeparator(path), Integer.MAX_VALUE);
+    return best == Integer.MAX_VALUE ? NO_MATCH : best;
+  }
+
+  private void add(String pattern, int index) {
+    Node node = startsWithSeparator(pattern) ? absoluteRoot : relativeRoot;
+    int start = skipSeparators(pattern, 0);
+    while (start < pattern.length()) {
+      int end = segmentEnd(pattern, start);
+      node = node.child(pattern.substring(start, end));
+      start = skipSeparators(pattern, end);
+    }
+    node.terminate(index, endsWithSeparator(pattern));
+  }
+
+  private static int match(Node node, String path, int start, boolean trailingSeparator, int best) {
+    if (node.minIndex >= best) {
+      // no pattern under this node could improve on what was already matched
+      return best;
+    }
+    if (start == path.length()) {
+      return matchEnd(node, trailingSeparator, best);
+    }
+    int end = segmentEnd(path, start);
+    int next = skipSeparators(path, end);
+    Node literal = node.literal(path, start, end);
+    if (null != literal) {
+      best = match(literal, path, next, trailingSeparator, best);
+    }
+    for (Node wildcard : node.wildcards) {
+      if (wildcard.minIndex < best && matchSegment(wildcard.segment, path, start, end)) {
+        best = match(wildcard, path, next, trailingSeparator, best);
+      }
+    }
+    if (null != node.anyDirectories) {
+      // '**' consumes zero or more segments
+      int position = start;
+      while (true) {
+        best = match(node.anyDirectories, path, position, trailingSeparator, best);
+        if (position == path.length()) {
+          break;
+        }
+        position = skipSeparators(path, segmentEnd(path, position));
+      }
+    }
+    return best;
+  }
+
+  private static int matchEnd(Node node, boolean trailingSeparator, int best) {
+    if (node.afterAnyDirectories) {
+      // a trailing separator only matters for patterns without '**'
+      best = Math.min(best, Math.min(node.withSeparator, node.withoutSeparator));
+    } else {
+      best = Math.min(best, trailingSeparator ? node.withSeparator : node.withoutSeparator);
+      if (trailingSeparator) {
+        // a final '*' also matches the empty segment after a trailing separator
+        for (Node wildcard : node.wildcards) {
+          if ("*".equals(wildcard.segment)) {
+            best = Math.min(best, Math.min(wildcard.withSeparator, wildcard.withoutSeparator));
+          }
+        }
+      }
+    }
+    if (null != node.anyDirectories && node.anyDirectories.minIndex < best) {
+      best = matchEnd(node.anyDirectories, trailingSeparator, best);
+    }
+    return best;
+  }
+
+  /** Matches a segment with '*' and '?' wildcards against {@code path[start, end)}. */
+  private static boolean matchSegment(String pattern, String path, int start, int end) {
+    int p = 0;
+    int s = start;
+    int starAt = -1;
+    int resumeAt = start;
+    while (s < end) {
+      if (p < pattern.length()) {
+        char ch = pattern.charAt(p);
+        if (ch == '*') {
+          starAt = p++;
+          resumeAt = s;
+          continue;
+        }
+        if (ch == '?' || ch == path.charAt(s)) {
+          p++;
+          s++;
+          continue;
+        }
+      }
+      if (starAt < 0) {
+        return false;
+      }
+      // let the last '*' consume one more character
+      p = starAt + 1;
+      s = ++resumeAt;
+    }
+    while (p < pattern.length() && pattern.charAt(p) == '*') {
+      p++;
+    }
+    return p == pattern.length();
+  }
+
+  private static boolean startsWithSeparator(String path) {
+    return !path.isEmpty() && path.charAt(0) == SEPARATOR;
+  }
+
+  private static boolean endsWithSeparator(String path) {
+    return !path.isEmpty() && path.charAt(path.length() - 1) == SEPARATOR;
+  }
+
+  private static int skipSeparators(String path, int start) {
+    while (start < path.length() && path.charAt(start) == SEPARATOR) {
+      start++;
+    }
+    return start;
+  }
+
+  private static int segmentEnd(String path, int start) {
+    int end = path.indexOf(SEPARATOR, start);
+    return end < 0 ? path.length() : end;
+  }
+
+  private static int hash(String path, int start, int end) {
+    // same as String.hashCode() of the segment
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + path.charAt(i);
+    }
+    return hash;
+  }
+
+  private static final class Node {
+    private static final Node[] NO_NODES = {};
+
+    final String segment;
+    final boolean afterAnyDirectories;
+
+    // first pattern ending here, with and without a trailing separator
+    int withSeparator = Integer.MAX_VALUE;
+    int withoutSeparator = Integer.MAX_VALUE;
+    // first pattern ending here or below
+    int minIndex = Integer.MAX_VALUE;
+
+    Node anyDirectories;
+    Node[] wildcards = NO_NODES;
+    private final List<Node> wildcardList = new ArrayList<>();
+    private final Map<String, Node> literalMap = new LinkedHashMap<>();
+    // open addressing table of literal segments
+    private String[] literalKeys;
+    private Node[] literalNodes;
+
+    Node(boolean afterAnyDirectories) {
+      this(null, afterAnyDirectories);
+    }
+
+    private Node(String segment, boolean afterAnyDirectories) {
+      this.segment = segment;
+      this.afterAnyDirectories = afterAnyDirectories;
+    }
+
+    Node child(String segment) {
+      if ("**".equals(segment)) {
+        if (null == anyDirectories) {
+          anyDirectories = new Node(segment, true);
+        }
+        return anyDirectories;
+      }
+      if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0) {
+        for (Node wildcard : wildcardList) {
+          if (wildcard.segment.equals(segment)) {
+            return wildcard;
+          }
+        }
+        Node wildcard = new Node(segment, afterAnyDirectories);
+        wildcardList.add(wildcard);
+        return wildcard;
+      }
+      Node literal = literalMap.get(segment);
+      if (null == literal) {
+        literal = new Node(segment, afterAnyDirectories);
+        literalMap.put(segment, literal);
+      }
+      return literal;
+    }
+
+    void terminate(int index, boolean trailingSeparator) {
+      if (trailingSeparator) {
+        withSeparator = Math.min(withSeparator, index);
+      } else {
+        withoutSeparator = Math.min(withoutSeparator, index);
+      }
+    }
+
+    /** Freezes this node and the nodes below it, and computes the first pattern of each. */
+    int compile() {
+      minIndex = Math.min(withSeparator, withoutSeparator);
+      if (null != anyDirectories) {
+        minIndex = Math.min(minIndex, anyDirectories.compile());
+      }
+      wildcards = wildcardList.toArray(NO_NODES);
+      wildcardList.clear();
+      for (Node wildcard : wildcards) {
+        minIndex = Math.min(minIndex, wildcard.compile());
+      }
+      int capacity = Integer.highestOneBit(Math.max(1, literalMap.size()) * 2 - 1) << 1;
+      literalKeys = new String[capacity];
+      literalNodes = new Node[capacity];
+      for (Map.Entry<String, Node> literal : literalMap.entrySet()) {
+        int slot = literal.getKey().hashCode() & (capacity - 1);
+        while (null != literalKeys[slot]) {
+          slot = (slot + 1) & (capacity - 1);
+        }
+        literalKeys[slot] = literal.getKey();
+        literalNodes[slot] = literal.getValue();
+        minIndex = Math.min(minIndex, literal.getValue().compile());
+      }
+      literalMap.clear();
+      return minIndex;
+    }
+
+    /** @return the child for the literal segment {@code path[start, end)}, if there is one */
+    Node literal(String path, int start, int end) {
+      int length = end - start;
+      int mask = literalKeys.length - 1;
+      int slot = hash(path, start, end) & mask;
+      String key;
+      while (null != (key = literalKeys[slot])) {
+        if (key.length() == length && key.regionMatches(0, path, start, length)) {
+          return literalNodes[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      return null;
+    }
+  }
+}
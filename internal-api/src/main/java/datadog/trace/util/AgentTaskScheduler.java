@@ -4,18 +4,23 @@ import static datadog.trace.util.AgentThreadFactory.AGENT_THREAD_GROUP;
 import static datadog.trace.util.AgentThreadFactory.AgentThread.TASK_SCHEDULER;
 import static datadog.trace.util.AgentThreadFactory.newAgentThread;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
-import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 import datadog.trace.util.AgentThreadFactory.AgentThread;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.lang.ref.WeakReference;
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.Delayed;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,9 +70,24 @@ public final class AgentTaskScheduler implements Executor {
     }
   }
 
-  private final DelayQueue<PeriodicTask<?>> workQueue = new DelayQueue<>();
+  private static final long TICK_NANOS = MILLISECONDS.toNanos(10);
+  private static final int WHEEL_SIZE = 512; // must be a power of two
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+  // tasks which take longer than this several runs in a row are moved to the offload executor,
+  // and moved back after as many faster runs in a row
+  private static final long SLOW_TASK_NANOS = MILLISECONDS.toNanos(10);
+  private static final int RUNS_BEFORE_MOVING = 3;
+  private static final int MAX_OFFLOAD_THREADS = 2;
+
+  // only accessed by the worker, each bucket is a list of tasks linked by PeriodicTask.next
+  private final PeriodicTask<?>[] wheel = new PeriodicTask<?>[WHEEL_SIZE];
+  // tasks to add to the wheel, from any thread
+  private final Queue<PeriodicTask<?>> pendingTasks = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger taskCount = new AtomicInteger();
   private final AgentThread agentThread;
   private volatile Thread worker;
+  private volatile ExecutorService offloadExecutor;
   private volatile boolean shutdown;
 
   public AgentTaskScheduler(final AgentThread agentThread) {
@@ -129,7 +149,6 @@ public final class AgentTaskScheduler implements Executor {
     scheduleTarget(task, new WeakTarget<>(target), initialDelay, period, unit);
   }
 
-  @SuppressFBWarnings("JLM_JSR166_UTILCONCURRENT_MONITORENTER")
   private <T> void scheduleTarget(
       final Task<T> task,
       final Target<T> target,
@@ -142,9 +161,9 @@ public final class AgentTaskScheduler implements Executor {
     }
 
     if (!shutdown && worker == null) {
-      synchronized (workQueue) {
+      synchronized (wheel) {
         if (!shutdown && worker == null) {
-          prepareWorkQueue();
+          preparePendingTasks();
           try {
             worker = newAgentThread(agentThread, new Worker());
             // register hook after worker is assigned, but before we start it
@@ -158,25 +177,79 @@ public final class AgentTaskScheduler implements Executor {
     }
 
     if (!shutdown) {
-      workQueue.offer(new PeriodicTask<>(task, target, initialDelay, period, unit));
+      enqueue(new PeriodicTask<>(task, target, initialDelay, period, unit));
     } else {
       log.debug("Agent task scheduler is shutdown. Will not run {}", describeTask(task, target));
     }
   }
 
-  private void prepareWorkQueue() {
+  private void preparePendingTasks() {
+    // exercise 'poll' method to make sure all relevant queue types are preloaded here
+    // rather than in the Worker - this avoids a potential loop-back
+    pendingTasks.poll();
+  }
+
+  private void enqueue(final PeriodicTask<?> task) {
+    taskCount.incrementAndGet();
+    pendingTasks.offer(task);
+    final Thread t = worker;
+    if (t != null && t != Thread.currentThread()) {
+      LockSupport.unpark(t);
+    }
+  }
+
+  /** Runs the task, then adds it back to the wheel if it's periodic and its target is alive. */
+  private void runTask(final PeriodicTask<?> task) {
+    final long startNanos = System.nanoTime();
     try {
-      // exercise 'poll' method to make sure all relevant queue synchronizer types are preloaded
-      // here rather than in the Worker when it calls 'take' - this avoids a potential loop-back
-      workQueue.poll(1, NANOSECONDS);
-    } catch (final InterruptedException e) {
-      // ignore, we only want to preload queue internals
+      task.run();
+    } catch (final Throwable e) {
+      log.debug("Uncaught exception from {}", task, e);
+    } finally {
+      task.recordRun(System.nanoTime() - startNanos > SLOW_TASK_NANOS);
+      if (task.reschedule() && !shutdown) {
+        enqueue(task);
+      }
+    }
+  }
+
+  private void offloadTask(final PeriodicTask<?> task) {
+    ExecutorService executor = offloadExecutor;
+    if (executor == null) {
+      ThreadPoolExecutor threadPool =
+          new ThreadPoolExecutor(
+              MAX_OFFLOAD_THREADS,
+              MAX_OFFLOAD_THREADS,
+              60,
+              SECONDS,
+              new LinkedBlockingQueue<Runnable>(),
+              new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                  final Thread thread = newAgentThread(agentThread, runnable);
+                  thread.setName(agentThread.threadName + "-offload");
+                  return thread;
+                }
+              });
+      threadPool.allowCoreThreadTimeOut(true);
+      offloadExecutor = executor = threadPool;
+    }
+    try {
+      executor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              runTask(task);
+            }
+          });
+    } catch (final RejectedExecutionException e) {
+      log.debug("Agent task scheduler is shutdown. Will not run {}", task);
     }
   }
 
   // for testing
   int taskCount() {
-    return workQueue.size();
+    return taskCount.get();
   }
 
   public boolean isShutdown() {
@@ -224,40 +297,128 @@ public final class AgentTaskScheduler implements Executor {
     }
   }
 
+  /**
+   * Hashed timer wheel: each tick of the clock is assigned a bucket, tasks are added to the bucket
+   * of the tick they're due at. Tasks due more than a full turn of the wheel later share the bucket
+   * with earlier ones and are kept until their tick comes. The worker sleeps until the first tick
+   * which has a bucket with tasks and only runs tasks itself until they turn out to be slow, so a
+   * slow task doesn't delay the others.
+   */
   private final class Worker implements Runnable {
+    private final long startNanos = System.nanoTime();
+
     @Override
     public void run() {
+      long currentTick = tick(System.nanoTime());
       while (!shutdown) {
-        PeriodicTask<?> work = null;
         try {
-          work = workQueue.take();
-          work.run();
-        } catch (final Throwable e) {
-          if (work != null) {
-            log.debug("Uncaught exception from {}", work, e);
+          addPendingTasks(currentTick);
+          if (pendingTasks.isEmpty()) {
+            final long nextTick = nextNonEmptyTick(currentTick);
+            if (nextTick < 0) {
+              LockSupport.park(this);
+            } else {
+              final long waitNanos = startNanos + nextTick * TICK_NANOS - System.nanoTime();
+              if (waitNanos > 0) {
+                LockSupport.parkNanos(this, waitNanos);
+              }
+            }
           }
-        } finally {
-          if (work != null && work.reschedule()) {
-            workQueue.offer(work);
+          final long nowTick = tick(System.nanoTime());
+          if (nowTick > currentTick) {
+            expireTasks(currentTick, nowTick);
+            currentTick = nowTick;
           }
+        } catch (final Throwable e) {
+          log.debug("Uncaught exception in agent task scheduler", e);
         }
       }
-      workQueue.clear();
+      Arrays.fill(wheel, null);
+      pendingTasks.clear();
+      taskCount.set(0);
+      final ExecutorService executor = offloadExecutor;
+      if (executor != null) {
+        executor.shutdownNow();
+      }
       worker = null;
     }
-  }
 
-  private static final AtomicInteger TASK_SEQUENCE_GENERATOR = new AtomicInteger();
+    private long tick(final long nanos) {
+      return (nanos - startNanos) / TICK_NANOS;
+    }
 
-  private static final class PeriodicTask<T> implements Delayed {
+    private void addPendingTasks(final long currentTick) {
+      PeriodicTask<?> task;
+      while (!shutdown && (task = pendingTasks.poll()) != null) {
+        if (task.nextFireTime - System.nanoTime() <= 0) {
+          runDueTask(task);
+        } else {
+          // round up, tasks must not run early
+          final long deadlineTick = (task.nextFireTime - startNanos + TICK_NANOS - 1) / TICK_NANOS;
+          task.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+          final int bucket = (int) (task.deadlineTick & WHEEL_MASK);
+          task.next = wheel[bucket];
+          wheel[bucket] = task;
+        }
+      }
+    }
+
+    private long nextNonEmptyTick(final long currentTick) {
+      for (long tick = currentTick + 1; tick <= currentTick + WHEEL_SIZE; ++tick) {
+        if (wheel[(int) (tick & WHEEL_MASK)] != null) {
+          return tick;
+        }
+      }
+      return -1;
+    }
+
+    /** Runs the tasks due in the ticks after {@code fromTick} up to and including {@code toTick}. */
+    private void expireTasks(final long fromTick, final long toTick) {
+      final long firstTick = Math.max(fromTick + 1, toTick - WHEEL_MASK);
+      for (long tick = firstTick; tick <= toTick && !shutdown; ++tick) {
+        final int bucket = (int) (tick & WHEEL_MASK);
+        PeriodicTask<?> task = wheel[bucket];
+        wheel[bucket] = null;
+        while (task != null) {
+          final PeriodicTask<?> next = task.next;
+          task.next = null;
+          if (task.deadlineTick <= toTick) {
+            runDueTask(task);
+          } else {
+            task.next = wheel[bucket];
+            wheel[bucket] = task;
+          }
+          task = next;
+        }
+      }
+    }
+
+    private void runDueTask(final PeriodicTask<?> task) {
+      taskCount.decrementAndGet();
+      if (task.offload) {
+        offloadTask(task);
+      } else {
+        runTask(task);
+      }
+    }
+  }
+
+  private static final class PeriodicTask<T> {
 
     private final Task<T> task;
     private final Target<T> target;
     private final long period;
-    private final int taskSequence;
 
     private long nextFireTime;
 
+    // only accessed by the worker
+    long deadlineTick;
+    PeriodicTask<?> next;
+
+    volatile boolean offload;
+    // consecutive runs which didn't fit where the task is run, runs of a task never overlap
+    private int mismatchedRuns;
+
     public PeriodicTask(
         final Task<T> task,
         final Target<T> target,
@@ -268,7 +429,6 @@ public final class AgentTaskScheduler implements Executor {
       this.task = task;
       this.target = target;
       this.period = unit.toNanos(period);
-      this.taskSequence = TASK_SEQUENCE_GENERATOR.getAndIncrement();
 
       nextFireTime = System.nanoTime() + unit.toNanos(initialDelay);
     }
@@ -280,44 +440,23 @@ public final class AgentTaskScheduler implements Executor {
       }
     }
 
-    public boolean reschedule() {
-      if (period > 0 && target.get() != null) {
-        nextFireTime += period;
-        return true;
-      }
-      return false;
-    }
-
-    @Override
-    public long getDelay(final TimeUnit unit) {
-      return unit.convert(nextFireTime - System.nanoTime(), NANOSECONDS);
-    }
-
-    @Override
-    public int compareTo(final Delayed other) {
-      if (this == other) {
-        return 0;
-      }
-      long taskOrder;
-      if (other instanceof PeriodicTask<?>) {
-        final PeriodicTask<?> otherTask = (PeriodicTask<?>) other;
-        taskOrder = nextFireTime - otherTask.nextFireTime;
-        if (taskOrder == 0) {
-          taskOrder = taskSequence - otherTask.taskSequence;
+    void recordRun(final boolean slow) {
+      if (slow != offload) {
+        if (++mismatchedRuns >= RUNS_BEFORE_MOVING) {
+          offload = slow;
+          mismatchedRuns = 0;
         }
       } else {
-        taskOrder = getDelay(NANOSECONDS) - other.getDelay(NANOSECONDS);
+        mismatchedRuns = 0;
       }
-      return taskOrder < 0 ? -1 : (taskOrder > 0 ? 1 : 0);
     }
 
-    @Override
-    public boolean equals(Object obj) {
-      try {
-        return obj == null ? false : (this.compareTo((Delayed) obj) != 0 ? false : true);
-      } catch (ClassCastException e) {
-        return false;
+    public boolean reschedule() {
+      if (period > 0 && target.get() != null) {
+        nextFireTime += period;
+        return true;
       }
+      return false;
     }
 
     @Override
@@ -12,10 +12,12 @@ public final class AgentThreadFactory implements ThreadFactory {
   // known agent threads
   public enum AgentThread {
     TASK_SCHEDULER("dd-task-scheduler"),
+    CLASS_PRESCAN("dd-class-prescan"),
 
     TRACE_STARTUP("dd-agent-startup-datadog-tracer"),
     TRACE_MONITOR("dd-trace-monitor"),
     TRACE_PROCESSOR("dd-trace-processor"),
+    TRACE_SERIALIZER("dd-trace-serializer"),
     TRACE_CASSANDRA_ASYNC_SESSION("dd-cassandra-session-executor"),
 
     METRICS_AGGREGATOR("dd-metrics-aggregator"),
@@ -0,0 +1,125 @@
+package datadog.trace.api.http
+
+import spock.lang.Shared
+import spock.lang.Specification
+
+class AntPatternTrieTest extends Specification {
+  @Shared
+  AntPathMatcher matcher = new AntPathMatcher()
+
+  def "matches like AntPathMatcher"() {
+    when:
+    int matched = new AntPatternTrie([pattern]).match(path)
+
+    then:
+    matched == (expected ? 0 : AntPatternTrie.NO_MATCH)
+    matcher.match(pattern, path) == expected
+
+    where:
+    pattern               | path                                               | expected
+    "/test"               | "/test"                                            | true
+    "https://example.org" | "https://example.org"                              | true
+    "/test.jpg"           | "test.jpg"                                         | false
+    "test"                | "/test"                                            | false
+    "t?st"                | "test"                                             | true
+    "tes?"                | "tes"                                              | false
+    "tes?"                | "testt"                                            | false
+    "*"                   | "test"                                             | true
+    "*"                   | ""                                                 | false
+    "test*"               | "test"                                             | true
+    "test/*"              | "test/"                                            | true
+    "test/*/"             | "test/"                                            | true
+    "/*"                  | "/"                                                | true
+    "*test*"              | "AnothertestTest"                                  | true
+    "*.*"                 | "test.test.test"                                   | true
+    "test*aaa"            | "testblaaaa"                                       | true
+    "test*"               | "test/"                                            | false
+    "test/*"              | "test"                                             | false
+    "*test*"              | "tsttst"                                           | false
+    "test*aaa"            | "testblaaab"                                       | false
+    "/a/??"               | "/a/bb"                                            | true
+    "/a/*"                | "/a/b/"                                            | false
+    "/a/*/"               | "/a/b/"                                            | true
+    "/a/*/"               | "/a/b"                                             | false
+    "/a//*"               | "/a/b"                                             | true
+    "/**"                 | "/testing/testing"                                 | true
+    "/**"                 | "/"                                                | true
+    "/**/*"               | "/testing/testing"                                 | true
+    "/bla/**/bla"         | "/bla/testing/testing/bla/bla"                     | true
+    "/bla/**/bla"         | "/bla/bla/"                                        | true
+    "/bla/**/**/bla"      | "/bla/bla/bla/bla/bla/bla"                         | true
+    "/**/*bla"            | "/bla/bla/bla/bbb"                                 | false
+    "/*bla*/**/bla/**"    | "/XXXblaXXXX/testing/testing/bla/testing/testing/" | true
+    "*bla*/**/bla/*"      | "XXXblaXXXX/testing/testing/bla/testing/testing"   | false
+    "/x/x/**/bla"         | "/x/x/x/"                                          | false
+    "/foo/bar/**"         | "/foo/bar"                                         | true
+    "/foo/bar/**/"        | "/foo/bar/baz"                                     | true
+    "/foo/**/bar"         | "/foo"                                             | false
+    "/foo/*"              | null                                               | false
+  }
+
+  def "first matching pattern wins"() {
+    given:
+    def trie = new AntPatternTrie([
+      "/api/**/orders",
+      "/api/v?/*",
+      "/api/v1/users/*",
+      "/api/**",
+      "/api/v1/users/*/",
+      "*/static/**"
+    ])
+
+    expect:
+    trie.match(path) == expected
+
+    where:
+    path                    | expected
+    "/api/v1/orders"        | 0
+    "/api/a/b/c/orders"     | 0
+    "/api/v1/users"         | 1
+    "/api/v1/users/123"     | 2
+    "/api/v1/users/123/"    | 3
+    "/api/v10/users/123/"   | 3
+    "/api"                  | 3
+    "/other"                | AntPatternTrie.NO_MATCH
+    "assets/static/app.js"  | 5
+    "/assets/static/app.js" | AntPatternTrie.NO_MATCH
+  }
+
+  def "agrees with AntPathMatcher on random patterns"() {
+    given:
+    def random = new Random(seed)
+    List<String> patterns = (1..8).collect {
+      randomPath(random, ["a", "b", "ab", "*", "?", "**", "a*", "*b", "?b", "*a*"])
+    }
+    def trie = new AntPatternTrie(patterns)
+
+    expect:
+    (1..200).every {
+      String path = randomPath(random, ["a", "b", "ab", "ba", "aab", ""])
+      int expected = patterns.findIndexOf { matcher.match(it, path) }
+      trie.match(path) == expected
+    }
+
+    where:
+    seed << (1..50)
+  }
+
+  static String randomPath(Random random, List<String> segments) {
+    def path = new StringBuilder()
+    if (random.nextBoolean()) {
+      path.append('/')
+    }
+    int length = random.nextInt(6)
+    for (int i = 0; i < length; i++) {
+      if (i > 0) {
+        path.append('/')
+      }
+      path.append(segments[random.nextInt(segments.size())])
+    }
+    if (random.nextInt(3) == 0) {
+      path.append('/')
+    }
+    return path.toString()
+  }
+}
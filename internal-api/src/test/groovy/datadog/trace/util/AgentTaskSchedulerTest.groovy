@@ -181,4 +181,76 @@ class AgentTaskSchedulerTest extends DDSpecification {
     scheduler.taskCount() == 0
     callCount.get() == 0
   }
+
+  def "test slow task doesn't delay other tasks"() {
+    setup:
+    def slowTask = new AgentTaskScheduler.Task<Object>() {
+        @Override
+        void run(Object target) {
+          sleep(200)
+        }
+      }
+    def latch = new CountDownLatch(20)
+    def task = new AgentTaskScheduler.Task<CountDownLatch>() {
+        @Override
+        void run(CountDownLatch target) {
+          target.countDown()
+        }
+      }
+
+    when:
+    scheduler.scheduleAtFixedRate(slowTask, new Object(), 0, 10, MILLISECONDS)
+    scheduler.scheduleAtFixedRate(task, latch, 0, 10, MILLISECONDS)
+
+    then:
+    // the first few runs of the slow task hold up the other task, after that it's run elsewhere
+    latch.await(1500, MILLISECONDS)
+  }
+
+  def "test task is only offloaded after several slow runs and comes back once fast"() {
+    setup:
+    def threadNames = Collections.synchronizedList([])
+    def latch = new CountDownLatch(12)
+    def task = new AgentTaskScheduler.Task<CountDownLatch>() {
+        @Override
+        void run(CountDownLatch target) {
+          threadNames.add(Thread.currentThread().name)
+          // slow once, fast twice, slow four times, then fast
+          def run = threadNames.size()
+          if (run == 1 || (run >= 4 && run <= 7)) {
+            sleep(30)
+          }
+          target.countDown()
+        }
+      }
+
+    when:
+    scheduler.scheduleAtFixedRate(task, latch, 0, 10, MILLISECONDS)
+
+    then:
+    latch.await(5, SECONDS)
+    def offloaded = new ArrayList(threadNames).take(12).collect { it.endsWith("-offload") }
+    // moved after the third slow run in a row, moved back after the third fast run in a row
+    offloaded == [false] * 6 + [true] * 4 + [false] * 2
+  }
+
+  def "test delay longer than a turn of the timer wheel"() {
+    setup:
+    def latch = new CountDownLatch(1)
+    def task = new AgentTaskScheduler.Task<CountDownLatch>() {
+        @Override
+        void run(CountDownLatch target) {
+          target.countDown()
+        }
+      }
+
+    when:
+    def start = System.nanoTime()
+    scheduler.schedule(task, latch, 6, SECONDS)
+
+    then:
+    !latch.await(5, SECONDS)
+    latch.await(3, SECONDS)
+    System.nanoTime() - start >= SECONDS.toNanos(6)
+  }
 }
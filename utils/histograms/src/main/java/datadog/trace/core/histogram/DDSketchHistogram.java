@@ -46,6 +46,13 @@ public final class DDSketchHistogram implements Histogram, HistogramFactory {
     this.sketch.clear();
   }
 
+  @Override
+  public void mergeWith(Histogram other) {
+    if (other instanceof DDSketchHistogram) {
+      this.sketch.mergeWith(((DDSketchHistogram) other).sketch);
+    }
+  }
+
   @Override
   public ByteBuffer serialize() {
     return sketch.serialize();
@@ -12,5 +12,12 @@ public interface Histogram {
 
   void clear();
 
+  /**
+   * Adds the values recorded by another histogram produced by the same factory into this one.
+   *
+   * @param other the histogram to merge, which is left unmodified
+   */
+  void mergeWith(Histogram other);
+
   ByteBuffer serialize();
 }
@@ -21,6 +21,9 @@ public class StubHistogram implements Histogram, HistogramFactory {
   @Override
   public void clear() {}
 
+  @Override
+  public void mergeWith(Histogram other) {}
+
   @Override
   public ByteBuffer serialize() {
     return EMPTY;
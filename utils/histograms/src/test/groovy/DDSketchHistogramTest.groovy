@@ -107,6 +107,24 @@ class DDSketchHistogramTest extends DDSpecification {
     (int)sketch.getMaxValue() == 3
   }
 
+  def "test merged histogram has quantiles of combined data"() {
+    setup:
+    Histogram left = Histograms.newHistogramFactory().newHistogram()
+    Histogram right = Histograms.newHistogramFactory().newHistogram()
+    long[] data = sortedRandomData(20000) {
+      uniform([1D, 2000D])
+    }
+    when: "values are split between two sketches which are then merged"
+    for (int i = 0; i < data.length; ++i) {
+      (i % 2 == 0 ? left : right).accept(data[i])
+    }
+    left.mergeWith(right)
+
+    then: "the merged sketch is accurate for all the data"
+    validateQuantiles(left, data)
+    left.max() >= right.max()
+  }
+
   def validateQuantiles(Histogram histogram, long[] data) {
     for (double quantile : quantiles) {
       double relativeError = relativeError(histogram.valueAtQuantile(quantile), empiricalQuantile(data, quantile))